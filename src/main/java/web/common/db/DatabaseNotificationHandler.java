@@ -0,0 +1,19 @@
+package web.common.db;
+
+/**
+ * Receives Postgres {@code NOTIFY} payloads for one channel via {@link PgNotificationListener}.
+ * Handlers are invoked on the listener thread and should return quickly.
+ */
+public interface DatabaseNotificationHandler {
+
+  /** Channel to {@code LISTEN} on (lower-case identifier). */
+  String channel();
+
+  void onNotification(String payload);
+
+  /**
+   * Called after the listener connection was (re)established. Notifications sent while the node
+   * was not listening are lost, so handlers should drop or reload whatever they cache.
+   */
+  void onResubscribe();
+}
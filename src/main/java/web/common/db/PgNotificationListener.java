@@ -0,0 +1,173 @@
+package web.common.db;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds one dedicated (non-pooled) Postgres connection that {@code LISTEN}s on the channels of all
+ * {@link DatabaseNotificationHandler} beans and dispatches incoming notifications.
+ *
+ * <p>Runs on its own thread; on connection loss it reconnects with backoff and calls
+ * {@link DatabaseNotificationHandler#onResubscribe()} so caches cannot stay stale across the gap.
+ */
+@Component
+@ConditionalOnProperty(value = "app.db-notifications.enabled", havingValue = "true", matchIfMissing = true)
+public class PgNotificationListener implements SmartLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(PgNotificationListener.class);
+
+  private final String url;
+  private final String username;
+  private final String password;
+  private final Map<String, List<DatabaseNotificationHandler>> handlers = new LinkedHashMap<>();
+  private final MeterRegistry meterRegistry;
+  private final int pollMillis;
+  private final Duration maxBackoff;
+
+  private volatile boolean running;
+  private volatile Connection connection;
+  private Thread thread;
+
+  public PgNotificationListener(ObjectProvider<JdbcConnectionDetails> connectionDetails,
+                                DataSourceProperties dataSourceProperties,
+                                List<DatabaseNotificationHandler> handlers,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.db-notifications.poll-interval:500ms}") Duration pollInterval,
+                                @Value("${app.db-notifications.max-reconnect-backoff:30s}") Duration maxBackoff) {
+    // Always the primary: notifications are not replicated to read replicas
+    JdbcConnectionDetails details = connectionDetails.getIfAvailable();
+    this.url = details != null ? details.getJdbcUrl() : dataSourceProperties.determineUrl();
+    this.username = details != null ? details.getUsername() : dataSourceProperties.determineUsername();
+    this.password = details != null ? details.getPassword() : dataSourceProperties.determinePassword();
+    for (DatabaseNotificationHandler h : handlers) {
+      this.handlers.computeIfAbsent(h.channel(), c -> new ArrayList<>()).add(h);
+    }
+    this.meterRegistry = meterRegistry;
+    this.pollMillis = (int) pollInterval.toMillis();
+    this.maxBackoff = maxBackoff;
+  }
+
+  @Override
+  public void start() {
+    if (handlers.isEmpty()) return;
+    if (url == null || !url.startsWith("jdbc:postgresql:")) {
+      log.info("Database notifications disabled: not a PostgreSQL datasource");
+      return;
+    }
+    running = true;
+    thread = Thread.ofPlatform().name("pg-notify-listener").daemon().start(this::run);
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    closeQuietly();
+    if (thread != null) {
+      thread.interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void run() {
+    long backoffMillis = 500;
+    while (running) {
+      try {
+        subscribe();
+        backoffMillis = 500;
+        receiveUntilFailure();
+      } catch (SQLException e) {
+        if (!running) break;
+        log.warn("Notification listener connection lost; reconnecting in {} ms: {}", backoffMillis, e.getMessage());
+      } finally {
+        closeQuietly();
+      }
+      try {
+        Thread.sleep(backoffMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+      backoffMillis = Math.min(backoffMillis * 2, maxBackoff.toMillis());
+    }
+  }
+
+  private void subscribe() throws SQLException {
+    connection = DriverManager.getConnection(url, username, password);
+    connection.setAutoCommit(true);
+    try (Statement st = connection.createStatement()) {
+      for (String channel : handlers.keySet()) {
+        st.execute("LISTEN " + channel);
+      }
+    }
+    log.info("Listening for database notifications on {}", handlers.keySet());
+    // Anything published before LISTEN took effect was missed
+    handlers.values().forEach(list -> list.forEach(this::resubscribe));
+  }
+
+  private void receiveUntilFailure() throws SQLException {
+    PGConnection pg = connection.unwrap(PGConnection.class);
+    while (running) {
+      PGNotification[] batch = pg.getNotifications(pollMillis);
+      if (batch == null) continue;
+      for (PGNotification n : batch) {
+        dispatch(n.getName(), n.getParameter());
+      }
+    }
+  }
+
+  private void dispatch(String channel, String payload) {
+    List<DatabaseNotificationHandler> targets = handlers.get(channel);
+    if (targets == null) return;
+    meterRegistry.counter("db.notifications.received", "channel", channel).increment();
+    for (DatabaseNotificationHandler h : targets) {
+      try {
+        h.onNotification(payload);
+      } catch (RuntimeException e) {
+        log.warn("Handler for channel {} failed on payload '{}'", channel, payload, e);
+      }
+    }
+  }
+
+  private void resubscribe(DatabaseNotificationHandler h) {
+    try {
+      h.onResubscribe();
+    } catch (RuntimeException e) {
+      log.warn("Resubscribe handler for channel {} failed", h.channel(), e);
+    }
+  }
+
+  private void closeQuietly() {
+    Connection c = connection;
+    connection = null;
+    if (c != null) {
+      try {
+        c.close();
+      } catch (SQLException ignored) {
+        // already broken
+      }
+    }
+  }
+}
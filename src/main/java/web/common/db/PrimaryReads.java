@@ -0,0 +1,34 @@
+package web.common.db;
+
+import java.util.function.Supplier;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs reads that fill a shared cache on the primary.
+ *
+ * <p>{@link ReadWriteRoutingDataSource} sends read-only transactions to the replica, and a cache
+ * filled from a lagging replica keeps the stale rows until the next invalidation, which has
+ * already fired. The work runs in a read-write transaction: it joins the caller's when that one is
+ * read-write (already on the primary) and suspends it when it is read-only, since the routing
+ * decision of a transaction cannot change once its connection is taken.
+ */
+public final class PrimaryReads {
+
+  private final TransactionTemplate joining;
+  private final TransactionTemplate separate;
+
+  public PrimaryReads(PlatformTransactionManager transactionManager) {
+    this.joining = new TransactionTemplate(transactionManager);
+    this.separate = new TransactionTemplate(transactionManager);
+    this.separate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  public <T> T execute(Supplier<T> work) {
+    boolean readOnlyCaller = TransactionSynchronizationManager.isActualTransactionActive()
+        && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    return (readOnlyCaller ? separate : joining).execute(status -> work.get());
+  }
+}
@@ -0,0 +1,69 @@
+package web.common.db;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Replaces the auto-configured pool with primary + replica pools behind a
+ * {@link ReadWriteRoutingDataSource}, when {@code app.datasource.replica.url} is set.
+ *
+ * <p>The primary keeps {@code spring.datasource.*} (including {@code hikari.*}) and runs Flyway;
+ * the replica pool is read-only.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "url")
+@EnableConfigurationProperties(ReadReplicaProps.class)
+public class ReadReplicaConfig {
+
+  @Bean
+  @FlywayDataSource
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties,
+                                            ObjectProvider<JdbcConnectionDetails> connectionDetails) {
+    JdbcConnectionDetails details = connectionDetails.getIfAvailable();
+    HikariDataSource ds = new HikariDataSource();
+    ds.setJdbcUrl(details != null ? details.getJdbcUrl() : properties.determineUrl());
+    ds.setUsername(details != null ? details.getUsername() : properties.determineUsername());
+    ds.setPassword(details != null ? details.getPassword() : properties.determinePassword());
+    ds.setPoolName("primary");
+    return ds;
+  }
+
+  @Bean
+  public HikariDataSource replicaDataSource(ReadReplicaProps replica, DataSourceProperties properties) {
+    HikariDataSource ds = new HikariDataSource();
+    ds.setJdbcUrl(replica.url());
+    ds.setUsername(replica.username() != null ? replica.username() : properties.determineUsername());
+    ds.setPassword(replica.password() != null ? replica.password() : properties.determinePassword());
+    ds.setMaximumPoolSize(replica.maximumPoolSizeOrDefault());
+    ds.setReadOnly(true);
+    ds.setPoolName("replica");
+    return ds;
+  }
+
+  @Bean
+  public ReadWriteRoutingDataSource routingDataSource(HikariDataSource primaryDataSource,
+                                                      HikariDataSource replicaDataSource,
+                                                      ReadReplicaProps replica,
+                                                      MeterRegistry meterRegistry) {
+    return new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource, replica.stickinessOrDefault(), meterRegistry);
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+    return new LazyConnectionDataSourceProxy(routingDataSource);
+  }
+}
@@ -0,0 +1,29 @@
+package web.common.db;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Read replica for {@link ReadWriteRoutingDataSource}; routing is enabled only when {@code url} is
+ * set. Unset values fall back to the primary's credentials and the defaults below.
+ */
+@ConfigurationProperties(prefix = "app.datasource.replica")
+public record ReadReplicaProps(
+    String url,
+    String username,
+    String password,
+    Integer maximumPoolSize,
+    Duration stickiness
+) {
+
+  public static final int DEFAULT_MAXIMUM_POOL_SIZE = 10;
+  public static final Duration DEFAULT_STICKINESS = Duration.ofSeconds(5);
+
+  public int maximumPoolSizeOrDefault() {
+    return maximumPoolSize != null && maximumPoolSize > 0 ? maximumPoolSize : DEFAULT_MAXIMUM_POOL_SIZE;
+  }
+
+  public Duration stickinessOrDefault() {
+    return stickiness != null && !stickiness.isNegative() ? stickiness : DEFAULT_STICKINESS;
+  }
+}
@@ -0,0 +1,93 @@
+package web.common.db;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import web.common.security.CurrentUser;
+
+/**
+ * Sends connections of {@code @Transactional(readOnly = true)} transactions to the replica and
+ * everything else to the primary.
+ *
+ * <p>Must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * so the decision is made at the first statement, after the transaction's read-only flag is
+ * bound. A user whose read-write transaction committed within the last {@code stickiness} keeps
+ * reading from the primary, so they never see replica lag on their own writes. Each decision is
+ * counted in {@code db.routing} by {@code target} and {@code reason}.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+  public enum Target { PRIMARY, REPLICA }
+
+  enum Reason { WRITE, NO_TRANSACTION, STICKY, READ_ONLY }
+
+  private final Cache<String, Boolean> recentWriters;
+  private final Map<Reason, Counter> decisions = new EnumMap<>(Reason.class);
+
+  public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration stickiness, MeterRegistry meterRegistry) {
+    this(primary, replica, stickiness, meterRegistry, Ticker.systemTicker());
+  }
+
+  ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration stickiness,
+                             MeterRegistry meterRegistry, Ticker ticker) {
+    setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+    setDefaultTargetDataSource(primary);
+    this.recentWriters = Caffeine.newBuilder()
+        .expireAfterWrite(stickiness)
+        .maximumSize(100_000)
+        .ticker(ticker)
+        .build();
+    for (Reason reason : Reason.values()) {
+      decisions.put(reason, Counter.builder("db.routing")
+          .description("Connections routed by ReadWriteRoutingDataSource")
+          .tag("target", target(reason).name().toLowerCase())
+          .tag("reason", reason.name().toLowerCase())
+          .register(meterRegistry));
+    }
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    Reason reason = decide();
+    decisions.get(reason).increment();
+    return target(reason);
+  }
+
+  private Reason decide() {
+    if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+      return Reason.NO_TRANSACTION;
+    }
+    String userId = CurrentUser.userId().orElse(null);
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      if (userId != null) markAfterCommit(userId);
+      return Reason.WRITE;
+    }
+    return userId != null && recentWriters.getIfPresent(userId) != null ? Reason.STICKY : Reason.READ_ONLY;
+  }
+
+  private void markAfterCommit(String userId) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      recentWriters.put(userId, Boolean.TRUE);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        recentWriters.put(userId, Boolean.TRUE);
+      }
+    });
+  }
+
+  private static Target target(Reason reason) {
+    return reason == Reason.READ_ONLY ? Target.REPLICA : Target.PRIMARY;
+  }
+}
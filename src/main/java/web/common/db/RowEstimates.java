@@ -0,0 +1,34 @@
+package web.common.db;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cheap row counts from Postgres planner estimates, for {@code count=estimate} pagination.
+ * Nothing is executed; accuracy is whatever the last ANALYZE left behind.
+ */
+@Component
+public class RowEstimates {
+
+  private static final ObjectMapper JSON = new ObjectMapper();
+
+  private final JdbcTemplate jdbc;
+
+  public RowEstimates(JdbcTemplate jdbc) {
+    this.jdbc = jdbc;
+  }
+
+  /** Planner estimate for the rows {@code sql} returns ({@code EXPLAIN}, not executed). */
+  public long explain(String sql, Object... args) {
+    String plan = jdbc.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class, args);
+    try {
+      JsonNode rows = JSON.readTree(plan).path(0).path("Plan").path("Plan Rows");
+      return rows.isNumber() ? rows.asLong() : -1;
+    } catch (JsonProcessingException e) {
+      return -1;
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package web.common.dto;
+
+import java.util.Locale;
+import java.util.Map;
+import web.common.exception.AppException;
+import web.common.exception.ErrorCode;
+
+/**
+ * How a paginated endpoint computes its total ({@code ?count=none|estimate|exact}).
+ *
+ * <ul>
+ *   <li>{@code none}: no count query; one extra row is read to decide {@code hasNext}.</li>
+ *   <li>{@code estimate}: planner row estimate, clamped to what the page has already seen.</li>
+ *   <li>{@code exact}: {@code COUNT(*)}; the default.</li>
+ * </ul>
+ */
+public enum CountMode {
+  NONE, ESTIMATE, EXACT;
+
+  /** Parses a request parameter; null or blank means {@link #EXACT}. */
+  public static CountMode parse(String value) {
+    if (value == null || value.isBlank()) return EXACT;
+    try {
+      return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new AppException(ErrorCode.ARGUMENT_INVALID, Map.of("field", "count", "reason", "unsupported", "value", value));
+    }
+  }
+
+  /** Value reported in {@code meta.count}. */
+  public String value() {
+    return name().toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,59 @@
+package web.common.dto;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+
+/**
+ * One page of results plus the {@link CountMode} actually used to produce it, which may be
+ * stronger than the one requested (e.g. {@code estimate} falling back to {@code exact}).
+ *
+ * <p>{@link #meta()} is the pagination part of the {@link ApiResponse} envelope:
+ * {@code page}, {@code size}, {@code hasNext} and {@code count} always; {@code totalItems} and
+ * {@code totalPages} only when {@code count} is {@code estimate} or {@code exact}.
+ */
+public record PageResult<T>(Slice<T> slice, CountMode count) {
+
+  public static <T> PageResult<T> exact(Page<T> page) {
+    return new PageResult<>(page, CountMode.EXACT);
+  }
+
+  public static <T> PageResult<T> uncounted(Slice<T> slice) {
+    return new PageResult<>(slice, CountMode.NONE);
+  }
+
+  /**
+   * Wraps {@code slice} with an estimated total. The estimate is never allowed to contradict the
+   * slice: it is at least one past the rows seen when there is a next page, and exact on the last.
+   */
+  public static <T> PageResult<T> estimated(Slice<T> slice, long estimate) {
+    long seen = slice.getPageable().getOffset() + slice.getNumberOfElements();
+    long total = slice.hasNext() ? Math.max(estimate, seen + 1) : seen;
+    return new PageResult<>(new PageImpl<>(slice.getContent(), slice.getPageable(), total), CountMode.ESTIMATE);
+  }
+
+  public List<T> content() {
+    return slice.getContent();
+  }
+
+  public <R> PageResult<R> map(Function<? super T, ? extends R> mapper) {
+    return new PageResult<>(slice.map(mapper), count);
+  }
+
+  public Map<String, Object> meta() {
+    Map<String, Object> meta = new LinkedHashMap<>();
+    meta.put("page", slice.getNumber());
+    meta.put("size", slice.getSize());
+    meta.put("hasNext", slice.hasNext());
+    meta.put("count", count.value());
+    if (slice instanceof Page<T> page) {
+      meta.put("totalItems", page.getTotalElements());
+      meta.put("totalPages", page.getTotalPages());
+    }
+    return meta;
+  }
+}
@@ -0,0 +1,40 @@
+package web.common.security;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Principal stored in the security context by {@link FirebaseAuthFilter}.
+ *
+ * <p>{@code userId} and the scope fields are null when the token is valid but no active user row
+ * matches it (e.g. a first sign-in before provisioning).
+ */
+public record AuthenticatedUser(
+    String userId,
+    String email,
+    String countryId,
+    String provinceId,
+    List<String> roleIds,
+    String name
+) implements Principal {
+
+  public AuthenticatedUser {
+    roleIds = roleIds == null ? List.of() : List.copyOf(roleIds);
+  }
+
+  /** Principal for a verified token that has no matching user. */
+  public static AuthenticatedUser unregistered(VerifiedToken token) {
+    return new AuthenticatedUser(null, token.email(), null, null, List.of(), token.principalName());
+  }
+
+  /** Email when present, otherwise the token uid. */
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
@@ -7,6 +7,17 @@ import org.springframework.security.core.context.SecurityContextHolder;
 public final class CurrentUser {
   private CurrentUser() {}
 
+  public static Optional<AuthenticatedUser> principal() {
+    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+    if (auth == null) return Optional.empty();
+    return auth.getPrincipal() instanceof AuthenticatedUser user ? Optional.of(user) : Optional.empty();
+  }
+
+  /** Internal id of the authenticated user; empty when unauthenticated or not provisioned. */
+  public static Optional<String> userId() {
+    return principal().map(AuthenticatedUser::userId);
+  }
+
   public static Optional<String> email() {
     Authentication auth = SecurityContextHolder.getContext().getAuthentication();
     if (auth == null) return Optional.empty();
@@ -1,8 +1,5 @@
 package web.common.security;
 
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseToken;
-import com.google.firebase.auth.FirebaseAuthException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,10 +16,12 @@ import web.common.request.RequestIdHolder;
 @Component
 public class FirebaseAuthFilter extends OncePerRequestFilter {
 
-  private final FirebaseAuth firebaseAuth;
+  private final TokenVerifier tokenVerifier;
+  private final PrincipalResolver principalResolver;
 
-  public FirebaseAuthFilter(java.util.Optional<FirebaseAuth> firebaseAuth) {
-    this.firebaseAuth = firebaseAuth.orElse(null);
+  public FirebaseAuthFilter(TokenVerifier tokenVerifier, PrincipalResolver principalResolver) {
+    this.tokenVerifier = tokenVerifier;
+    this.principalResolver = principalResolver;
   }
 
   @Override
@@ -30,20 +29,15 @@ public class FirebaseAuthFilter extends OncePerRequestFilter {
       throws ServletException, IOException {
 
     String authHeader = request.getHeader("Authorization");
-    if (firebaseAuth != null && authHeader != null && authHeader.startsWith("Bearer ")) {
+    if (authHeader != null && authHeader.startsWith("Bearer ")) {
       String token = authHeader.substring(7);
-      try {
-        FirebaseToken decoded = firebaseAuth.verifyIdToken(token, true);
-        String email = decoded.getEmail();
-        if (email == null || email.isBlank()) {
-          email = decoded.getUid();
-        }
+      // Invalid token: leave unauthenticated and proceed.
+      tokenVerifier.verify(token).ifPresent(verified -> {
+        AuthenticatedUser principal = principalResolver.resolve(verified);
         UsernamePasswordAuthenticationToken auth =
-            new UsernamePasswordAuthenticationToken(email, null, Collections.emptyList());
+            new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList());
         SecurityContextHolder.getContext().setAuthentication(auth);
-      } catch (FirebaseAuthException e) {
-        // Invalid token; leave unauthenticated and proceed.
-      }
+      });
     }
 
     try {
@@ -0,0 +1,38 @@
+package web.common.security;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Tuning for {@link FirebaseTokenVerifier}. Unset values fall back to the defaults below.
+ */
+@ConfigurationProperties(prefix = "firebase.token-cache")
+public record FirebaseTokenCacheProps(
+    Boolean enabled,
+    Long maxSize,
+    Duration maxTtl,
+    Duration revocationCheckInterval
+) {
+
+  public static final long DEFAULT_MAX_SIZE = 10_000;
+  public static final Duration DEFAULT_MAX_TTL = Duration.ofMinutes(10);
+  public static final Duration DEFAULT_REVOCATION_CHECK_INTERVAL = Duration.ofMinutes(1);
+
+  public boolean enabledOrDefault() {
+    return enabled == null || enabled;
+  }
+
+  public long maxSizeOrDefault() {
+    return maxSize != null && maxSize > 0 ? maxSize : DEFAULT_MAX_SIZE;
+  }
+
+  public Duration maxTtlOrDefault() {
+    return maxTtl != null && !maxTtl.isNegative() ? maxTtl : DEFAULT_MAX_TTL;
+  }
+
+  public Duration revocationCheckIntervalOrDefault() {
+    return revocationCheckInterval != null && !revocationCheckInterval.isNegative()
+        ? revocationCheckInterval
+        : DEFAULT_REVOCATION_CHECK_INTERVAL;
+  }
+}
@@ -0,0 +1,210 @@
+package web.common.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verifies Firebase ID tokens and caches the result.
+ *
+ * <p>A cache miss performs the full {@code verifyIdToken(token, true)} call. Hits are served
+ * from memory; revocation is then re-checked in the background at most once per
+ * {@code revocationCheckInterval} for each uid, and a failed check evicts every cached token
+ * of that uid. Entries never outlive the token's {@code exp}.
+ */
+@Component
+@ConditionalOnProperty(value = "auth.token-verifier", havingValue = "firebase", matchIfMissing = true)
+public class FirebaseTokenVerifier implements TokenVerifier {
+
+  private static final Logger log = LoggerFactory.getLogger(FirebaseTokenVerifier.class);
+
+  private final FirebaseAuth firebaseAuth;
+  private final FirebaseTokenCacheProps props;
+  private final Ticker ticker;
+  private final ExecutorService revocationExecutor;
+  private final Cache<String, VerifiedToken> tokens;
+  private final Cache<String, Long> revocationCheckedAt;
+  private final Set<String> revocationInFlight = ConcurrentHashMap.newKeySet();
+  private final Counter revokedCounter;
+
+  @Autowired
+  public FirebaseTokenVerifier(
+      Optional<FirebaseAuth> firebaseAuth, FirebaseTokenCacheProps props, MeterRegistry meterRegistry) {
+    this(firebaseAuth.orElse(null), props, meterRegistry, Ticker.systemTicker(), Clock.systemUTC(),
+        Executors.newVirtualThreadPerTaskExecutor());
+  }
+
+  FirebaseTokenVerifier(FirebaseAuth firebaseAuth, FirebaseTokenCacheProps props, MeterRegistry meterRegistry,
+                        Ticker ticker, Clock clock, ExecutorService revocationExecutor) {
+    this.firebaseAuth = firebaseAuth;
+    this.props = props;
+    this.ticker = ticker;
+    this.revocationExecutor = revocationExecutor;
+    long maxTtlNanos = props.maxTtlOrDefault().toNanos();
+    this.tokens = Caffeine.newBuilder()
+        .maximumSize(props.maxSizeOrDefault())
+        .expireAfter(new TokenExpiry(maxTtlNanos, clock))
+        .ticker(ticker)
+        .recordStats()
+        .build();
+    this.revocationCheckedAt = Caffeine.newBuilder()
+        .maximumSize(props.maxSizeOrDefault())
+        .expireAfterWrite(props.maxTtlOrDefault())
+        .ticker(ticker)
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, tokens, "firebase.id-tokens");
+    this.revokedCounter = Counter.builder("firebase.id-tokens.revoked")
+        .description("Cached tokens dropped because a background revocation check failed")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public Optional<VerifiedToken> verify(String token) {
+    if (firebaseAuth == null || token == null || token.isBlank()) {
+      return Optional.empty();
+    }
+    if (!props.enabledOrDefault()) {
+      return Optional.ofNullable(verifyRemote(token));
+    }
+    // Concurrent requests carrying the same new token share one verification.
+    boolean[] loaded = {false};
+    VerifiedToken verified = tokens.get(hash(token), k -> {
+      loaded[0] = true;
+      VerifiedToken v = verifyRemote(token);
+      if (v != null && v.uid() != null) {
+        revocationCheckedAt.put(v.uid(), ticker.read());
+      }
+      return v;
+    });
+    if (verified != null && !loaded[0]) {
+      scheduleRevocationCheck(token, verified.uid());
+    }
+    return Optional.ofNullable(verified);
+  }
+
+  /** Drops every cached token belonging to {@code uid}. */
+  public void evictUid(String uid) {
+    if (uid == null) return;
+    tokens.asMap().values().removeIf(v -> uid.equals(v.uid()));
+    revocationCheckedAt.invalidate(uid);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    revocationExecutor.shutdownNow();
+  }
+
+  private VerifiedToken verifyRemote(String token) {
+    try {
+      return toVerified(firebaseAuth.verifyIdToken(token, true));
+    } catch (FirebaseAuthException e) {
+      // Invalid token; caller leaves the request unauthenticated.
+      return null;
+    }
+  }
+
+  private void scheduleRevocationCheck(String token, String uid) {
+    if (uid == null) return;
+    long now = ticker.read();
+    Long last = revocationCheckedAt.getIfPresent(uid);
+    if (last != null && now - last < props.revocationCheckIntervalOrDefault().toNanos()) {
+      return;
+    }
+    if (!revocationInFlight.add(uid)) {
+      return;
+    }
+    revocationCheckedAt.put(uid, now);
+    try {
+      revocationExecutor.execute(() -> {
+        try {
+          firebaseAuth.verifyIdToken(token, true);
+        } catch (FirebaseAuthException e) {
+          log.info("Dropping cached tokens for uid {}: {}", uid, e.getAuthErrorCode());
+          revokedCounter.increment();
+          evictUid(uid);
+        } catch (RuntimeException e) {
+          log.warn("Background revocation check failed for uid {}", uid, e);
+        } finally {
+          revocationInFlight.remove(uid);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      revocationInFlight.remove(uid);
+    }
+  }
+
+  private static VerifiedToken toVerified(FirebaseToken decoded) {
+    Instant expiresAt = null;
+    Map<String, Object> claims = decoded.getClaims();
+    if (claims != null && claims.get("exp") instanceof Number exp) {
+      expiresAt = Instant.ofEpochSecond(exp.longValue());
+    }
+    return new VerifiedToken(decoded.getUid(), decoded.getEmail(), expiresAt);
+  }
+
+  static String hash(String token) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  /** Caps each entry at min(maxTtl, time left until the token's exp on {@code clock}). */
+  private static final class TokenExpiry implements Expiry<String, VerifiedToken> {
+    private final long maxTtlNanos;
+    private final Clock clock;
+
+    TokenExpiry(long maxTtlNanos, Clock clock) {
+      this.maxTtlNanos = maxTtlNanos;
+      this.clock = clock;
+    }
+
+    @Override
+    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+      if (value.expiresAt() == null) {
+        return maxTtlNanos;
+      }
+      long untilExp = TimeUnit.MILLISECONDS.toNanos(value.expiresAt().toEpochMilli() - clock.millis());
+      return Math.max(0, Math.min(maxTtlNanos, untilExp));
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+      return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package web.common.security;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for {@link JwksTokenVerifier}. {@code issuer} and {@code audience} are only enforced
+ * when set.
+ */
+@ConfigurationProperties(prefix = "auth.jwks")
+public record JwksProps(
+    String path,
+    String issuer,
+    String audience,
+    Duration clockSkew
+) {
+
+  public Duration clockSkewOrDefault() {
+    return clockSkew != null && !clockSkew.isNegative() ? clockSkew : Duration.ofSeconds(30);
+  }
+}
@@ -0,0 +1,200 @@
+package web.common.security;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.Signature;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verifies RS256 JWTs against a local JWKS file ({@code auth.jwks.path}); no network access.
+ *
+ * <p>Keys are parsed once at startup. The base64url header segment is effectively constant per
+ * key id, so it is used as a cache key straight to the {@link RSAPublicKey}; claims are read with
+ * a streaming parser and {@link Signature} instances are reused per thread.
+ */
+@Component
+@ConditionalOnProperty(value = "auth.token-verifier", havingValue = "jwks")
+public class JwksTokenVerifier implements TokenVerifier {
+
+  private static final Logger log = LoggerFactory.getLogger(JwksTokenVerifier.class);
+  private static final int MAX_CACHED_HEADERS = 64;
+  private static final JsonFactory JSON = new JsonFactory();
+  private static final Base64.Decoder B64 = Base64.getUrlDecoder();
+  private static final ThreadLocal<Signature> RS256 = ThreadLocal.withInitial(() -> {
+    try {
+      return Signature.getInstance("SHA256withRSA");
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("SHA256withRSA not available", e);
+    }
+  });
+
+  private final Map<String, RSAPublicKey> keysById;
+  private final Map<String, RSAPublicKey> keysByHeader = new ConcurrentHashMap<>();
+  private final String issuer;
+  private final String audience;
+  private final long clockSkewSeconds;
+  private final Clock clock;
+
+  @Autowired
+  public JwksTokenVerifier(JwksProps props) throws IOException {
+    this(readJwks(props.path()), props, Clock.systemUTC());
+  }
+
+  JwksTokenVerifier(String jwksJson, JwksProps props, Clock clock) {
+    this.keysById = parseJwks(jwksJson);
+    this.issuer = blankToNull(props.issuer());
+    this.audience = blankToNull(props.audience());
+    this.clockSkewSeconds = props.clockSkewOrDefault().toSeconds();
+    this.clock = clock;
+    log.info("Loaded {} RS256 verification key(s) from JWKS", keysById.size());
+  }
+
+  @Override
+  public Optional<VerifiedToken> verify(String token) {
+    if (token == null) return Optional.empty();
+    int dot1 = token.indexOf('.');
+    int dot2 = dot1 < 0 ? -1 : token.indexOf('.', dot1 + 1);
+    if (dot1 <= 0 || dot2 < 0 || token.indexOf('.', dot2 + 1) >= 0) {
+      return Optional.empty();
+    }
+    try {
+      RSAPublicKey key = keyFor(token.substring(0, dot1));
+      if (key == null) return Optional.empty();
+
+      Signature signature = RS256.get();
+      signature.initVerify(key);
+      signature.update(token.getBytes(StandardCharsets.US_ASCII), 0, dot2);
+      if (!signature.verify(B64.decode(token.substring(dot2 + 1)))) {
+        return Optional.empty();
+      }
+      return readClaims(B64.decode(token.substring(dot1 + 1, dot2)));
+    } catch (IllegalArgumentException | IOException | GeneralSecurityException e) {
+      // Malformed or unverifiable token; leave unauthenticated.
+      return Optional.empty();
+    }
+  }
+
+  private RSAPublicKey keyFor(String headerSegment) throws IOException {
+    RSAPublicKey key = keysByHeader.get(headerSegment);
+    if (key != null) return key;
+
+    String alg = null;
+    String kid = null;
+    try (JsonParser p = JSON.createParser(B64.decode(headerSegment))) {
+      if (p.nextToken() != JsonToken.START_OBJECT) return null;
+      while (p.nextToken() == JsonToken.FIELD_NAME) {
+        String field = p.currentName();
+        JsonToken value = p.nextToken();
+        if ("alg".equals(field) && value == JsonToken.VALUE_STRING) {
+          alg = p.getText();
+        } else if ("kid".equals(field) && value == JsonToken.VALUE_STRING) {
+          kid = p.getText();
+        } else {
+          p.skipChildren();
+        }
+      }
+    }
+    if (!"RS256".equals(alg)) return null;
+    key = kid != null ? keysById.get(kid) : (keysById.size() == 1 ? keysById.values().iterator().next() : null);
+    if (key != null && keysByHeader.size() < MAX_CACHED_HEADERS) {
+      keysByHeader.put(headerSegment, key);
+    }
+    return key;
+  }
+
+  private Optional<VerifiedToken> readClaims(byte[] payload) throws IOException {
+    String sub = null;
+    String email = null;
+    String iss = null;
+    boolean audMatched = audience == null;
+    long exp = -1;
+    long nbf = -1;
+    try (JsonParser p = JSON.createParser(payload)) {
+      if (p.nextToken() != JsonToken.START_OBJECT) return Optional.empty();
+      while (p.nextToken() == JsonToken.FIELD_NAME) {
+        String field = p.currentName();
+        JsonToken value = p.nextToken();
+        switch (field) {
+          case "sub" -> sub = value == JsonToken.VALUE_STRING ? p.getText() : null;
+          case "email" -> email = value == JsonToken.VALUE_STRING ? p.getText() : null;
+          case "iss" -> iss = value == JsonToken.VALUE_STRING ? p.getText() : null;
+          case "exp" -> exp = value.isNumeric() ? p.getLongValue() : -1;
+          case "nbf" -> nbf = value.isNumeric() ? p.getLongValue() : -1;
+          case "aud" -> {
+            if (value == JsonToken.VALUE_STRING) {
+              audMatched |= audience != null && audience.equals(p.getText());
+            } else if (value == JsonToken.START_ARRAY) {
+              while (p.nextToken() != JsonToken.END_ARRAY) {
+                audMatched |= audience != null && audience.equals(p.getText());
+              }
+            }
+          }
+          default -> p.skipChildren();
+        }
+      }
+    }
+    long now = clock.instant().getEpochSecond();
+    if (sub == null || sub.isEmpty() || exp < 0 || now > exp + clockSkewSeconds) return Optional.empty();
+    if (nbf >= 0 && now + clockSkewSeconds < nbf) return Optional.empty();
+    if (issuer != null && !issuer.equals(iss)) return Optional.empty();
+    if (!audMatched) return Optional.empty();
+    return Optional.of(new VerifiedToken(sub, email, Instant.ofEpochSecond(exp)));
+  }
+
+  private static String readJwks(String path) throws IOException {
+    if (path == null || path.isBlank()) {
+      throw new IllegalStateException("auth.jwks.path must be set when auth.token-verifier=jwks");
+    }
+    return Files.readString(Path.of(path));
+  }
+
+  private static Map<String, RSAPublicKey> parseJwks(String jwksJson) {
+    try {
+      JsonNode keys = new ObjectMapper().readTree(jwksJson).path("keys");
+      KeyFactory factory = KeyFactory.getInstance("RSA");
+      Map<String, RSAPublicKey> result = new HashMap<>();
+      for (JsonNode jwk : keys) {
+        if (!"RSA".equals(jwk.path("kty").asText()) || "enc".equals(jwk.path("use").asText())) continue;
+        String alg = jwk.path("alg").asText("RS256");
+        if (!"RS256".equals(alg)) continue;
+        BigInteger n = new BigInteger(1, B64.decode(jwk.path("n").asText()));
+        BigInteger e = new BigInteger(1, B64.decode(jwk.path("e").asText()));
+        RSAPublicKey key = (RSAPublicKey) factory.generatePublic(new RSAPublicKeySpec(n, e));
+        result.put(jwk.path("kid").asText(""), key);
+      }
+      if (result.isEmpty()) {
+        throw new IllegalStateException("JWKS contains no RS256 signing keys");
+      }
+      return Map.copyOf(result);
+    } catch (IOException | GeneralSecurityException e) {
+      throw new IllegalStateException("Invalid JWKS", e);
+    }
+  }
+
+  private static String blankToNull(String s) {
+    return s == null || s.isBlank() ? null : s;
+  }
+}
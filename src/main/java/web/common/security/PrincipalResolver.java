@@ -0,0 +1,17 @@
+package web.common.security;
+
+import java.util.Collection;
+
+/**
+ * Maps a verified token to the application user once per request (cached by implementations).
+ */
+public interface PrincipalResolver {
+
+  AuthenticatedUser resolve(VerifiedToken token);
+
+  /** Forgets the cached principal for {@code email}; deferred until commit inside a transaction. */
+  void evict(String email);
+
+  /** {@link #evict(String)} for many emails, e.g. after a bulk import. */
+  void evict(Collection<String> emails);
+}
@@ -1,8 +1,10 @@
 package web.common.security;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.DispatcherType;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -22,6 +24,7 @@ import web.common.i18n.ErrorMessageResolver;
 import web.common.request.RequestIdHolder;
 
 @Configuration
+@EnableConfigurationProperties({FirebaseTokenCacheProps.class, JwksProps.class})
 public class SecurityConfig {
 
   private final FirebaseAuthFilter firebaseAuthFilter;
@@ -45,6 +48,8 @@ public class SecurityConfig {
         .accessDeniedHandler(accessDeniedHandler())
       )
       .authorizeHttpRequests(auth -> auth
+        // Async dispatches (streaming responses) resume a request that was already authorized
+        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
         .requestMatchers(HttpMethod.GET, "/api/v1/health").permitAll()
         .requestMatchers("/actuator/**", "/error").permitAll()
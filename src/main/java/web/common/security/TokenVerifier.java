@@ -0,0 +1,16 @@
+package web.common.security;
+
+import java.util.Optional;
+
+/**
+ * Verifies bearer tokens for {@link FirebaseAuthFilter}.
+ *
+ * <p>Exactly one implementation is active, selected by {@code auth.token-verifier}:
+ * {@code firebase} (default, {@link FirebaseTokenVerifier}) or {@code jwks}
+ * ({@link JwksTokenVerifier}, local RS256 keys, no network access).
+ */
+public interface TokenVerifier {
+
+  /** Returns the verified identity, or empty when the token must not authenticate the request. */
+  Optional<VerifiedToken> verify(String token);
+}
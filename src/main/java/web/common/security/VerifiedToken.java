@@ -0,0 +1,18 @@
+package web.common.security;
+
+import java.time.Instant;
+
+/**
+ * Identity extracted from a successfully verified ID token.
+ *
+ * @param uid       provider user id (token subject)
+ * @param email     email claim, may be null for phone/anonymous sign-ins
+ * @param expiresAt token {@code exp}, or null when the token did not carry one
+ */
+public record VerifiedToken(String uid, String email, Instant expiresAt) {
+
+  /** Name used as the Spring Security principal: the email when present, otherwise the uid. */
+  public String principalName() {
+    return email == null || email.isBlank() ? uid : email;
+  }
+}
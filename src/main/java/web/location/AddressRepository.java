@@ -18,7 +18,7 @@ public interface AddressRepository extends JpaRepository<AddressEntity, String>
     @Query("""
         SELECT a FROM AddressEntity a 
         WHERE a.id = :id 
-        AND a.status = 'ACTIVE' 
+        AND a.status = 'active' 
         AND a.deletedAt IS NULL
         """)
     Optional<AddressEntity> findActiveById(@Param("id") String id);
@@ -29,7 +29,7 @@ public interface AddressRepository extends JpaRepository<AddressEntity, String>
     @Query("""
         SELECT a FROM AddressEntity a 
         WHERE a.postalCodeReference.id = :postalCodeId 
-        AND a.status = 'ACTIVE' 
+        AND a.status = 'active' 
         AND a.deletedAt IS NULL
         ORDER BY a.createdAt DESC
         """)
@@ -42,7 +42,7 @@ public interface AddressRepository extends JpaRepository<AddressEntity, String>
         SELECT a FROM AddressEntity a 
         WHERE a.countryCode = :countryCode 
         AND (:provinceCode IS NULL OR a.provinceCode = :provinceCode)
-        AND a.status = 'ACTIVE' 
+        AND a.status = 'active' 
         AND a.deletedAt IS NULL
         ORDER BY a.city, a.streetLine1
         """)
@@ -58,7 +58,7 @@ public interface AddressRepository extends JpaRepository<AddressEntity, String>
         JOIN a.postalCodeReference pcr
         WHERE pcr.postalCode = :postalCode
         AND pcr.countryCode = :countryCode
-        AND a.status = 'ACTIVE' 
+        AND a.status = 'active' 
         AND a.deletedAt IS NULL
         ORDER BY a.streetLine1
         """)
@@ -73,7 +73,7 @@ public interface AddressRepository extends JpaRepository<AddressEntity, String>
         SELECT a FROM AddressEntity a 
         WHERE (LOWER(a.streetLine1) LIKE LOWER(CONCAT('%', :streetName, '%'))
             OR LOWER(a.streetLine2) LIKE LOWER(CONCAT('%', :streetName, '%')))
-        AND a.status = 'ACTIVE' 
+        AND a.status = 'active' 
         AND a.deletedAt IS NULL
         ORDER BY a.streetLine1
         """)
@@ -85,7 +85,7 @@ public interface AddressRepository extends JpaRepository<AddressEntity, String>
     @Query("""
         SELECT a FROM AddressEntity a
         JOIN FETCH a.postalCodeReference pcr
-        WHERE a.status = 'ACTIVE' 
+        WHERE a.status = 'active' 
         AND a.deletedAt IS NULL
         ORDER BY a.countryCode, a.provinceCode, a.city, a.streetLine1
         """)
@@ -97,7 +97,7 @@ public interface AddressRepository extends JpaRepository<AddressEntity, String>
     @Query("""
         SELECT COUNT(a) FROM AddressEntity a 
         WHERE a.countryCode = :countryCode 
-        AND a.status = 'ACTIVE' 
+        AND a.status = 'active' 
         AND a.deletedAt IS NULL
         """)
     long countByCountryCode(@Param("countryCode") String countryCode);
@@ -110,7 +110,7 @@ public interface AddressRepository extends JpaRepository<AddressEntity, String>
         JOIN a.postalCodeReference pcr
         WHERE pcr.postalCode = :postalCode
         AND a.id != :excludeAddressId
-        AND a.status = 'ACTIVE' 
+        AND a.status = 'active' 
         AND a.deletedAt IS NULL
         ORDER BY a.streetLine1
         LIMIT 10
@@ -132,7 +132,7 @@ public interface AddressRepository extends JpaRepository<AddressEntity, String>
         WHERE LOWER(TRIM(a.streetLine1)) = LOWER(TRIM(:streetLine1))
         AND (:streetLine2 IS NULL OR LOWER(TRIM(a.streetLine2)) = LOWER(TRIM(:streetLine2)))
         AND a.postalCodeReference.id = :postalCodeId
-        AND a.status = 'ACTIVE' 
+        AND a.status = 'active' 
         AND a.deletedAt IS NULL
         AND (:excludeId IS NULL OR a.id != :excludeId)
         """)
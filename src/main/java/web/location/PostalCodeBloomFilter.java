@@ -0,0 +1,81 @@
+package web.location;
+
+/**
+ * Immutable Bloom filter over one country's normalized postal codes.
+ *
+ * <p>Sized from the number of codes and a target false-positive rate; each code sets
+ * {@code hashes} bits derived by double hashing a single 64-bit hash of its chars, so a lookup
+ * allocates nothing. {@link #mightContain} never answers false for a code that was added.
+ */
+final class PostalCodeBloomFilter {
+
+  private final long[] words;
+  private final long bits;
+  private final int hashes;
+  private final int size;
+
+  private PostalCodeBloomFilter(long[] words, int hashes, int size) {
+    this.words = words;
+    this.bits = (long) words.length * Long.SIZE;
+    this.hashes = hashes;
+    this.size = size;
+  }
+
+  static PostalCodeBloomFilter of(String[] codes, double falsePositiveRate) {
+    int n = Math.max(codes.length, 1);
+    long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    int k = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+    PostalCodeBloomFilter filter = new PostalCodeBloomFilter(new long[(int) ((m + Long.SIZE - 1) / Long.SIZE)], k, codes.length);
+    for (String code : codes) {
+      filter.add(code);
+    }
+    return filter;
+  }
+
+  boolean mightContain(String code) {
+    long h1 = hash(code);
+    long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+    for (int i = 0; i < hashes; i++) {
+      long bit = ((h1 + i * h2) & Long.MAX_VALUE) % bits;
+      if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+    }
+    return true;
+  }
+
+  /** False-positive probability implied by the filter's size, hash count and contents. */
+  double expectedFalsePositiveRate() {
+    return Math.pow(1 - Math.exp(-(double) hashes * size / bits), hashes);
+  }
+
+  long sizeInBytes() {
+    return (long) words.length * Long.BYTES;
+  }
+
+  private void add(String code) {
+    long h1 = hash(code);
+    long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+    for (int i = 0; i < hashes; i++) {
+      long bit = ((h1 + i * h2) & Long.MAX_VALUE) % bits;
+      words[(int) (bit >>> 6)] |= 1L << bit;
+    }
+  }
+
+  // FNV-1a over the chars, finished with the MurmurHash3 64-bit mixer for avalanche
+  private static long hash(String s) {
+    long h = 0xCBF29CE484222325L;
+    for (int i = 0; i < s.length(); i++) {
+      h ^= s.charAt(i);
+      h *= 0x100000001B3L;
+    }
+    return mix(h);
+  }
+
+  private static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB9FE1A85EC53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
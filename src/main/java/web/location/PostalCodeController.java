@@ -1,5 +1,7 @@
 package web.location;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -8,10 +10,19 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import web.common.dto.ApiResponse;
+import web.common.dto.CountMode;
+import web.common.dto.PageResult;
 import web.common.request.RequestIdHolder;
+import web.location.dto.PostalCodeBatchValidationRequest;
+import web.location.dto.PostalCodeBatchValidationResult;
 import web.location.dto.PostalCodeResponse;
 import web.location.dto.PostalCodeCreateRequest;
 import web.location.dto.PostalCodeUpdateRequest;
@@ -19,6 +30,7 @@ import web.location.dto.PostalCodeValidationResponse;
 import web.location.entity.PostalCodeReferenceEntity;
 
 import java.net.URI;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -29,10 +41,15 @@ import java.util.Optional;
 public class PostalCodeController {
 
   private final PostalCodeReferenceService postalCodeService;
+  private final ObjectMapper objectMapper;
+  private final PostalCodeResponseCache responseCache;
 
   @Autowired
-  public PostalCodeController(PostalCodeReferenceService postalCodeService) {
+  public PostalCodeController(PostalCodeReferenceService postalCodeService, ObjectMapper objectMapper,
+                              PostalCodeResponseCache responseCache) {
     this.postalCodeService = postalCodeService;
+    this.objectMapper = objectMapper;
+    this.responseCache = responseCache;
   }
 
   @GetMapping("/search")
@@ -49,25 +66,17 @@ public class PostalCodeController {
       @RequestParam(defaultValue = "0") int page,
       
       @Parameter(description = "Page size (max 50)", example = "20")
-      @RequestParam(defaultValue = "20") int size) {
+      @RequestParam(defaultValue = "20") int size,
+
+      @Parameter(description = "Total count mode: none (hasNext only), estimate or exact", example = "none")
+      @RequestParam(required = false) String count) {
+
+    PageResult<PostalCodeResponse> result = postalCodeService.searchPostalCodes(
+        countryCode, query, page, size, CountMode.parse(count))
+        .map(PostalCodeResponse::fromEntity);
 
-    Page<PostalCodeReferenceEntity> result = postalCodeService.searchPostalCodes(
-        countryCode, query, page, size);
-    
-    List<PostalCodeResponse> data = result.getContent().stream()
-        .map(PostalCodeResponse::fromEntity)
-        .toList();
-    
     String rid = RequestIdHolder.getOrCreate();
-    Map<String, Object> meta = Map.of(
-        "page", page,
-        "size", size,
-        "totalItems", result.getTotalElements(),
-        "totalPages", result.getTotalPages(),
-        "hasNext", result.hasNext()
-    );
-    
-    return ResponseEntity.ok(ApiResponse.success(rid, data, meta));
+    return ResponseEntity.ok(ApiResponse.success(rid, result.content(), result.meta()));
   }
 
   @GetMapping("/validate")
@@ -96,34 +105,66 @@ public class PostalCodeController {
     return ResponseEntity.ok(ApiResponse.success(rid, data, null));
   }
 
+  @PostMapping("/validate:batch")
+  @Operation(summary = "Validate postal codes in bulk", 
+             description = "Validate up to 10000 postal codes across countries; one result per item, in input order")
+  public ResponseEntity<StreamingResponseBody> validatePostalCodes(
+      @Valid @RequestBody PostalCodeBatchValidationRequest request) {
+
+    List<PostalCodeBatchValidationResult> results = postalCodeService.validatePostalCodes(request.items());
+    long valid = results.stream().filter(PostalCodeBatchValidationResult::valid).count();
+    String rid = RequestIdHolder.getOrCreate();
+
+    // Same envelope as ApiResponse, but written item by item rather than buffered as one document
+    StreamingResponseBody body = out -> {
+      try (JsonGenerator json = objectMapper.createGenerator(out)) {
+        json.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        json.writeStartObject();
+        json.writeBooleanField("success", true);
+        json.writeStringField("requestId", rid);
+        json.writeArrayFieldStart("data");
+        for (PostalCodeBatchValidationResult result : results) {
+          json.writeObject(result);
+        }
+        json.writeEndArray();
+        json.writeObjectFieldStart("meta");
+        json.writeNumberField("count", results.size());
+        json.writeNumberField("valid", valid);
+        json.writeEndObject();
+        json.writeEndObject();
+      }
+    };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+  }
+
   @GetMapping("/cities")
   @Operation(summary = "Get cities for country", 
              description = "Get distinct cities available for a specific country")
-  public ResponseEntity<ApiResponse<List<String>>> getCitiesByCountry(
+  public ResponseEntity<byte[]> getCitiesByCountry(
       @Parameter(description = "Country code (ISO 3166-1 alpha-2)", example = "CA", required = true)
-      @RequestParam @NotBlank @Size(min = 2, max = 2) String countryCode) {
+      @RequestParam @NotBlank @Size(min = 2, max = 2) String countryCode,
+      WebRequest request) {
 
-    List<String> cities = postalCodeService.getDistinctCitiesByCountryCode(countryCode);
-    
-    String rid = RequestIdHolder.getOrCreate();
-    Map<String, Object> meta = Map.of("count", cities.size());
-    
-    return ResponseEntity.ok(ApiResponse.success(rid, cities, meta));
+    PostalCodeResponseCache.Body body = responseCache.get(PostalCodeResponseCache.View.CITIES, countryCode, () -> {
+      List<String> cities = postalCodeService.getDistinctCitiesByCountryCode(countryCode);
+      return new PostalCodeResponseCache.Payload(cities, Map.of("count", cities.size()));
+    });
+    return cached(request, body);
   }
 
   @GetMapping("/provinces")
   @Operation(summary = "Get provinces for country", 
              description = "Get distinct province codes available for a specific country")
-  public ResponseEntity<ApiResponse<List<String>>> getProvincesByCountry(
+  public ResponseEntity<byte[]> getProvincesByCountry(
       @Parameter(description = "Country code (ISO 3166-1 alpha-2)", example = "CA", required = true)
-      @RequestParam @NotBlank @Size(min = 2, max = 2) String countryCode) {
+      @RequestParam @NotBlank @Size(min = 2, max = 2) String countryCode,
+      WebRequest request) {
 
-    List<String> provinces = postalCodeService.getDistinctProvinceCodesByCountryCode(countryCode);
-    
-    String rid = RequestIdHolder.getOrCreate();
-    Map<String, Object> meta = Map.of("count", provinces.size());
-    
-    return ResponseEntity.ok(ApiResponse.success(rid, provinces, meta));
+    PostalCodeResponseCache.Body body = responseCache.get(PostalCodeResponseCache.View.PROVINCES, countryCode, () -> {
+      List<String> provinces = postalCodeService.getDistinctProvinceCodesByCountryCode(countryCode);
+      return new PostalCodeResponseCache.Payload(provinces, Map.of("count", provinces.size()));
+    });
+    return cached(request, body);
   }
 
   @GetMapping("/search/city")
@@ -199,23 +240,25 @@ public class PostalCodeController {
   @GetMapping("/stats/{countryCode}")
   @Operation(summary = "Get postal code statistics", 
              description = "Get statistics for postal codes by country")
-  public ResponseEntity<ApiResponse<Map<String, Object>>> getStatistics(
+  public ResponseEntity<byte[]> getStatistics(
       @Parameter(description = "Country code (ISO 3166-1 alpha-2)", example = "CA", required = true)
-      @PathVariable @Size(min = 2, max = 2) String countryCode) {
+      @PathVariable @Size(min = 2, max = 2) String countryCode,
+      WebRequest request) {
 
-    Long totalCount = postalCodeService.countByCountryCode(countryCode);
-    List<String> provinces = postalCodeService.getDistinctProvinceCodesByCountryCode(countryCode);
-    List<String> cities = postalCodeService.getDistinctCitiesByCountryCode(countryCode);
-    
-    Map<String, Object> data = Map.of(
-        "countryCode", countryCode.toUpperCase(),
-        "totalPostalCodes", totalCount,
-        "provinceCount", provinces.size(),
-        "cityCount", cities.size()
-    );
-    
-    String rid = RequestIdHolder.getOrCreate();
-    return ResponseEntity.ok(ApiResponse.success(rid, data, null));
+    PostalCodeResponseCache.Body body = responseCache.get(PostalCodeResponseCache.View.STATS, countryCode, () -> {
+      Long totalCount = postalCodeService.countByCountryCode(countryCode);
+      List<String> provinces = postalCodeService.getDistinctProvinceCodesByCountryCode(countryCode);
+      List<String> cities = postalCodeService.getDistinctCitiesByCountryCode(countryCode);
+
+      // Ordered, so the serialized bytes and their ETag are the same on every node
+      Map<String, Object> data = new LinkedHashMap<>();
+      data.put("countryCode", countryCode.toUpperCase());
+      data.put("totalPostalCodes", totalCount);
+      data.put("provinceCount", provinces.size());
+      data.put("cityCount", cities.size());
+      return new PostalCodeResponseCache.Payload(data, null);
+    });
+    return cached(request, body);
   }
 
   // Admin endpoints for managing postal codes
@@ -302,4 +345,17 @@ public class PostalCodeController {
     return ResponseEntity.ok(ApiResponse.success(rid, null, null));
     }
 
+  // Reference listings: revalidated on every use, answered with 304 while the country is unchanged
+  private ResponseEntity<byte[]> cached(WebRequest request, PostalCodeResponseCache.Body body) {
+    CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+    if (request.checkNotModified(body.etag())) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+    }
+    return ResponseEntity.ok()
+        .eTag(body.etag())
+        .cacheControl(cacheControl)
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(body.render(RequestIdHolder.getOrCreate()));
+  }
+
 }
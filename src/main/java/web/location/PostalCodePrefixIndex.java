@@ -0,0 +1,351 @@
+package web.location;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import web.common.db.DatabaseNotificationHandler;
+import web.location.entity.PostalCodeReferenceEntity;
+
+/**
+ * In-memory prefix index over the active rows of {@code postal_code_reference}: per country, the
+ * upper-cased codes in a sorted {@code String[]}, so a prefix search is two binary searches that
+ * yield both the page and the exact total without touching the database.
+ *
+ * <p>Loaded when the application is ready. A country is rebuilt on a background thread and swapped
+ * in whole when the V25 triggers notify {@code postal_code_reference_changed}, and after local
+ * writes commit, so readers see either the old or the new array. Until the first load succeeds (or
+ * after a rebuild failed) {@link #search} returns empty and callers query the repository instead;
+ * {@code postal-codes.prefix-index.enabled=false} keeps it that way. The same holds for a country
+ * from the moment a change to it is known until its rebuild has been swapped in, so a writer reads
+ * its own committed change.
+ *
+ * <p>Exact lookups ({@link #findAll}) first ask a per-country {@link PostalCodeBloomFilter}, so
+ * most codes that do not exist are rejected without a binary search. Per country, the filter's
+ * expected false-positive rate and size are published as {@code postal-codes.membership.*}
+ * gauges, and lookups are counted by outcome in {@code postal-codes.membership.lookups}.
+ */
+@Component
+public class PostalCodePrefixIndex implements DatabaseNotificationHandler {
+
+  private static final Logger log = LoggerFactory.getLogger(PostalCodePrefixIndex.class);
+  static final String CHANNEL = "postal_code_reference_changed";
+  private static final String ALL = "";
+  private static final double FALSE_POSITIVE_RATE = 0.01;
+
+  record Entry(String id, String postalCode, String city, String provinceCode, String countryCode,
+               String status, Instant createdAt, Instant updatedAt) {
+
+    static Entry of(PostalCodeReferenceEntity e) {
+      return new Entry(e.getId(), e.getPostalCode(), e.getCity(), e.getProvinceCode(), e.getCountryCode(),
+          e.getStatus(), e.getCreatedAt(), e.getUpdatedAt());
+    }
+
+    PostalCodeReferenceEntity toEntity() {
+      PostalCodeReferenceEntity e = new PostalCodeReferenceEntity(id, postalCode, city, provinceCode, countryCode, status);
+      e.setCreatedAt(createdAt);
+      e.setUpdatedAt(updatedAt);
+      return e;
+    }
+  }
+
+  private record CountryIndex(String[] keys, Entry[] entries, PostalCodeBloomFilter membership) {}
+
+  private final PostalCodeReferenceRepository repository;
+  private final TransactionTemplate primaryTx;
+  private final Executor rebuilds;
+  private final boolean enabled;
+  private final MeterRegistry meterRegistry;
+  private final Counter absent;
+  private final Counter present;
+  private final Counter falsePositive;
+  private final Set<String> pending = ConcurrentHashMap.newKeySet();
+  // Country -> sequence number of its latest known change not yet in the index
+  private final Map<String, Long> stale = new ConcurrentHashMap<>();
+  private final AtomicLong changes = new AtomicLong();
+  private final Set<String> gauged = ConcurrentHashMap.newKeySet();
+  private volatile Map<String, CountryIndex> countries;
+
+  @Autowired
+  public PostalCodePrefixIndex(PostalCodeReferenceRepository repository, PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${postal-codes.prefix-index.enabled:true}") boolean enabled) {
+    this(repository, transactionManager, meterRegistry,
+        Executors.newSingleThreadExecutor(Thread.ofPlatform().name("postal-code-index").daemon().factory()), enabled);
+  }
+
+  PostalCodePrefixIndex(PostalCodeReferenceRepository repository, PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry, Executor rebuilds, boolean enabled) {
+    this.repository = repository;
+    // Read-write on purpose: read-only transactions may be routed to a replica that has not yet
+    // replayed the change we were notified about.
+    this.primaryTx = new TransactionTemplate(transactionManager);
+    this.rebuilds = rebuilds;
+    this.enabled = enabled;
+    this.meterRegistry = meterRegistry;
+    this.absent = lookups(meterRegistry, "absent");
+    this.present = lookups(meterRegistry, "present");
+    this.falsePositive = lookups(meterRegistry, "false-positive");
+  }
+
+  /**
+   * Active codes of {@code countryCode} starting with {@code prefix} (both already normalized and
+   * upper-cased), ordered by code; empty when the index is not loaded or the country is stale.
+   */
+  public Optional<Page<PostalCodeReferenceEntity>> search(String countryCode, String prefix, Pageable pageable) {
+    Map<String, CountryIndex> current = countries;
+    if (current == null || isStale(countryCode)) {
+      return Optional.empty();
+    }
+    CountryIndex index = current.get(countryCode);
+    if (index == null) {
+      return Optional.of(Page.empty(pageable));
+    }
+    int from = lowerBound(index.keys(), prefix);
+    int to = lowerBound(index.keys(), prefix + Character.MAX_VALUE);
+    long start = from + pageable.getOffset();
+    List<PostalCodeReferenceEntity> content = new ArrayList<>(pageable.getPageSize());
+    for (long i = start; i < to && i < start + pageable.getPageSize(); i++) {
+      content.add(index.entries()[(int) i].toEntity());
+    }
+    return Optional.of(new PageImpl<>(content, pageable, to - from));
+  }
+
+  /**
+   * Active rows of {@code countryCode} for exactly the given normalized codes, keyed by code;
+   * empty when the index is not loaded or the country is stale.
+   */
+  public Optional<Map<String, PostalCodeReferenceEntity>> findAll(String countryCode, Collection<String> postalCodes) {
+    Map<String, CountryIndex> current = countries;
+    if (current == null || isStale(countryCode)) {
+      return Optional.empty();
+    }
+    CountryIndex index = current.get(countryCode);
+    Map<String, PostalCodeReferenceEntity> found = new HashMap<>();
+    if (index == null) {
+      return Optional.of(found);
+    }
+    for (String code : postalCodes) {
+      if (!index.membership().mightContain(code)) {
+        absent.increment();
+        continue;
+      }
+      String key = key(code);
+      // Keys are upper-cased; the stored code must still match exactly, like the IN query
+      for (int i = lowerBound(index.keys(), key); i < index.keys().length && index.keys()[i].equals(key); i++) {
+        if (index.entries()[i].postalCode().equals(code)) {
+          found.put(code, index.entries()[i].toEntity());
+          break;
+        }
+      }
+      (found.containsKey(code) ? present : falsePositive).increment();
+    }
+    return Optional.of(found);
+  }
+
+  /** True once the index has been loaded and not dropped since. */
+  public boolean isLoaded() {
+    return countries != null;
+  }
+
+  /** Rebuilds {@code countryCode} once the current transaction commits (immediately outside one). */
+  public void refreshAfterCommit(String countryCode) {
+    if (countryCode == null) return;
+    String country = countryCode.trim().toUpperCase(Locale.ROOT);
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      schedule(country);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        schedule(country);
+      }
+    });
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    if (!enabled) return;
+    // Through the rebuild thread so a notification handled meanwhile cannot be overwritten.
+    CompletableFuture.runAsync(() -> rebuild(ALL), rebuilds).join();
+  }
+
+  @Override
+  public String channel() {
+    return CHANNEL;
+  }
+
+  @Override
+  public void onNotification(String payload) {
+    if (payload == null || payload.isBlank()) {
+      schedule(ALL);
+      return;
+    }
+    for (String country : payload.split(",")) {
+      schedule(country.trim());
+    }
+  }
+
+  @Override
+  public void onResubscribe() {
+    if (countries != null) schedule(ALL);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    if (rebuilds instanceof ExecutorService executor) executor.shutdownNow();
+  }
+
+  private boolean isStale(String country) {
+    return !stale.isEmpty() && (stale.containsKey(country) || stale.containsKey(ALL));
+  }
+
+  private void schedule(String country) {
+    if (!enabled) return;
+    stale.put(country, changes.incrementAndGet());
+    if (!pending.add(country)) return;
+    try {
+      rebuilds.execute(() -> {
+        // Removed first so a change arriving during the rebuild schedules another one.
+        pending.remove(country);
+        Long change = stale.get(country);
+        try {
+          rebuild(country);
+        } finally {
+          // Only if no later change arrived while the rows were being read
+          if (change != null) stale.remove(country, change);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      pending.remove(country);
+      stale.remove(country);
+    }
+  }
+
+  private void rebuild(String country) {
+    try {
+      Map<String, CountryIndex> current = countries;
+      if (ALL.equals(country) || current == null) {
+        Map<String, CountryIndex> loaded = new HashMap<>();
+        int rows = 0;
+        for (String c : repository.findDistinctCountryCodes()) {
+          CountryIndex index = loadCountry(c);
+          loaded.put(c, index);
+          rows += index.keys().length;
+        }
+        countries = Map.copyOf(loaded);
+        loaded.keySet().forEach(this::registerGauges);
+        log.info("Loaded {} postal codes for {} countries into the prefix index", rows, loaded.size());
+        return;
+      }
+      CountryIndex index = loadCountry(country);
+      Map<String, CountryIndex> next = new HashMap<>(current);
+      if (index.keys().length == 0) {
+        next.remove(country);
+      } else {
+        next.put(country, index);
+      }
+      countries = Map.copyOf(next);
+      registerGauges(country);
+      log.debug("Rebuilt postal code prefix index for {} ({} codes)", country, index.keys().length);
+    } catch (RuntimeException e) {
+      // Serving stale codes would be wrong; fall back to the database until the next full load.
+      countries = null;
+      log.warn("Postal code prefix index rebuild failed for '{}', falling back to queries", country, e);
+    }
+  }
+
+  private CountryIndex loadCountry(String country) {
+    List<PostalCodeReferenceEntity> rows = primaryTx.execute(s -> repository.findByCountryCodeOrderByPostalCode(country));
+    // Re-sorted by binary order: the database sorts by collation, binary search needs String order.
+    Entry[] entries = rows == null ? new Entry[0] : rows.stream()
+        .map(Entry::of)
+        .sorted(Comparator.comparing(e -> key(e.postalCode())))
+        .toArray(Entry[]::new);
+    String[] keys = Arrays.stream(entries).map(e -> key(e.postalCode())).toArray(String[]::new);
+    String[] codes = Arrays.stream(entries).map(Entry::postalCode).toArray(String[]::new);
+    return new CountryIndex(keys, entries, PostalCodeBloomFilter.of(codes, FALSE_POSITIVE_RATE));
+  }
+
+  // Once per country, re-registering logs a warning; a country that disappears reports NaN
+  private void registerGauges(String country) {
+    if (!gauged.add(country)) return;
+    Gauge.builder("postal-codes.membership.false-positive-rate", this,
+            idx -> idx.membership(country, PostalCodeBloomFilter::expectedFalsePositiveRate))
+        .description("Expected false-positive rate of the postal code membership filter")
+        .tag("country", country)
+        .register(meterRegistry);
+    Gauge.builder("postal-codes.membership.memory", this,
+            idx -> idx.membership(country, f -> (double) f.sizeInBytes()))
+        .description("Size of the postal code membership filter")
+        .baseUnit("bytes")
+        .tag("country", country)
+        .register(meterRegistry);
+  }
+
+  private double membership(String country, ToDoubleFunction<PostalCodeBloomFilter> metric) {
+    Map<String, CountryIndex> current = countries;
+    CountryIndex index = current == null ? null : current.get(country);
+    return index == null ? Double.NaN : metric.applyAsDouble(index.membership());
+  }
+
+  private static Counter lookups(MeterRegistry meterRegistry, String result) {
+    return Counter.builder("postal-codes.membership.lookups")
+        .description("Exact postal code lookups by membership filter outcome")
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  private static String key(String postalCode) {
+    return postalCode.toUpperCase(Locale.ROOT);
+  }
+
+  /** First position whose key is {@code >= key}. */
+  private static int lowerBound(String[] keys, String key) {
+    int lo = 0;
+    int hi = keys.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (keys[mid].compareTo(key) < 0) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+}
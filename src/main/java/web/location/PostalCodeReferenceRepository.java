@@ -2,6 +2,7 @@ package web.location;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -39,6 +40,20 @@ public interface PostalCodeReferenceRepository extends JpaRepository<PostalCodeR
       @Param("postalCodePrefix") String postalCodePrefix,
       Pageable pageable);
 
+  // Same as above without the count query; reads one extra row to decide hasNext
+  @Query("""
+      SELECT p FROM PostalCodeReferenceEntity p 
+      WHERE p.countryCode = :countryCode 
+        AND UPPER(p.postalCode) LIKE UPPER(:postalCodePrefix) 
+        AND p.status = 'active' 
+        AND p.deletedAt IS NULL
+      ORDER BY p.postalCode ASC
+      """)
+  Slice<PostalCodeReferenceEntity> readByCountryCodeAndPostalCodeStartingWithIgnoreCase(
+      @Param("countryCode") String countryCode,
+      @Param("postalCodePrefix") String postalCodePrefix,
+      Pageable pageable);
+
   // Find all active postal codes for a specific country (for bulk operations)
   @Query("""
       SELECT p FROM PostalCodeReferenceEntity p 
@@ -49,6 +64,14 @@ public interface PostalCodeReferenceRepository extends JpaRepository<PostalCodeR
       """)
   List<PostalCodeReferenceEntity> findByCountryCodeOrderByPostalCode(@Param("countryCode") String countryCode);
 
+  // Countries that have at least one active postal code (prefix index warm-up)
+  @Query("""
+      SELECT DISTINCT p.countryCode FROM PostalCodeReferenceEntity p 
+      WHERE p.status = 'active' 
+        AND p.deletedAt IS NULL
+      """)
+  List<String> findDistinctCountryCodes();
+
   // Find by multiple postal codes (batch validation)
   @Query("""
       SELECT p FROM PostalCodeReferenceEntity p 
@@ -5,15 +5,27 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import web.common.db.RowEstimates;
+import web.common.dto.CountMode;
+import web.common.dto.PageResult;
+import web.location.dto.PostalCodeBatchValidationRequest;
+import web.location.dto.PostalCodeBatchValidationResult;
+import web.location.dto.PostalCodeResponse;
 import web.location.entity.PostalCodeReferenceEntity;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.regex.Pattern;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,21 +36,27 @@ public class PostalCodeReferenceService {
 
   private static final Logger logger = LoggerFactory.getLogger(PostalCodeReferenceService.class);
   private final PostalCodeReferenceRepository postalCodeRepository;
-
-  // Postal code validation patterns for common countries
-  private static final Pattern CANADA_POSTAL_CODE = Pattern.compile("^[A-Z]\\d[A-Z] ?\\d[A-Z]\\d$");
-  private static final Pattern US_ZIP_CODE = Pattern.compile("^\\d{5}(-\\d{4})?$");
-  private static final Pattern UK_POSTAL_CODE = Pattern.compile("^[A-Z]{1,2}\\d[A-Z\\d]? ?\\d[A-Z]{2}$");
-  private static final Pattern SINGAPORE_POSTAL_CODE = Pattern.compile("^\\d{6}$");
-  private static final Pattern MALAYSIA_POSTAL_CODE = Pattern.compile("^\\d{5}$");
+  private final ReferenceDataCache referenceData;
+  private final RowEstimates rowEstimates;
+  private final PostalCodePrefixIndex prefixIndex;
+  private final PostalCodeResponseCache responseCache;
 
   @Autowired
-  public PostalCodeReferenceService(PostalCodeReferenceRepository postalCodeRepository) {
+  public PostalCodeReferenceService(PostalCodeReferenceRepository postalCodeRepository,
+                                    ReferenceDataCache referenceData,
+                                    RowEstimates rowEstimates,
+                                    PostalCodePrefixIndex prefixIndex,
+                                    PostalCodeResponseCache responseCache) {
     this.postalCodeRepository = postalCodeRepository;
+    this.referenceData = referenceData;
+    this.rowEstimates = rowEstimates;
+    this.prefixIndex = prefixIndex;
+    this.responseCache = responseCache;
   }
 
   /**
-   * Find postal code by exact match for validation
+   * Find postal code by exact match for validation; answered from the prefix index (and its
+   * membership filter) once loaded
    */
   public Optional<PostalCodeReferenceEntity> findByPostalCodeAndCountryCode(String postalCode, String countryCode) {
     if (postalCode == null || countryCode == null) {
@@ -48,11 +66,13 @@ public class PostalCodeReferenceService {
     String normalizedPostalCode = normalizePostalCode(postalCode, countryCode);
     String normalizedCountryCode = countryCode.toUpperCase().trim();
     
-    return postalCodeRepository.findByPostalCodeAndCountryCode(normalizedPostalCode, normalizedCountryCode);
+    return prefixIndex.findAll(normalizedCountryCode, List.of(normalizedPostalCode))
+        .map(found -> Optional.ofNullable(found.get(normalizedPostalCode)))
+        .orElseGet(() -> postalCodeRepository.findByPostalCodeAndCountryCode(normalizedPostalCode, normalizedCountryCode));
   }
 
   /**
-   * Autocomplete search for postal codes
+   * Autocomplete search for postal codes, served from the {@link PostalCodePrefixIndex} once loaded
    */
   public Page<PostalCodeReferenceEntity> searchPostalCodes(String countryCode, String postalCodePrefix, int page, int size) {
     if (countryCode == null || postalCodePrefix == null) {
@@ -60,14 +80,52 @@ public class PostalCodeReferenceService {
     }
     
     String normalizedCountryCode = countryCode.toUpperCase().trim();
-    String normalizedPrefix = normalizePostalCode(postalCodePrefix, countryCode) + "%";
+    String normalizedPrefix = normalizePostalCode(postalCodePrefix, countryCode);
     
     // Limit page size to prevent performance issues
     int safeSize = Math.min(size, 50);
     Pageable pageable = PageRequest.of(page, safeSize);
     
-    return postalCodeRepository.findByCountryCodeAndPostalCodeStartingWithIgnoreCase(
-        normalizedCountryCode, normalizedPrefix, pageable);
+    return prefixIndex.search(normalizedCountryCode, normalizedPrefix, pageable)
+        .orElseGet(() -> postalCodeRepository.findByCountryCodeAndPostalCodeStartingWithIgnoreCase(
+            normalizedCountryCode, normalizedPrefix + "%", pageable));
+  }
+
+  /**
+   * Autocomplete search with a selectable count mode. The prefix index knows the exact total for
+   * free, so only {@code none} is honoured there; on the query fallback {@code estimate} uses the
+   * planner's row estimate for the same predicate instead of a COUNT query
+   */
+  public PageResult<PostalCodeReferenceEntity> searchPostalCodes(
+      String countryCode, String postalCodePrefix, int page, int size, CountMode count) {
+    if (count == CountMode.EXACT || countryCode == null || postalCodePrefix == null) {
+      return PageResult.exact(searchPostalCodes(countryCode, postalCodePrefix, page, size));
+    }
+
+    String normalizedCountryCode = countryCode.toUpperCase().trim();
+    String normalizedPrefix = normalizePostalCode(postalCodePrefix, countryCode);
+    Pageable pageable = PageRequest.of(page, Math.min(size, 50));
+
+    Optional<Page<PostalCodeReferenceEntity>> indexed = prefixIndex.search(normalizedCountryCode, normalizedPrefix, pageable);
+    if (indexed.isPresent()) {
+      Page<PostalCodeReferenceEntity> p = indexed.get();
+      return count == CountMode.NONE
+          ? PageResult.uncounted(new SliceImpl<>(p.getContent(), pageable, p.hasNext()))
+          : PageResult.exact(p);
+    }
+
+    String likePattern = normalizedPrefix + "%";
+    Slice<PostalCodeReferenceEntity> slice = postalCodeRepository.readByCountryCodeAndPostalCodeStartingWithIgnoreCase(
+        normalizedCountryCode, likePattern, pageable);
+    if (count == CountMode.NONE) {
+      return PageResult.uncounted(slice);
+    }
+    long estimate = rowEstimates.explain("""
+        SELECT 1 FROM postal_code_reference p
+        WHERE p.country_code = ? AND upper(p.postal_code) LIKE upper(?)
+          AND p.status = 'active' AND p.deleted_at IS NULL
+        """, normalizedCountryCode, likePattern);
+    return PageResult.estimated(slice, estimate);
   }
 
   /**
@@ -77,22 +135,11 @@ public class PostalCodeReferenceService {
     if (postalCode == null || countryCode == null) {
       return false;
     }
-    
-    String normalizedCode = postalCode.toUpperCase().trim();
-    String normalizedCountry = countryCode.toUpperCase().trim();
-    
-    return switch (normalizedCountry) {
-      case "CA" -> CANADA_POSTAL_CODE.matcher(normalizedCode).matches();
-      case "US" -> US_ZIP_CODE.matcher(normalizedCode).matches();
-      case "GB", "UK" -> UK_POSTAL_CODE.matcher(normalizedCode).matches();
-      case "SG" -> SINGAPORE_POSTAL_CODE.matcher(normalizedCode).matches();
-      case "MY" -> MALAYSIA_POSTAL_CODE.matcher(normalizedCode).matches();
-      default -> normalizedCode.length() >= 3 && normalizedCode.length() <= 16; // Generic validation
-    };
+    return PostalCodeRules.forCountry(countryCode).isValid(postalCode);
   }
 
   /**
-   * Check if postal code exists in database
+   * Check if postal code exists; answered from the prefix index once loaded
    */
   public boolean existsByPostalCodeAndCountryCode(String postalCode, String countryCode) {
     if (postalCode == null || countryCode == null) {
@@ -102,7 +149,9 @@ public class PostalCodeReferenceService {
     String normalizedPostalCode = normalizePostalCode(postalCode, countryCode);
     String normalizedCountryCode = countryCode.toUpperCase().trim();
     
-    return postalCodeRepository.existsByPostalCodeAndCountryCode(normalizedPostalCode, normalizedCountryCode);
+    return prefixIndex.findAll(normalizedCountryCode, List.of(normalizedPostalCode))
+        .map(found -> !found.isEmpty())
+        .orElseGet(() -> postalCodeRepository.existsByPostalCodeAndCountryCode(normalizedPostalCode, normalizedCountryCode));
   }
 
   /**
@@ -122,6 +171,41 @@ public class PostalCodeReferenceService {
     return postalCodeRepository.findByPostalCodeInAndCountryCode(normalizedCodes, normalizedCountryCode);
   }
 
+  /**
+   * Validate a batch of (country, postal code) pairs; results are in input order. Codes are grouped
+   * by country and each group is resolved from the prefix index, or with one IN query when the
+   * index is not loaded
+   */
+  public List<PostalCodeBatchValidationResult> validatePostalCodes(List<PostalCodeBatchValidationRequest.Item> items) {
+    record Normalized(String countryCode, String postalCode, boolean formatValid) {}
+
+    List<Normalized> normalized = new ArrayList<>(items.size());
+    Map<String, Set<String>> codesByCountry = new HashMap<>();
+    for (PostalCodeBatchValidationRequest.Item item : items) {
+      String country = item == null || item.countryCode() == null ? "" : item.countryCode().toUpperCase().trim();
+      String code = item == null || item.postalCode() == null ? "" : item.postalCode();
+      PostalCodeRules rules = PostalCodeRules.forCountry(country);
+      String normalizedCode = rules.normalize(code);
+      normalized.add(new Normalized(country, normalizedCode, !country.isEmpty() && rules.isValid(code)));
+      if (!country.isEmpty() && !normalizedCode.isEmpty()) {
+        codesByCountry.computeIfAbsent(country, c -> new HashSet<>()).add(normalizedCode);
+      }
+    }
+
+    Map<String, Map<String, PostalCodeReferenceEntity>> found = new HashMap<>();
+    codesByCountry.forEach((country, codes) -> found.put(country, prefixIndex.findAll(country, codes)
+        .orElseGet(() -> postalCodeRepository.findByPostalCodeInAndCountryCode(codes, country).stream()
+            .collect(Collectors.toMap(PostalCodeReferenceEntity::getPostalCode, e -> e, (a, b) -> a)))));
+
+    List<PostalCodeBatchValidationResult> results = new ArrayList<>(normalized.size());
+    for (Normalized n : normalized) {
+      PostalCodeReferenceEntity reference = found.getOrDefault(n.countryCode(), Map.of()).get(n.postalCode());
+      results.add(new PostalCodeBatchValidationResult(reference != null, n.formatValid(),
+          PostalCodeResponse.fromEntity(reference)));
+    }
+    return results;
+  }
+
   /**
    * Find postal codes by province and country for reporting
    */
@@ -224,8 +308,8 @@ public class PostalCodeReferenceService {
     String normalizedCountryCode = countryCode.toUpperCase().trim();
     String normalizedProvinceCode = provinceCode.toUpperCase().trim();
 
-    // Check if already exists
-    if (existsByPostalCodeAndCountryCode(normalizedPostalCode, normalizedCountryCode)) {
+    // Check if already exists; asks the database, the index may not have seen another node's write yet
+    if (postalCodeRepository.existsByPostalCodeAndCountryCode(normalizedPostalCode, normalizedCountryCode)) {
       throw new IllegalArgumentException("Postal code already exists: " + normalizedPostalCode + " in " + normalizedCountryCode);
     }
 
@@ -240,6 +324,8 @@ public class PostalCodeReferenceService {
     entity.setCreatedAt(Instant.now());
     entity.setUpdatedAt(Instant.now());
 
+    prefixIndex.refreshAfterCommit(normalizedCountryCode);
+    responseCache.invalidateAfterCommit(normalizedCountryCode);
     return postalCodeRepository.save(entity);
   }
 
@@ -270,6 +356,8 @@ public class PostalCodeReferenceService {
     }
     entity.setUpdatedAt(Instant.now());
 
+    prefixIndex.refreshAfterCommit(entity.getCountryCode());
+    responseCache.invalidateAfterCommit(entity.getCountryCode());
     return Optional.of(postalCodeRepository.save(entity));
   }
 
@@ -288,6 +376,8 @@ public class PostalCodeReferenceService {
     entity.setDeletedBy(deletedBy);
     entity.setStatus("deleted");
 
+    prefixIndex.refreshAfterCommit(entity.getCountryCode());
+    responseCache.invalidateAfterCommit(entity.getCountryCode());
     postalCodeRepository.save(entity);
     return true;
   }
@@ -296,36 +386,7 @@ public class PostalCodeReferenceService {
    * Normalize postal code format based on country conventions
    */
   private String normalizePostalCode(String postalCode, String countryCode) {
-    if (postalCode == null) {
-      return null;
-    }
-    
-    String normalized = postalCode.toUpperCase().trim();
-    String country = countryCode.toUpperCase().trim();
-    
-    return switch (country) {
-      case "CA" -> {
-        // Canadian postal codes: remove spaces, ensure format A1A 1A1
-        normalized = normalized.replaceAll("\\s+", "");
-        if (normalized.length() == 6) {
-          yield normalized.substring(0, 3) + " " + normalized.substring(3);
-        }
-        yield normalized;
-      }
-      case "US" -> {
-        // US ZIP codes: remove spaces and hyphens for storage
-        yield normalized.replaceAll("[\\s-]+", "");
-      }
-      case "GB", "UK" -> {
-        // UK postal codes: normalize spacing
-        normalized = normalized.replaceAll("\\s+", "");
-        if (normalized.length() >= 5) {
-          yield normalized.substring(0, normalized.length() - 3) + " " + normalized.substring(normalized.length() - 3);
-        }
-        yield normalized;
-      }
-      default -> normalized.replaceAll("\\s+", ""); // Remove spaces for other countries
-    };
+    return PostalCodeRules.forCountry(countryCode).normalize(postalCode);
   }
 
   /**
@@ -366,44 +427,24 @@ public class PostalCodeReferenceService {
   }
   
   /**
-   * Get province name by code (placeholder - implement with proper province lookup)
+   * Province name from the reference data cache, falling back to the code
    */
   private String getProvinceName(String provinceCode, String countryCode) {
-    // TODO: Implement proper province name lookup from province table
-    return switch (countryCode + "-" + provinceCode) {
-      case "SG-SG" -> "Singapore";
-      case "MY-01" -> "Johor";
-      case "MY-02" -> "Kedah";
-      case "MY-03" -> "Kelantan";
-      case "MY-04" -> "Melaka";
-      case "MY-05" -> "Negeri Sembilan";
-      case "MY-06" -> "Pahang";
-      case "MY-07" -> "Pulau Pinang";
-      case "MY-08" -> "Perak";
-      case "MY-09" -> "Perlis";
-      case "MY-10" -> "Selangor";
-      case "MY-11" -> "Terengganu";
-      case "MY-12" -> "Sabah";
-      case "MY-13" -> "Sarawak";
-      case "MY-14" -> "Kuala Lumpur";
-      case "MY-15" -> "Labuan";
-      case "MY-16" -> "Putrajaya";
-      default -> provinceCode; // Fallback to code
-    };
+    if (provinceCode == null) {
+      return null;
+    }
+    String name = referenceData.provinceName(provinceCode);
+    if (name == null && countryCode != null && !provinceCode.contains("-")) {
+      name = referenceData.provinceName(countryCode + "-" + provinceCode);
+    }
+    return name != null ? name : provinceCode;
   }
-  
+
   /**
-   * Get country name by code (placeholder - implement with proper country lookup)
+   * Country name from the reference data cache, falling back to the code
    */
   private String getCountryName(String countryCode) {
-    // TODO: Implement proper country name lookup from country table
-    return switch (countryCode) {
-      case "SG" -> "Singapore";
-      case "MY" -> "Malaysia";
-      case "US" -> "United States";
-      case "CA" -> "Canada";
-      case "GB", "UK" -> "United Kingdom";
-      default -> countryCode; // Fallback to code
-    };
+    String name = referenceData.countryName(countryCode);
+    return name != null ? name : countryCode;
   }
 }
@@ -0,0 +1,190 @@
+package web.location;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import web.common.db.DatabaseNotificationHandler;
+import web.common.db.PrimaryReads;
+
+/**
+ * Serialized responses of the per-country postal code listings ({@code /cities},
+ * {@code /provinces}, {@code /stats}), keyed by a dataset version per country.
+ *
+ * <p>The version of a country moves whenever the V25 triggers notify
+ * {@code postal_code_reference_changed} for it and after local writes commit; an entry built at an
+ * older version is never served. Each entry holds the {@code data}/{@code meta} part of the
+ * envelope as JSON bytes plus a strong ETag hashed from them, so the ETag is the same on every node
+ * serving the same rows and a revalidation is answered without querying or serializing again.
+ * Payloads are built on the primary ({@link PrimaryReads}): an entry built from a lagging replica
+ * right after a write would be stored under the new version and served until the next change.
+ * {@code postal-codes.response-cache.enabled=false} keeps the ETags but rebuilds on every call.
+ */
+@Component
+public class PostalCodeResponseCache implements DatabaseNotificationHandler {
+
+  private static final int MAX_ENTRIES = 1024;
+
+  public enum View { CITIES, PROVINCES, STATS }
+
+  /** {@code data} and {@code meta} of an {@code ApiResponse}; meta may be null. */
+  public record Payload(Object data, Map<String, Object> meta) {}
+
+  /** Serialized envelope minus {@code success}/{@code requestId}, and its ETag (quoted). */
+  public record Body(String etag, byte[] fragment) {
+
+    /** Complete {@code ApiResponse} JSON for {@code requestId}. */
+    public byte[] render(String requestId) {
+      byte[] head = ("{\"success\":true,\"requestId\":\"" + new String(JsonStringEncoder.getInstance()
+          .quoteAsString(requestId)) + "\",").getBytes(StandardCharsets.UTF_8);
+      byte[] out = new byte[head.length + fragment.length];
+      System.arraycopy(head, 0, out, 0, head.length);
+      System.arraycopy(fragment, 0, out, head.length, fragment.length);
+      return out;
+    }
+  }
+
+  private record Key(View view, String countryCode) {}
+
+  private record Entry(long version, Body body) {}
+
+  private final ObjectMapper objectMapper;
+  private final PrimaryReads primaryReads;
+  private final boolean enabled;
+  // A notification for all countries moves the epoch; the per-country counters only grow, so the
+  // sum of both changes on every invalidation of a country.
+  private final AtomicLong epoch = new AtomicLong();
+  private final Map<String, Long> versions = new ConcurrentHashMap<>();
+  private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+  @Autowired
+  public PostalCodeResponseCache(ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                                 @Value("${postal-codes.response-cache.enabled:true}") boolean enabled) {
+    this.objectMapper = objectMapper;
+    this.primaryReads = new PrimaryReads(transactionManager);
+    this.enabled = enabled;
+  }
+
+  /**
+   * Cached body of {@code view} for {@code countryCode}, built from {@code payload} when the
+   * country changed since it was cached. {@code payload} runs in a read-write transaction.
+   */
+  public Body get(View view, String countryCode, Supplier<Payload> payload) {
+    String country = country(countryCode);
+    Key key = new Key(view, country);
+    long version = version(country);
+    Entry entry = entries.get(key);
+    if (entry != null && entry.version() == version) {
+      return entry.body();
+    }
+    Body body = serialize(primaryReads.execute(payload));
+    // Stored only if nothing changed while building; otherwise the next call builds again.
+    if (enabled && version(country) == version && (entries.size() < MAX_ENTRIES || entries.containsKey(key))) {
+      entries.put(key, new Entry(version, body));
+    }
+    return body;
+  }
+
+  /** Current dataset version of {@code countryCode}. */
+  public long version(String countryCode) {
+    return epoch.get() + versions.getOrDefault(country(countryCode), 0L);
+  }
+
+  /** Moves the version of {@code countryCode} once the current transaction commits (immediately outside one). */
+  public void invalidateAfterCommit(String countryCode) {
+    if (countryCode == null) return;
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      invalidate(countryCode);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        invalidate(countryCode);
+      }
+    });
+  }
+
+  @Override
+  public String channel() {
+    return PostalCodePrefixIndex.CHANNEL;
+  }
+
+  @Override
+  public void onNotification(String payload) {
+    if (payload == null || payload.isBlank()) {
+      invalidateAll();
+      return;
+    }
+    for (String country : payload.split(",")) {
+      invalidate(country);
+    }
+  }
+
+  @Override
+  public void onResubscribe() {
+    invalidateAll();
+  }
+
+  private void invalidate(String countryCode) {
+    String country = country(countryCode);
+    versions.merge(country, 1L, Long::sum);
+    entries.keySet().removeIf(k -> k.countryCode().equals(country));
+  }
+
+  private void invalidateAll() {
+    epoch.incrementAndGet();
+    entries.clear();
+  }
+
+  private Body serialize(Payload payload) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+    try (JsonGenerator json = objectMapper.createGenerator(out)) {
+      json.writeStartObject();
+      json.writeFieldName("data");
+      json.writeObject(payload.data());
+      if (payload.meta() != null) {
+        json.writeFieldName("meta");
+        json.writeObject(payload.meta());
+      }
+      json.writeEndObject();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    // Without the opening brace, so render() can put success and requestId first
+    byte[] bytes = out.toByteArray();
+    byte[] fragment = Arrays.copyOfRange(bytes, 1, bytes.length);
+    return new Body(etag(fragment), fragment);
+  }
+
+  private static String etag(byte[] fragment) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(fragment);
+      return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String country(String countryCode) {
+    return countryCode.trim().toUpperCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,201 @@
+package web.location;
+
+/**
+ * Per-country postal code normalization and format validation, one rule per supported country
+ * and {@link #OTHER} for the rest.
+ *
+ * <p>Both operations walk the input once without regexes or intermediate strings: an input that
+ * is already in canonical form is returned as is, anything else is rebuilt in a single char
+ * buffer. Semantics match the regexes they replace: surrounding characters {@code <= ' '} are
+ * trimmed, letters are upper-cased, {@code [ \t\n\x0B\f\r]} is removed (plus {@code -} for US),
+ * and CA (six characters) and GB (five or more) get one space before the last three.
+ */
+public enum PostalCodeRules {
+
+  /** {@code A1A 1A1}. */
+  CA(false) {
+    @Override
+    boolean spaced(int length) {
+      return length == 6;
+    }
+
+    @Override
+    boolean matches(String s, int from, int to) {
+      int n = to - from;
+      if (n == 7 && s.charAt(from + 3) != ' ') return false;
+      if (n != 6 && n != 7) return false;
+      int i = from;
+      if (!letter(s.charAt(i++)) || !digit(s.charAt(i++)) || !letter(s.charAt(i++))) return false;
+      if (n == 7) i++;
+      return digit(s.charAt(i++)) && letter(s.charAt(i++)) && digit(s.charAt(i));
+    }
+  },
+
+  /** {@code 12345} or {@code 12345-6789}; stored without the hyphen. */
+  US(true) {
+    @Override
+    boolean matches(String s, int from, int to) {
+      int n = to - from;
+      if (n == 5) return digits(s, from, to);
+      return n == 10 && digits(s, from, from + 5) && s.charAt(from + 5) == '-' && digits(s, from + 6, to);
+    }
+  },
+
+  /** {@code A9 9AA} through {@code AA9A 9AA}; also used for {@code UK}. */
+  GB(false) {
+    @Override
+    boolean spaced(int length) {
+      return length >= 5;
+    }
+
+    @Override
+    boolean matches(String s, int from, int to) {
+      if (to - from < 5) return false;
+      // Inward code is always the last three characters, optionally preceded by one space
+      if (!digit(s.charAt(to - 3)) || !letter(s.charAt(to - 2)) || !letter(s.charAt(to - 1))) return false;
+      int outwardEnd = s.charAt(to - 4) == ' ' ? to - 4 : to - 3;
+      int n = outwardEnd - from;
+      if (n < 2 || n > 4 || !letter(s.charAt(from))) return false;
+      int i = letter(s.charAt(from + 1)) ? from + 2 : from + 1;
+      if (i >= outwardEnd || !digit(s.charAt(i++))) return false;
+      if (i < outwardEnd) {
+        char c = s.charAt(i++);
+        if (!letter(c) && !digit(c)) return false;
+      }
+      return i == outwardEnd;
+    }
+  },
+
+  /** Six digits. */
+  SG(false) {
+    @Override
+    boolean matches(String s, int from, int to) {
+      return to - from == 6 && digits(s, from, to);
+    }
+  },
+
+  /** Five digits. */
+  MY(false) {
+    @Override
+    boolean matches(String s, int from, int to) {
+      return to - from == 5 && digits(s, from, to);
+    }
+  },
+
+  /** Any other country: 3 to 16 characters. */
+  OTHER(false) {
+    @Override
+    boolean matches(String s, int from, int to) {
+      int n = to - from;
+      return n >= 3 && n <= 16;
+    }
+  };
+
+  private final boolean stripHyphen;
+
+  PostalCodeRules(boolean stripHyphen) {
+    this.stripHyphen = stripHyphen;
+  }
+
+  /** Rule for an ISO 3166-1 alpha-2 code (case-insensitive, surrounding blanks ignored). */
+  public static PostalCodeRules forCountry(String countryCode) {
+    if (countryCode == null) return OTHER;
+    int from = trimStart(countryCode);
+    int to = trimEnd(countryCode, from);
+    if (to - from != 2) return OTHER;
+    char a = upper(countryCode.charAt(from));
+    char b = upper(countryCode.charAt(from + 1));
+    return switch (a) {
+      case 'C' -> b == 'A' ? CA : OTHER;
+      case 'U' -> b == 'S' ? US : b == 'K' ? GB : OTHER;
+      case 'G' -> b == 'B' ? GB : OTHER;
+      case 'S' -> b == 'G' ? SG : OTHER;
+      case 'M' -> b == 'Y' ? MY : OTHER;
+      default -> OTHER;
+    };
+  }
+
+  /** Canonical stored form of {@code postalCode}; null for null. */
+  public String normalize(String postalCode) {
+    if (postalCode == null) return null;
+    if (isCanonical(postalCode)) return postalCode;
+    int from = trimStart(postalCode);
+    int to = trimEnd(postalCode, from);
+    char[] out = new char[to - from + 1];
+    int n = 0;
+    for (int i = from; i < to; i++) {
+      char c = postalCode.charAt(i);
+      if (!stripped(c)) out[n++] = upper(c);
+    }
+    if (spaced(n)) {
+      System.arraycopy(out, n - 3, out, n - 2, 3);
+      out[n - 3] = ' ';
+      n++;
+    }
+    return new String(out, 0, n);
+  }
+
+  /** Whether {@code postalCode} (case-insensitive, surrounding blanks ignored) has this country's format. */
+  public boolean isValid(String postalCode) {
+    if (postalCode == null) return false;
+    int from = trimStart(postalCode);
+    return matches(postalCode, from, trimEnd(postalCode, from));
+  }
+
+  /** Whether a space goes before the last three characters of a normalized code of this length. */
+  boolean spaced(int length) {
+    return false;
+  }
+
+  /** Format check of {@code s[from, to)}, upper-casing as it goes. */
+  abstract boolean matches(String s, int from, int to);
+
+  private boolean isCanonical(String s) {
+    int n = s.length();
+    if (n == 0) return true;
+    if (s.charAt(0) <= ' ' || s.charAt(n - 1) <= ' ') return false;
+    int space = spaced(n - 1) ? n - 4 : -1;
+    for (int i = 0; i < n; i++) {
+      char c = s.charAt(i);
+      if (i == space ? c != ' ' : stripped(c) || upper(c) != c) return false;
+    }
+    return space >= 0 || !spaced(n);
+  }
+
+  private boolean stripped(char c) {
+    return c == ' ' || (c >= '\t' && c <= '\r') || (stripHyphen && c == '-');
+  }
+
+  private static int trimStart(String s) {
+    int i = 0;
+    while (i < s.length() && s.charAt(i) <= ' ') i++;
+    return i;
+  }
+
+  private static int trimEnd(String s, int from) {
+    int i = s.length();
+    while (i > from && s.charAt(i - 1) <= ' ') i--;
+    return i;
+  }
+
+  private static char upper(char c) {
+    if (c < 0x80) return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+    return Character.toUpperCase(c);
+  }
+
+  private static boolean letter(char c) {
+    char u = upper(c);
+    return u >= 'A' && u <= 'Z';
+  }
+
+  private static boolean digit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean digits(String s, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (!digit(s.charAt(i))) return false;
+    }
+    return true;
+  }
+}
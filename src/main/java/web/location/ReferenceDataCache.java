@@ -0,0 +1,153 @@
+package web.location;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import web.common.db.DatabaseNotificationHandler;
+import web.common.db.PrimaryReads;
+import web.location.entity.CountryEntity;
+import web.location.entity.ProvinceEntity;
+
+/**
+ * Immutable in-memory copy of {@code country} and {@code province}, keyed by ULID and by code
+ * (ISO code2 / province code, case-insensitive).
+ *
+ * <p>Loaded lazily and dropped whenever the V23 triggers notify {@code reference_data_changed};
+ * the next lookup reloads both tables. {@code reference-data.max-age} bounds staleness when
+ * database notifications are disabled.
+ */
+@Component
+public class ReferenceDataCache implements DatabaseNotificationHandler {
+
+  private static final Logger log = LoggerFactory.getLogger(ReferenceDataCache.class);
+  static final String CHANNEL = "reference_data_changed";
+
+  public record CountryRef(String id, String code, String name) {}
+
+  public record ProvinceRef(String id, String countryCode, String provinceCode, String name) {}
+
+  private record Snapshot(Map<String, CountryRef> countries, Map<String, ProvinceRef> provinces, Instant loadedAt) {}
+
+  private final CountryRepository countryRepo;
+  private final ProvinceRepository provinceRepo;
+  private final PrimaryReads primaryReads;
+  private final Duration maxAge;
+  private final Clock clock;
+  // Moved by every invalidation, so a load that overlapped one is not published
+  private final AtomicLong generation = new AtomicLong();
+  private volatile Snapshot snapshot;
+
+  @Autowired
+  public ReferenceDataCache(CountryRepository countryRepo, ProvinceRepository provinceRepo,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${reference-data.max-age:1h}") Duration maxAge) {
+    this(countryRepo, provinceRepo, transactionManager, maxAge, Clock.systemUTC());
+  }
+
+  ReferenceDataCache(CountryRepository countryRepo, ProvinceRepository provinceRepo,
+                     PlatformTransactionManager transactionManager, Duration maxAge, Clock clock) {
+    this.countryRepo = countryRepo;
+    this.provinceRepo = provinceRepo;
+    // Reloaded right after a change notification, which a replica may not have replayed yet
+    this.primaryReads = new PrimaryReads(transactionManager);
+    this.maxAge = maxAge;
+    this.clock = clock;
+  }
+
+  /** Country by ULID or ISO code2. */
+  public Optional<CountryRef> country(String idOrCode) {
+    return Optional.ofNullable(lookup(snapshot().countries(), idOrCode));
+  }
+
+  /** Province by ULID or province code (e.g. {@code MY-01}). */
+  public Optional<ProvinceRef> province(String idOrCode) {
+    return Optional.ofNullable(lookup(snapshot().provinces(), idOrCode));
+  }
+
+  /** Name of the country, or null when unknown. */
+  public String countryName(String idOrCode) {
+    CountryRef c = lookup(snapshot().countries(), idOrCode);
+    return c == null ? null : c.name();
+  }
+
+  /** Name of the province, or null when unknown. */
+  public String provinceName(String idOrCode) {
+    ProvinceRef p = lookup(snapshot().provinces(), idOrCode);
+    return p == null ? null : p.name();
+  }
+
+  /** Drops the loaded tables; the next lookup reloads them. */
+  public void invalidate() {
+    generation.incrementAndGet();
+    snapshot = null;
+  }
+
+  @Override
+  public String channel() {
+    return CHANNEL;
+  }
+
+  @Override
+  public void onNotification(String payload) {
+    invalidate();
+  }
+
+  @Override
+  public void onResubscribe() {
+    invalidate();
+  }
+
+  private static <V> V lookup(Map<String, V> map, String key) {
+    if (key == null) return null;
+    V v = map.get(key.trim());
+    return v != null ? v : map.get(key.trim().toUpperCase(Locale.ROOT));
+  }
+
+  private Snapshot snapshot() {
+    Snapshot s = snapshot;
+    if (s != null && s.loadedAt().plus(maxAge).isAfter(clock.instant())) {
+      return s;
+    }
+    synchronized (this) {
+      s = snapshot;
+      while (s == null || !s.loadedAt().plus(maxAge).isAfter(clock.instant())) {
+        long seen = generation.get();
+        s = primaryReads.execute(this::load);
+        if (generation.get() == seen) {
+          snapshot = s;
+        } else {
+          s = null; // invalidated while loading; the rows may predate the change
+        }
+      }
+      return s;
+    }
+  }
+
+  private Snapshot load() {
+    Map<String, CountryRef> countries = new HashMap<>();
+    for (CountryEntity c : countryRepo.findAll()) {
+      CountryRef ref = new CountryRef(c.getId(), c.getCode(), c.getName());
+      countries.put(c.getId(), ref);
+      if (c.getCode() != null) countries.putIfAbsent(c.getCode().trim().toUpperCase(Locale.ROOT), ref);
+    }
+    Map<String, ProvinceRef> provinces = new HashMap<>();
+    for (ProvinceEntity p : provinceRepo.findAll()) {
+      ProvinceRef ref = new ProvinceRef(p.getId(), p.getCountryCode(), p.getProvinceCode(), p.getName());
+      provinces.put(p.getId(), ref);
+      if (p.getProvinceCode() != null) provinces.putIfAbsent(p.getProvinceCode().trim().toUpperCase(Locale.ROOT), ref);
+    }
+    log.debug("Loaded {} countries and {} provinces into reference data cache", countries.size(), provinces.size());
+    return new Snapshot(Map.copyOf(countries), Map.copyOf(provinces), clock.instant());
+  }
+}
@@ -0,0 +1,18 @@
+package web.location.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record PostalCodeBatchValidationRequest(
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = PostalCodeBatchValidationRequest.MAX_ITEMS, message = "At most 10000 items per batch")
+    List<Item> items
+) {
+
+  public static final int MAX_ITEMS = 10_000;
+
+  // Blank or missing fields are reported per item (formatValid = false) rather than rejecting the batch
+  public record Item(String countryCode, String postalCode) {}
+}
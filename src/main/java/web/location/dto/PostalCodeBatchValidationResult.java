@@ -0,0 +1,10 @@
+package web.location.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PostalCodeBatchValidationResult(
+    boolean valid,
+    boolean formatValid,
+    PostalCodeResponse reference
+) {}
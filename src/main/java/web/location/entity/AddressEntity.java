@@ -52,7 +52,7 @@ public class AddressEntity extends BaseEntity {
 
     // Status
     @Column(name = "status", length = 20, nullable = false)
-    @Enumerated(EnumType.STRING)
+    @Convert(converter = AddressStatusConverter.class)
     private AddressStatus status = AddressStatus.ACTIVE;
 
     // Constructors
@@ -144,4 +144,22 @@ public class AddressEntity extends BaseEntity {
         @Override
         public String toString() { return value; }
     }
+
+    /** Stores {@link AddressStatus} as its lowercase value, as required by the table's status check. */
+    @Converter
+    static class AddressStatusConverter implements AttributeConverter<AddressStatus, String> {
+        @Override
+        public String convertToDatabaseColumn(AddressStatus status) {
+            return status == null ? null : status.getValue();
+        }
+
+        @Override
+        public AddressStatus convertToEntityAttribute(String value) {
+            if (value == null) return null;
+            for (AddressStatus status : AddressStatus.values()) {
+                if (status.getValue().equalsIgnoreCase(value)) return status;
+            }
+            throw new IllegalArgumentException("Unknown AddressStatus: " + value);
+        }
+    }
 }
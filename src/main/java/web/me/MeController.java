@@ -22,11 +22,7 @@ public class MeController {
   @GetMapping("/permissions")
   public ResponseEntity<ApiResponse<web.rbac.AuthorizationService.EffectivePermissions>> permissions() {
     String requestId = RequestIdHolder.getOrCreate();
-    String email = CurrentUser.email().orElse(null);
-    String userId = null;
-    if (email != null) {
-      userId = authz.resolveUserIdByEmail(email).orElse(null);
-    }
+    String userId = CurrentUser.userId().orElse(null);
     var effective = authz.computeForUserId(userId);
     return ResponseEntity.ok(ApiResponse.success(requestId, effective, null));
   }
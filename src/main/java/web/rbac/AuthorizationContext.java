@@ -0,0 +1,57 @@
+package web.rbac;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Permission snapshots resolved during the current request, so repeated checks inside one
+ * operation (authorize, re-check after a lookup, filter a listing) hit a plain map instead of the
+ * shared cache or the database.
+ *
+ * <p>Stored as a request attribute rather than a thread local: it lives exactly as long as the
+ * request, follows it through forwards and async dispatches, and cannot leak into the next
+ * request served by the same thread. Outside a request there is no context and callers go
+ * straight to {@link PermissionSnapshotCache}.
+ */
+final class AuthorizationContext {
+
+  private static final String ATTRIBUTE = AuthorizationContext.class.getName();
+
+  private final Map<String, PermissionSnapshot> snapshots = new ConcurrentHashMap<>(4);
+
+  private AuthorizationContext() {}
+
+  /** Context of the current request, created on first use; null outside a request. */
+  static AuthorizationContext current() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes == null) return null;
+    AuthorizationContext context = (AuthorizationContext) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    if (context == null) {
+      context = new AuthorizationContext();
+      attributes.setAttribute(ATTRIBUTE, context, RequestAttributes.SCOPE_REQUEST);
+    }
+    return context;
+  }
+
+  /** Context of the current request if one was already created; null otherwise. */
+  static AuthorizationContext peek() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    return attributes == null ? null
+        : (AuthorizationContext) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+  }
+
+  PermissionSnapshot snapshot(String userId, Function<String, PermissionSnapshot> loader) {
+    return snapshots.computeIfAbsent(userId, loader);
+  }
+
+  void forget(String userId) {
+    snapshots.remove(userId);
+  }
+
+  void forgetAll() {
+    snapshots.clear();
+  }
+}
@@ -2,6 +2,15 @@ package web.rbac;
 
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.core.types.dsl.StringExpression;
+import web.common.db.PrimaryReads;
+import web.user.entity.QUserEntity;
 import web.user.entity.UserEntity;
 import web.rbac.entity.UserRoleEntity;
 import web.rbac.entity.RolePermissionEntity;
@@ -9,47 +18,59 @@ import web.rbac.entity.PermissionEntity;
 import web.rbac.entity.UserScopeEntity;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class AuthorizationService {
 
-  private final web.user.UserRepository userRepo;
   private final UserRoleRepository userRoleRepo;
   private final RolePermissionRepository rolePermRepo;
   private final PermissionRepository permRepo;
   private final UserScopeRepository userScopeRepo;
+  private final PermissionSnapshotCache snapshots;
+  private final PrimaryReads primaryReads;
 
-  public AuthorizationService(web.user.UserRepository userRepo,
-                              UserRoleRepository userRoleRepo,
+  public AuthorizationService(UserRoleRepository userRoleRepo,
                               RolePermissionRepository rolePermRepo,
                               PermissionRepository permRepo,
-                              UserScopeRepository userScopeRepo) {
-    this.userRepo = userRepo;
+                              UserScopeRepository userScopeRepo,
+                              PermissionSnapshotCache snapshots,
+                              PlatformTransactionManager transactionManager) {
     this.userRoleRepo = userRoleRepo;
     this.rolePermRepo = rolePermRepo;
     this.permRepo = permRepo;
     this.userScopeRepo = userScopeRepo;
+    this.snapshots = snapshots;
+    this.primaryReads = new PrimaryReads(transactionManager);
   }
 
   public record EffectivePermission(String resource, String action, String scope, String effect, List<String> scopeIds) {}
   public record EffectivePermissions(String userId, List<String> roles, List<EffectivePermission> permissions) {}
 
-  public Optional<String> resolveUserIdByEmail(String email) {
-    return userRepo.findByEmailIgnoreCaseAndDeletedAtIsNull(email).map(UserEntity::getId);
+  /**
+   * Compiled permissions of {@code userId}, served from {@link PermissionSnapshotCache}. A miss
+   * loads roles, role permissions, permissions and scopes once for all resources.
+   */
+  public PermissionSnapshot snapshotFor(String userId) {
+    if (userId == null) return PermissionSnapshot.empty();
+    return snapshots.get(userId, this::loadSnapshot);
   }
 
-  private List<PermissionEntity> loadPermissions(String userId, String resource, String action) {
-    if (userId == null) return List.of();
-    List<UserRoleEntity> userRoles = userRoleRepo.findByUserId(userId);
-    List<String> roleIds = userRoles.stream().map(UserRoleEntity::getRoleId).toList();
-    if (roleIds.isEmpty()) return List.of();
-    List<RolePermissionEntity> rps = rolePermRepo.findByRoleIdIn(roleIds);
-    if (rps.isEmpty()) return List.of();
-    List<String> permIds = rps.stream().map(RolePermissionEntity::getPermissionId).toList();
-    return permRepo.findByIdIn(permIds).stream()
-        .filter(p -> resource.equalsIgnoreCase(p.getResource()) && action.equalsIgnoreCase(p.getAction()))
-        .toList();
+  // Cached until the next RBAC change, so never loaded from a replica that may lag behind it
+  private PermissionSnapshot loadSnapshot(String userId) {
+    return primaryReads.execute(() -> compileSnapshot(userId));
+  }
+
+  private PermissionSnapshot compileSnapshot(String userId) {
+    List<String> roleIds = userRoleRepo.findByUserId(userId).stream().map(UserRoleEntity::getRoleId).toList();
+    List<PermissionEntity> perms = List.of();
+    if (!roleIds.isEmpty()) {
+      List<String> permIds = rolePermRepo.findByRoleIdIn(roleIds).stream()
+          .map(RolePermissionEntity::getPermissionId).toList();
+      if (!permIds.isEmpty()) {
+        perms = permRepo.findByIdIn(permIds);
+      }
+    }
+    return PermissionSnapshot.compile(userId, perms, userScopeRepo.findByUserId(userId));
   }
 
   public EffectivePermissions computeForUserId(String userId) {
@@ -57,150 +78,219 @@ public class AuthorizationService {
       return new EffectivePermissions(null, List.of(), List.of());
     }
 
-    List<UserRoleEntity> userRoles = userRoleRepo.findByUserId(userId);
-    List<String> roleIds = userRoles.stream().map(UserRoleEntity::getRoleId).toList();
-
-    // For brevity, we don't load role names here (not strictly needed for this slice)
-    List<String> roleNames = List.of();
-
-    List<RolePermissionEntity> rps = rolePermRepo.findByRoleIdIn(roleIds);
-    List<String> permIds = rps.stream().map(RolePermissionEntity::getPermissionId).toList();
-    List<PermissionEntity> perms = permRepo.findByIdIn(permIds);
-
-    // Load user scopes
-    List<UserScopeEntity> scopes = userScopeRepo.findByUserId(userId);
-    Map<String, List<String>> scopeIdsByType = scopes.stream()
-        .collect(Collectors.groupingBy(UserScopeEntity::getScopeType,
-            Collectors.mapping(UserScopeEntity::getScopeId, Collectors.toList())));
-
-    // Build effective entries; include scopeIds that match the permission scope
-    List<EffectivePermission> eff = new ArrayList<>();
-    for (PermissionEntity p : perms) {
-      List<String> scopeIds = null;
-      String s = p.getScope();
-      if (!"GLOBAL".equalsIgnoreCase(s)) {
-        scopeIds = scopeIdsByType.getOrDefault(s.toUpperCase(), List.of());
+    Set<String> roleNames = new LinkedHashSet<>();
+    Map<String, EffectivePermission> eff = new LinkedHashMap<>();
+    for (EffectivePermissionRow row : userRoleRepo.findEffectivePermissionRows(userId)) {
+      roleNames.add(row.getRoleName());
+      // A permission granted through several roles is listed once
+      if (row.getPermissionId() != null && !eff.containsKey(row.getPermissionId())) {
+        eff.put(row.getPermissionId(), new EffectivePermission(
+            row.getResource(), row.getAction(), row.getScope(), row.getEffect(), splitScopeIds(row.getScopeIds())));
       }
-      eff.add(new EffectivePermission(p.getResource(), p.getAction(), p.getScope(), p.getEffect(), scopeIds));
     }
+    return new EffectivePermissions(userId, List.copyOf(roleNames), List.copyOf(eff.values()));
+  }
+
+  private static List<String> splitScopeIds(String csv) {
+    if (csv == null) return null;
+    if (csv.isEmpty()) return List.of();
+    return List.of(csv.split(","));
+  }
+
+  /** Coarse row access to {@code resource:action}; {@link #scopedViewSpec} is the exact filter. */
+  public enum ViewAccess {
+    /** No rows. */
+    NONE,
+    /** Any row may be visible (unconditional or qualified GLOBAL grant). */
+    GLOBAL,
+    /** Only rows inside the actor's country/province scopes. */
+    SCOPED
+  }
+
+  /**
+   * Classifies the actor's view access for callers that cannot use a Specification (native
+   * queries). The classification is a superset: apply {@link #scopedViewSpec} for exact results.
+   */
+  public ViewAccess viewAccess(String userId, String resource, String action) {
+    if (userId == null) return ViewAccess.NONE;
+    PermissionSnapshot snapshot = snapshotFor(userId);
+    if (snapshot.isDenied(resource, action)) return ViewAccess.NONE;
+    if (snapshot.allows(resource, action, PermissionScope.GLOBAL)
+        || snapshot.qualifiedAllowFilter(resource, action, PermissionScope.GLOBAL) != null) {
+      return ViewAccess.GLOBAL;
+    }
+    boolean scoped = hasScopedGrant(snapshot, resource, action, PermissionScope.COUNTRY)
+        || hasScopedGrant(snapshot, resource, action, PermissionScope.PROVINCE);
+    return scoped ? ViewAccess.SCOPED : ViewAccess.NONE;
+  }
 
-    return new EffectivePermissions(userId, roleNames, eff);
+  /**
+   * True when the view filter adds no condition for the actor: an unconditional GLOBAL grant and
+   * neither a deny nor a qualified deny.
+   */
+  public boolean seesAllRows(String userId, String resource, String action) {
+    if (userId == null) return false;
+    PermissionSnapshot snapshot = snapshotFor(userId);
+    return !snapshot.isDenied(resource, action)
+        && snapshot.allows(resource, action, PermissionScope.GLOBAL)
+        && snapshot.qualifiedDenyFilter(resource, action) == null;
   }
 
   // Build additional filter for viewing Users based on scopes.
   public Specification<UserEntity> userViewSpecForUserId(String userId) {
+    return scopedViewSpec(userId, "USER", "VIEW", "countryId", "provinceId");
+  }
+
+  /**
+   * Row filter for {@code resource:action} on any entity whose attributes hold the country/province
+   * ULID, as {@code user_scope.scope_id} does (ISO codes would match nothing). Deny and GLOBAL are
+   * decided from the snapshot; otherwise each COUNTRY/PROVINCE grant contributes the rows inside the
+   * actor's scopes of that level (matched in SQL by {@link ScopeSpecifications}), narrowed by its
+   * qualifier if any.
+   */
+  public <T> Specification<T> scopedViewSpec(String userId, String resource, String action,
+                                             String countryAttribute, String provinceAttribute) {
     if (userId == null) {
       return (root, cq, cb) -> cb.disjunction(); // deny
     }
 
-    // Gather permissions for USER:VIEW
-    List<PermissionEntity> perms = loadPermissions(userId, "USER", "VIEW");
+    PermissionSnapshot snapshot = snapshotFor(userId);
 
     // Deny precedence
-    boolean anyDeny = perms.stream().anyMatch(p -> "DENY".equalsIgnoreCase(p.getEffect()));
-    if (anyDeny) {
+    if (snapshot.isDenied(resource, action)) {
       return (root, cq, cb) -> cb.disjunction();
     }
-
-    boolean hasGlobal = perms.stream().anyMatch(p -> "GLOBAL".equalsIgnoreCase(p.getScope()));
-    if (hasGlobal) {
-      return (root, cq, cb) -> cb.conjunction();
+    Specification<T> visible;
+    if (snapshot.allows(resource, action, PermissionScope.GLOBAL)) {
+      visible = (root, cq, cb) -> cb.conjunction();
+    } else {
+      // Qualified GLOBAL grants, then country/province grants
+      visible = or(snapshot.qualifiedAllowFilter(resource, action, PermissionScope.GLOBAL),
+          scopedGrantSpec(snapshot, userId, resource, action, PermissionScope.COUNTRY, countryAttribute));
+      visible = or(visible, scopedGrantSpec(snapshot, userId, resource, action, PermissionScope.PROVINCE, provinceAttribute));
+      if (visible == null) {
+        return (root, cq, cb) -> cb.disjunction(); // deny (no scopes)
+      }
     }
+    Specification<T> denied = snapshot.qualifiedDenyFilter(resource, action);
+    return denied == null ? visible : visible.and(denied);
+  }
 
-    // Country/province scopes
-    List<UserScopeEntity> scopes = userScopeRepo.findByUserId(userId);
-    List<String> countryIds = scopes.stream()
-        .filter(s -> "COUNTRY".equalsIgnoreCase(s.getScopeType()))
-        .map(UserScopeEntity::getScopeId).toList();
-    List<String> provinceIds = scopes.stream()
-        .filter(s -> "PROVINCE".equalsIgnoreCase(s.getScopeType()))
-        .map(UserScopeEntity::getScopeId).toList();
-
-    return (root, cq, cb) -> {
-      List<jakarta.persistence.criteria.Predicate> ors = new ArrayList<>();
-      if (!countryIds.isEmpty()) {
-        ors.add(root.get("countryId").in(countryIds));
-      }
-      if (!provinceIds.isEmpty()) {
-        ors.add(root.get("provinceId").in(provinceIds));
-      }
-      if (ors.isEmpty()) {
-        return cb.disjunction(); // deny (no scopes)
+  /** QueryDSL view filter for users; same decision as {@link #userViewSpecForUserId}. */
+  public com.querydsl.core.types.Predicate userViewPredicate(String userId) {
+    QUserEntity u = QUserEntity.userEntity;
+    return scopedViewPredicate(userId, "USER", "VIEW", u, u.countryId, u.provinceId);
+  }
+
+  /** QueryDSL form of {@link #scopedViewSpec} for queries built with {@code JPAQueryFactory}. */
+  public com.querydsl.core.types.Predicate scopedViewPredicate(String userId, String resource, String action,
+                                                              EntityPath<?> root, StringExpression country,
+                                                              StringExpression province) {
+    if (userId == null) {
+      return Expressions.FALSE.isTrue(); // deny
+    }
+    PermissionSnapshot snapshot = snapshotFor(userId);
+    if (snapshot.isDenied(resource, action)) {
+      return Expressions.FALSE.isTrue();
+    }
+    PathBuilder<?> rootPath = new PathBuilder<>(root.getType(), root.getMetadata());
+    com.querydsl.core.types.Predicate visible;
+    if (snapshot.allows(resource, action, PermissionScope.GLOBAL)) {
+      visible = null;
+    } else {
+      visible = snapshot.qualifiedAllowPredicate(resource, action, PermissionScope.GLOBAL, rootPath);
+      visible = ExpressionUtils.or(visible, scopedGrantPredicate(snapshot, userId, resource, action, PermissionScope.COUNTRY, rootPath, country));
+      visible = ExpressionUtils.or(visible, scopedGrantPredicate(snapshot, userId, resource, action, PermissionScope.PROVINCE, rootPath, province));
+      if (visible == null) {
+        return Expressions.FALSE.isTrue(); // deny (no scopes)
       }
-      return cb.or(ors.toArray(jakarta.persistence.criteria.Predicate[]::new));
-    };
+    }
+    com.querydsl.core.types.Predicate denied = snapshot.qualifiedDenyPredicate(resource, action, rootPath);
+    com.querydsl.core.types.Predicate result = ExpressionUtils.and(visible, denied);
+    return result == null ? new BooleanBuilder() : result; // empty builder adds no condition
   }
 
-  // Permission checks for create/update/delete on USER
-  public boolean canCreateUser(String actorUserId, String targetCountryId, String targetProvinceId) {
-    List<PermissionEntity> perms = loadPermissions(actorUserId, "USER", "CREATE");
-    if (perms.isEmpty()) return false;
-    if (perms.stream().anyMatch(p -> "DENY".equalsIgnoreCase(p.getEffect()))) return false;
-    if (perms.stream().anyMatch(p -> "GLOBAL".equalsIgnoreCase(p.getScope()))) return true;
+  /** Whether a {@code scope} grant (unconditional or qualified) can match rows inside the actor's scopes. */
+  private static boolean hasScopedGrant(PermissionSnapshot snapshot, String resource, String action, PermissionScope scope) {
+    return !snapshot.scopeIds(scope).isEmpty()
+        && (snapshot.allows(resource, action, scope) || snapshot.qualifiedAllowFilter(resource, action, scope) != null);
+  }
+
+  /**
+   * Rows inside the actor's {@code scope} (COUNTRY or PROVINCE) assignments granted at that scope:
+   * all of them for an unconditional ALLOW, those matching a qualified ALLOW otherwise; null when
+   * none are.
+   */
+  private static <T> Specification<T> scopedGrantSpec(PermissionSnapshot snapshot, String userId, String resource,
+                                                      String action, PermissionScope scope, String attribute) {
+    if (attribute == null || snapshot.scopeIds(scope).isEmpty()) return null;
+    Specification<T> within = scope == PermissionScope.COUNTRY
+        ? ScopeSpecifications.withinActorScopes(userId, attribute, null)
+        : ScopeSpecifications.withinActorScopes(userId, null, attribute);
+    if (snapshot.allows(resource, action, scope)) return within;
+    Specification<T> qualified = snapshot.qualifiedAllowFilter(resource, action, scope);
+    return qualified == null ? null : qualified.and(within);
+  }
 
-    // Country / Province scoped
-    List<UserScopeEntity> scopes = userScopeRepo.findByUserId(actorUserId);
-    Set<String> countryIds = scopes.stream().filter(s -> "COUNTRY".equalsIgnoreCase(s.getScopeType()))
-        .map(UserScopeEntity::getScopeId).collect(Collectors.toSet());
-    Set<String> provinceIds = scopes.stream().filter(s -> "PROVINCE".equalsIgnoreCase(s.getScopeType()))
-        .map(UserScopeEntity::getScopeId).collect(Collectors.toSet());
+  /** QueryDSL form of {@link #scopedGrantSpec}. */
+  private static com.querydsl.core.types.Predicate scopedGrantPredicate(PermissionSnapshot snapshot, String userId,
+                                                                       String resource, String action, PermissionScope scope,
+                                                                       PathBuilder<?> rootPath, StringExpression attribute) {
+    if (attribute == null || snapshot.scopeIds(scope).isEmpty()) return null;
+    com.querydsl.core.types.Predicate within = scope == PermissionScope.COUNTRY
+        ? ScopeSpecifications.withinActorScopes(userId, attribute, null)
+        : ScopeSpecifications.withinActorScopes(userId, null, attribute);
+    if (snapshot.allows(resource, action, scope)) return within;
+    com.querydsl.core.types.Predicate qualified = snapshot.qualifiedAllowPredicate(resource, action, scope, rootPath);
+    return qualified == null ? null : ExpressionUtils.and(qualified, within);
+  }
 
-    boolean hasCountryCreate = perms.stream().anyMatch(p -> "COUNTRY".equalsIgnoreCase(p.getScope()));
-    boolean hasProvinceCreate = perms.stream().anyMatch(p -> "PROVINCE".equalsIgnoreCase(p.getScope()));
+  private static <T> Specification<T> or(Specification<T> a, Specification<T> b) {
+    return a == null ? b : b == null ? a : a.or(b);
+  }
 
-    if (hasCountryCreate && targetCountryId != null && countryIds.contains(targetCountryId)) return true;
-    if (hasProvinceCreate && targetProvinceId != null && provinceIds.contains(targetProvinceId)) return true;
-    return false;
+  // Permission checks for create/update/delete on USER
+  public boolean canCreateUser(String actorUserId, String targetCountryId, String targetProvinceId) {
+    return snapshotFor(actorUserId).permits("USER", "CREATE", null, targetCountryId, targetProvinceId, false);
   }
 
   public boolean canUpdateUser(String actorUserId, UserEntity target) {
-    List<PermissionEntity> perms = loadPermissions(actorUserId, "USER", "UPDATE");
-    if (perms.isEmpty()) return false;
-    if (perms.stream().anyMatch(p -> "DENY".equalsIgnoreCase(p.getEffect()))) return false;
-    if (perms.stream().anyMatch(p -> "GLOBAL".equalsIgnoreCase(p.getScope()))) return true;
+    return canUpdate(snapshotFor(actorUserId), target);
+  }
 
-    // SELF scope
-    boolean hasSelf = perms.stream().anyMatch(p -> "SELF".equalsIgnoreCase(p.getScope()));
-    if (hasSelf && target.getId().equals(actorUserId)) return true;
+  public boolean canDeleteUser(String actorUserId, UserEntity target) {
+    return canDelete(actorUserId, snapshotFor(actorUserId), target);
+  }
 
-    // Country / Province scoped
-    List<UserScopeEntity> scopes = userScopeRepo.findByUserId(actorUserId);
-    Set<String> countryIds = scopes.stream().filter(s -> "COUNTRY".equalsIgnoreCase(s.getScopeType()))
-        .map(UserScopeEntity::getScopeId).collect(Collectors.toSet());
-    Set<String> provinceIds = scopes.stream().filter(s -> "PROVINCE".equalsIgnoreCase(s.getScopeType()))
-        .map(UserScopeEntity::getScopeId).collect(Collectors.toSet());
+  /** USER:UPDATE decision per target id; the actor's snapshot is resolved once for the batch. */
+  public Map<String, Boolean> canUpdateUsers(String actorUserId, Collection<UserEntity> targets) {
+    PermissionSnapshot snapshot = snapshotFor(actorUserId);
+    Map<String, Boolean> decisions = new LinkedHashMap<>();
+    for (UserEntity target : targets) {
+      decisions.put(target.getId(), canUpdate(snapshot, target));
+    }
+    return decisions;
+  }
 
-    boolean hasCountry = perms.stream().anyMatch(p -> "COUNTRY".equalsIgnoreCase(p.getScope()));
-    boolean hasProvince = perms.stream().anyMatch(p -> "PROVINCE".equalsIgnoreCase(p.getScope()));
+  /** USER:DELETE decision per target id; the actor's snapshot is resolved once for the batch. */
+  public Map<String, Boolean> canDeleteUsers(String actorUserId, Collection<UserEntity> targets) {
+    PermissionSnapshot snapshot = snapshotFor(actorUserId);
+    Map<String, Boolean> decisions = new LinkedHashMap<>();
+    for (UserEntity target : targets) {
+      decisions.put(target.getId(), canDelete(actorUserId, snapshot, target));
+    }
+    return decisions;
+  }
 
-    if (hasCountry && target.getCountryId() != null && countryIds.contains(target.getCountryId())) return true;
-    if (hasProvince && target.getProvinceId() != null && provinceIds.contains(target.getProvinceId())) return true;
-    return false;
+  private static boolean canUpdate(PermissionSnapshot snapshot, UserEntity target) {
+    return snapshot.permits("USER", "UPDATE", target, target.getId(), target.getCountryId(), target.getProvinceId(), true);
   }
 
-  public boolean canDeleteUser(String actorUserId, UserEntity target) {
+  private static boolean canDelete(String actorUserId, PermissionSnapshot snapshot, UserEntity target) {
     // Explicitly forbid self-deletion regardless of permissions
     if (actorUserId != null && actorUserId.equals(target.getId())) {
       return false;
     }
-
-    List<PermissionEntity> perms = loadPermissions(actorUserId, "USER", "DELETE");
-    if (perms.isEmpty()) return false;
-    if (perms.stream().anyMatch(p -> "DENY".equalsIgnoreCase(p.getEffect()))) return false;
-    if (perms.stream().anyMatch(p -> "GLOBAL".equalsIgnoreCase(p.getScope()))) return true;
-
-    // Country / Province scoped
-    List<UserScopeEntity> scopes = userScopeRepo.findByUserId(actorUserId);
-    Set<String> countryIds = scopes.stream().filter(s -> "COUNTRY".equalsIgnoreCase(s.getScopeType()))
-        .map(UserScopeEntity::getScopeId).collect(Collectors.toSet());
-    Set<String> provinceIds = scopes.stream().filter(s -> "PROVINCE".equalsIgnoreCase(s.getScopeType()))
-        .map(UserScopeEntity::getScopeId).collect(Collectors.toSet());
-
-    boolean hasCountry = perms.stream().anyMatch(p -> "COUNTRY".equalsIgnoreCase(p.getScope()));
-    boolean hasProvince = perms.stream().anyMatch(p -> "PROVINCE".equalsIgnoreCase(p.getScope()));
-
-    if (hasCountry && target.getCountryId() != null && countryIds.contains(target.getCountryId())) return true;
-    if (hasProvince && target.getProvinceId() != null && provinceIds.contains(target.getProvinceId())) return true;
-    return false;
+    return snapshot.permits("USER", "DELETE", target, target.getId(), target.getCountryId(), target.getProvinceId(), false);
   }
 }
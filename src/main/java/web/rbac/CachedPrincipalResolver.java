@@ -0,0 +1,116 @@
+package web.rbac;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import web.common.db.PrimaryReads;
+import web.common.security.AuthenticatedUser;
+import web.common.security.PrincipalResolver;
+import web.common.security.VerifiedToken;
+import web.rbac.entity.UserRoleEntity;
+import web.user.UserRepository;
+
+/**
+ * Resolves the token's email to the active user row and its role ids, cached for
+ * {@code auth.principal-cache.ttl} so steady traffic does not hit the database per request.
+ */
+@Component
+public class CachedPrincipalResolver implements PrincipalResolver {
+
+  private final UserRepository userRepo;
+  private final UserRoleRepository userRoleRepo;
+  private final PrimaryReads primaryReads;
+  private final Cache<String, AuthenticatedUser> principals;
+
+  public CachedPrincipalResolver(UserRepository userRepo,
+                                 UserRoleRepository userRoleRepo,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${auth.principal-cache.ttl:30s}") Duration ttl,
+                                 @Value("${auth.principal-cache.max-size:10000}") long maxSize) {
+    this.userRepo = userRepo;
+    this.userRoleRepo = userRoleRepo;
+    // A replica lagging behind a provisioning write would cache the user as unregistered
+    this.primaryReads = new PrimaryReads(transactionManager);
+    this.principals = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, principals, "auth.principals");
+  }
+
+  @Override
+  public AuthenticatedUser resolve(VerifiedToken token) {
+    return principals.get(key(token.principalName()), k -> load(token));
+  }
+
+  @Override
+  public void evict(String email) {
+    if (email == null || email.isBlank()) return;
+    evict(List.of(email));
+  }
+
+  @Override
+  public void evict(Collection<String> emails) {
+    List<String> keys = emails.stream().filter(e -> e != null && !e.isBlank()).map(CachedPrincipalResolver::key).toList();
+    if (keys.isEmpty()) return;
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      // Evicting before commit would let a concurrent request re-cache the old row.
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          principals.invalidateAll(keys);
+        }
+      });
+    } else {
+      principals.invalidateAll(keys);
+    }
+  }
+
+  /** Drops every cached principal, e.g. after role assignments changed outside the user API. */
+  public void evictAll() {
+    principals.invalidateAll();
+  }
+
+  /** Role ids are part of the principal, so role/scope changes drop the affected entries. */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onRbacChanged(RbacChangedEvent event) {
+    if (event.userId() == null) {
+      evictAll();
+    } else {
+      principals.asMap().values().removeIf(p -> event.userId().equals(p.userId()));
+    }
+  }
+
+  private AuthenticatedUser load(VerifiedToken token) {
+    String email = token.email();
+    if (email == null || email.isBlank()) {
+      return AuthenticatedUser.unregistered(token);
+    }
+    return primaryReads.execute(() -> userRepo.findByEmailIgnoreCaseAndDeletedAtIsNull(email)
+        .map(u -> {
+          List<String> roleIds = userRoleRepo.findByUserId(u.getId()).stream()
+              .map(UserRoleEntity::getRoleId)
+              .toList();
+          return new AuthenticatedUser(u.getId(), token.email(), u.getCountryId(), u.getProvinceId(),
+              roleIds, token.principalName());
+        })
+        .orElseGet(() -> AuthenticatedUser.unregistered(token)));
+  }
+
+  private static String key(String name) {
+    return name.toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,16 @@
+package web.rbac;
+
+/**
+ * One row of the role -> permission -> scope join behind /api/v1/me/permissions. Permission
+ * columns are null for roles without permissions; {@code scopeIds} is a comma-separated list,
+ * null for GLOBAL permissions.
+ */
+public interface EffectivePermissionRow {
+  String getRoleName();
+  String getPermissionId();
+  String getResource();
+  String getAction();
+  String getScope();
+  String getEffect();
+  String getScopeIds();
+}
@@ -0,0 +1,27 @@
+package web.rbac;
+
+import java.util.Locale;
+
+/** Values of {@code permissions.scope} and {@code user_scope.scope_type}. */
+public enum PermissionScope {
+  GLOBAL,
+  COUNTRY,
+  PROVINCE,
+  STUDIO,
+  SELF,
+  ASSIGNED;
+
+  final int bit() {
+    return 1 << ordinal();
+  }
+
+  /** Case-insensitive parse; null for unknown or missing values. */
+  public static PermissionScope parse(String value) {
+    if (value == null) return null;
+    try {
+      return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+}
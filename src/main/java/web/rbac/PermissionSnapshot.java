@@ -0,0 +1,253 @@
+package web.rbac;
+
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.PathBuilder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.jpa.domain.Specification;
+import web.rbac.entity.PermissionEntity;
+import web.rbac.entity.UserScopeEntity;
+import web.rbac.qualifier.Qualifier;
+import web.rbac.qualifier.QualifierAttributes;
+import web.rbac.qualifier.QualifierCompiler;
+
+/**
+ * Immutable, precompiled view of one user's permissions and scope assignments.
+ *
+ * <p>Each resource/action pair is reduced to a deny flag plus a bitmask of allowed
+ * {@link PermissionScope}s, and scope ids are kept as hash sets, so every decision is a couple of
+ * map lookups. Semantics match the original row-by-row checks: any DENY wins, GLOBAL allows
+ * everything, otherwise SELF/COUNTRY/PROVINCE are matched against the target.
+ *
+ * <p>Permissions with {@code qualifiers} are compiled once into {@link Qualifier} trees and only
+ * apply to targets they match. Invalid qualifiers fail closed: the ALLOW is dropped, the DENY
+ * becomes unconditional.
+ */
+public final class PermissionSnapshot {
+
+  private static final Logger log = LoggerFactory.getLogger(PermissionSnapshot.class);
+
+  private static final PermissionSnapshot EMPTY = new PermissionSnapshot(null, Map.of(), Map.of());
+
+  private final String userId;
+  private final Map<String, Map<String, Grant>> grants;
+  private final Map<PermissionScope, Set<String>> scopeIds;
+
+  private PermissionSnapshot(String userId, Map<String, Map<String, Grant>> grants,
+                             Map<PermissionScope, Set<String>> scopeIds) {
+    this.userId = userId;
+    this.grants = grants;
+    this.scopeIds = scopeIds;
+  }
+
+  /** Snapshot that grants nothing (anonymous or unprovisioned user). */
+  public static PermissionSnapshot empty() {
+    return EMPTY;
+  }
+
+  public static PermissionSnapshot compile(String userId,
+                                           Collection<PermissionEntity> permissions,
+                                           Collection<UserScopeEntity> scopes) {
+    Map<String, Map<String, Grant>> grants = new HashMap<>();
+    for (PermissionEntity p : permissions) {
+      if (p.getResource() == null || p.getAction() == null) continue;
+      boolean deny = "DENY".equalsIgnoreCase(p.getEffect());
+      Qualifier<Object> qualifier = null;
+      try {
+        qualifier = qualifier(p);
+      } catch (IllegalArgumentException e) {
+        log.warn("Invalid qualifiers on permission {}: {}", p.getId(), e.getMessage());
+        if (!deny) continue;
+      }
+      Grant g = grants.computeIfAbsent(upper(p.getResource()), r -> new HashMap<>())
+          .computeIfAbsent(upper(p.getAction()), a -> new Grant());
+      if (qualifier != null) {
+        PermissionScope scope = PermissionScope.parse(p.getScope());
+        g.conditional.add(new Conditional(deny, scope == null ? 0 : scope.bit(), qualifier));
+      } else if (deny) {
+        g.deny = true;
+      } else {
+        PermissionScope scope = PermissionScope.parse(p.getScope());
+        if (scope != null) g.allowMask |= scope.bit();
+      }
+    }
+    grants.replaceAll((resource, byAction) -> Map.copyOf(byAction));
+
+    Map<PermissionScope, Set<String>> ids = new EnumMap<>(PermissionScope.class);
+    for (UserScopeEntity s : scopes) {
+      PermissionScope type = PermissionScope.parse(s.getScopeType());
+      if (type != null && s.getScopeId() != null) {
+        ids.computeIfAbsent(type, t -> new HashSet<>()).add(s.getScopeId());
+      }
+    }
+    ids.replaceAll((type, set) -> Set.copyOf(set));
+
+    return new PermissionSnapshot(userId, Map.copyOf(grants), ids);
+  }
+
+  public String userId() {
+    return userId;
+  }
+
+  /** True when at least one permission row (allow or deny) exists for the pair. */
+  public boolean hasAny(String resource, String action) {
+    return grant(resource, action) != null;
+  }
+
+  public boolean isDenied(String resource, String action) {
+    Grant g = grant(resource, action);
+    return g != null && g.deny;
+  }
+
+  public boolean allows(String resource, String action, PermissionScope scope) {
+    Grant g = grant(resource, action);
+    return g != null && !g.deny && (g.allowMask & scope.bit()) != 0;
+  }
+
+  /** Scope ids assigned to the user for {@code type}; empty when none. */
+  public Set<String> scopeIds(PermissionScope type) {
+    return scopeIds.getOrDefault(type, Set.of());
+  }
+
+  /** {@link #permits(String, String, Object, String, String, String, boolean)} without a target entity. */
+  public boolean permits(String resource, String action, String targetId,
+                         String targetCountryId, String targetProvinceId, boolean selfAllowed) {
+    return permits(resource, action, null, targetId, targetCountryId, targetProvinceId, selfAllowed);
+  }
+
+  /**
+   * Decides an action on a target located in {@code targetCountryId}/{@code targetProvinceId}.
+   *
+   * @param target       entity qualified grants are tested against; when null, qualified ALLOWs
+   *                     do not apply and qualified DENYs do
+   * @param targetId     target user id, consulted only when {@code selfAllowed}
+   * @param selfAllowed  whether a SELF grant applies to this action
+   */
+  public boolean permits(String resource, String action, Object target, String targetId,
+                         String targetCountryId, String targetProvinceId, boolean selfAllowed) {
+    Grant g = grant(resource, action);
+    if (g == null || g.deny) return false;
+    int mask = g.allowMask;
+    for (Conditional c : g.conditional) {
+      boolean applies = target != null && c.qualifier().test(target);
+      if (c.deny()) {
+        if (target == null || applies) return false;
+      } else if (applies) {
+        mask |= c.scopeBit();
+      }
+    }
+    if ((mask & PermissionScope.GLOBAL.bit()) != 0) return true;
+    if (selfAllowed && (mask & PermissionScope.SELF.bit()) != 0 && targetId != null && targetId.equals(userId)) {
+      return true;
+    }
+    if ((mask & PermissionScope.COUNTRY.bit()) != 0 && targetCountryId != null
+        && scopeIds(PermissionScope.COUNTRY).contains(targetCountryId)) {
+      return true;
+    }
+    return (mask & PermissionScope.PROVINCE.bit()) != 0 && targetProvinceId != null
+        && scopeIds(PermissionScope.PROVINCE).contains(targetProvinceId);
+  }
+
+  /**
+   * Restriction excluding rows matched by qualified DENYs, to be AND-ed into a listing; null when
+   * there are none. A DENY whose qualifier cannot be pushed down excludes everything. Qualifier SQL
+   * is two-valued, so a NULL column keeps the row exactly when {@link #permits} would allow it.
+   */
+  public <T> Specification<T> qualifiedDenyFilter(String resource, String action) {
+    Grant g = grant(resource, action);
+    if (g == null) return null;
+    Specification<T> filter = null;
+    for (Conditional c : g.conditional) {
+      if (!c.deny()) continue;
+      Specification<T> s = Conditional.<T>specification(c)
+          .map(Specification::not)
+          .orElse((root, query, cb) -> cb.disjunction());
+      filter = filter == null ? s : filter.and(s);
+    }
+    return filter;
+  }
+
+  /**
+   * Rows granted by qualified ALLOWs of {@code scope}, to be OR-ed into a listing; null when there
+   * are none. Qualifiers that cannot be pushed down grant nothing in listings.
+   */
+  public <T> Specification<T> qualifiedAllowFilter(String resource, String action, PermissionScope scope) {
+    Grant g = grant(resource, action);
+    if (g == null || g.deny) return null;
+    Specification<T> filter = null;
+    for (Conditional c : g.conditional) {
+      if (c.deny() || (c.scopeBit() & scope.bit()) == 0) continue;
+      Specification<T> s = Conditional.<T>specification(c).orElse(null);
+      if (s != null) filter = filter == null ? s : filter.or(s);
+    }
+    return filter;
+  }
+
+  /** QueryDSL counterpart of {@link #qualifiedDenyFilter}. */
+  public Predicate qualifiedDenyPredicate(String resource, String action, PathBuilder<?> root) {
+    Grant g = grant(resource, action);
+    if (g == null) return null;
+    List<Predicate> filters = new ArrayList<>();
+    for (Conditional c : g.conditional) {
+      if (!c.deny()) continue;
+      filters.add(c.qualifier().toQuerydsl(root).map(Predicate::not).orElse(Expressions.FALSE.isTrue()));
+    }
+    return filters.isEmpty() ? null : ExpressionUtils.allOf(filters);
+  }
+
+  /** QueryDSL counterpart of {@link #qualifiedAllowFilter}. */
+  public Predicate qualifiedAllowPredicate(String resource, String action, PermissionScope scope, PathBuilder<?> root) {
+    Grant g = grant(resource, action);
+    if (g == null || g.deny) return null;
+    List<Predicate> filters = new ArrayList<>();
+    for (Conditional c : g.conditional) {
+      if (c.deny() || (c.scopeBit() & scope.bit()) == 0) continue;
+      c.qualifier().toQuerydsl(root).ifPresent(filters::add);
+    }
+    return filters.isEmpty() ? null : ExpressionUtils.anyOf(filters);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Qualifier<Object> qualifier(PermissionEntity p) {
+    if (p.getQualifiers() == null) return null;
+    QualifierAttributes<?> attributes = QualifierAttributes.forResource(p.getResource());
+    if (attributes == null) {
+      throw new IllegalArgumentException("qualifiers are not supported for resource " + p.getResource());
+    }
+    return (Qualifier<Object>) QualifierCompiler.compile(p.getQualifiers(), attributes);
+  }
+
+  private Grant grant(String resource, String action) {
+    Map<String, Grant> byAction = grants.get(upper(resource));
+    return byAction == null ? null : byAction.get(upper(action));
+  }
+
+  private static String upper(String s) {
+    return s.toUpperCase(Locale.ROOT);
+  }
+
+  private static final class Grant {
+    int allowMask;
+    boolean deny;
+    final List<Conditional> conditional = new ArrayList<>(0);
+  }
+
+  private record Conditional(boolean deny, int scopeBit, Qualifier<Object> qualifier) {
+    @SuppressWarnings("unchecked")
+    static <T> Optional<Specification<T>> specification(Conditional c) {
+      return c.qualifier().toSpecification().map(s -> (Specification<T>) (Specification<?>) s);
+    }
+  }
+}
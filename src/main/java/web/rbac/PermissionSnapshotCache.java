@@ -0,0 +1,65 @@
+package web.rbac;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Bounded per-user cache of {@link PermissionSnapshot}s. Entries are dropped after commit of any
+ * {@link RbacChangedEvent}; the TTL is only a safety net for changes made outside the application.
+ *
+ * <p>Within a request, snapshots are additionally pinned in the {@link AuthorizationContext}, so
+ * every check of one request sees the same permissions and costs a map lookup. Evictions made on
+ * the request thread drop the pinned copy too.
+ */
+@Component
+public class PermissionSnapshotCache {
+
+  private final Cache<String, PermissionSnapshot> snapshots;
+
+  public PermissionSnapshotCache(MeterRegistry meterRegistry,
+                                 @Value("${rbac.snapshot-cache.ttl:10m}") Duration ttl,
+                                 @Value("${rbac.snapshot-cache.max-size:10000}") long maxSize) {
+    this.snapshots = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "rbac.snapshots");
+  }
+
+  public PermissionSnapshot get(String userId, Function<String, PermissionSnapshot> loader) {
+    AuthorizationContext context = AuthorizationContext.current();
+    if (context == null) {
+      return snapshots.get(userId, loader);
+    }
+    return context.snapshot(userId, id -> snapshots.get(id, loader));
+  }
+
+  public void evict(String userId) {
+    snapshots.invalidate(userId);
+    AuthorizationContext context = AuthorizationContext.peek();
+    if (context != null) context.forget(userId);
+  }
+
+  public void evictAll() {
+    snapshots.invalidateAll();
+    AuthorizationContext context = AuthorizationContext.peek();
+    if (context != null) context.forgetAll();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onRbacChanged(RbacChangedEvent event) {
+    if (event.userId() == null) {
+      evictAll();
+    } else {
+      evict(event.userId());
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package web.rbac;
+
+/**
+ * Published when role assignments, scopes or role permissions change.
+ *
+ * @param userId affected user, or null when the change can affect any user (role/permission edits)
+ */
+public record RbacChangedEvent(String userId) {
+
+  public static RbacChangedEvent allUsers() {
+    return new RbacChangedEvent(null);
+  }
+}
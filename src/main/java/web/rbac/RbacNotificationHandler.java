@@ -0,0 +1,37 @@
+package web.rbac;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import web.common.db.DatabaseNotificationHandler;
+
+/**
+ * Turns {@code rbac_changed} notifications (see V20 triggers) into {@link RbacChangedEvent}s so
+ * changes committed by any node evict this node's permission snapshots and principals.
+ */
+@Component
+public class RbacNotificationHandler implements DatabaseNotificationHandler {
+
+  static final String CHANNEL = "rbac_changed";
+
+  private final ApplicationEventPublisher events;
+
+  public RbacNotificationHandler(ApplicationEventPublisher events) {
+    this.events = events;
+  }
+
+  @Override
+  public String channel() {
+    return CHANNEL;
+  }
+
+  @Override
+  public void onNotification(String payload) {
+    String userId = payload == null ? "" : payload.trim();
+    events.publishEvent(userId.isEmpty() || "*".equals(userId) ? RbacChangedEvent.allUsers() : new RbacChangedEvent(userId));
+  }
+
+  @Override
+  public void onResubscribe() {
+    events.publishEvent(RbacChangedEvent.allUsers());
+  }
+}
@@ -0,0 +1,89 @@
+package web.rbac;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.StringExpression;
+import com.querydsl.jpa.JPAExpressions;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.jpa.domain.Specification;
+import web.rbac.entity.QUserScopeEntity;
+import web.rbac.entity.UserScopeEntity;
+
+/**
+ * Specifications that filter rows by the actor's {@code user_scope} assignments inside the
+ * database.
+ *
+ * <p>Emits {@code EXISTS (SELECT 1 FROM user_scope us WHERE us.user_id = ? AND ((upper(us.scope_type)
+ * = 'COUNTRY' AND us.scope_id = <country column>) OR (...PROVINCE...)))}. The statement shape is
+ * the same however many scopes the actor has, and each probe is bounded by the actor's rows in the
+ * (user_id, scope_type, scope_id) unique index. Scope types are matched case-insensitively, like
+ * {@link PermissionScope#parse}; the column has no constraint on case.
+ */
+public final class ScopeSpecifications {
+
+  private ScopeSpecifications() {}
+
+  /**
+   * Rows whose country or province attribute matches one of the actor's COUNTRY / PROVINCE scopes.
+   * Attribute names may be dotted paths through to-one associations; pass null to skip a level. The
+   * attribute must hold the country/province ULID, as {@code user_scope.scope_id} does.
+   */
+  public static <T> Specification<T> withinActorScopes(String actorUserId, String countryAttribute, String provinceAttribute) {
+    return (root, query, cb) -> {
+      if (actorUserId == null || (countryAttribute == null && provinceAttribute == null)) {
+        return cb.disjunction();
+      }
+      Subquery<Integer> sq = query.subquery(Integer.class);
+      Root<UserScopeEntity> us = sq.from(UserScopeEntity.class);
+
+      List<Predicate> matches = new ArrayList<>(2);
+      if (countryAttribute != null) {
+        matches.add(scopeMatch(cb, us, PermissionScope.COUNTRY, path(root, countryAttribute)));
+      }
+      if (provinceAttribute != null) {
+        matches.add(scopeMatch(cb, us, PermissionScope.PROVINCE, path(root, provinceAttribute)));
+      }
+      sq.select(cb.literal(1)).where(
+          cb.equal(us.get("userId"), actorUserId),
+          cb.or(matches.toArray(Predicate[]::new)));
+      return cb.exists(sq);
+    };
+  }
+
+  /** QueryDSL form of {@link #withinActorScopes(String, String, String)}; pass null to skip a level. */
+  public static BooleanExpression withinActorScopes(String actorUserId, StringExpression country, StringExpression province) {
+    QUserScopeEntity us = new QUserScopeEntity("us");
+    BooleanExpression match = null;
+    if (country != null) {
+      match = us.scopeType.upper().eq(PermissionScope.COUNTRY.name()).and(us.scopeId.eq(country));
+    }
+    if (province != null) {
+      BooleanExpression p = us.scopeType.upper().eq(PermissionScope.PROVINCE.name()).and(us.scopeId.eq(province));
+      match = match == null ? p : match.or(p);
+    }
+    if (actorUserId == null || match == null) {
+      return Expressions.FALSE.isTrue();
+    }
+    return JPAExpressions.selectOne().from(us).where(us.userId.eq(actorUserId), match).exists();
+  }
+
+  private static Predicate scopeMatch(CriteriaBuilder cb, Root<UserScopeEntity> us, PermissionScope type,
+                                      Expression<String> target) {
+    return cb.and(cb.equal(cb.upper(us.get("scopeType")), type.name()), cb.equal(us.get("scopeId"), target));
+  }
+
+  private static Expression<String> path(Root<?> root, String dotted) {
+    Path<?> p = root;
+    for (String part : dotted.split("\\.")) {
+      p = p.get(part);
+    }
+    return p.as(String.class);
+  }
+}
@@ -1,10 +1,35 @@
 package web.rbac;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import web.rbac.entity.UserRoleEntity;
 
 import java.util.List;
 
 public interface UserRoleRepository extends JpaRepository<UserRoleEntity, String> {
   List<UserRoleEntity> findByUserId(String userId);
+
+  // Roles, their permissions and the user's matching scope ids in one round trip
+  @Query(value = """
+      SELECT r.name AS "roleName",
+             p.id AS "permissionId",
+             p.resource AS "resource",
+             p.action AS "action",
+             p.scope AS "scope",
+             p.effect AS "effect",
+             CASE WHEN p.id IS NULL OR UPPER(p.scope) = 'GLOBAL' THEN NULL
+                  ELSE COALESCE((SELECT string_agg(us.scope_id, ',' ORDER BY us.scope_id)
+                                 FROM user_scope us
+                                 WHERE us.user_id = ur.user_id
+                                   AND UPPER(us.scope_type) = UPPER(p.scope)), '')
+             END AS "scopeIds"
+      FROM user_roles ur
+      JOIN roles r ON r.id = ur.role_id
+      LEFT JOIN role_permissions rp ON rp.role_id = ur.role_id
+      LEFT JOIN permissions p ON p.id = rp.permission_id
+      WHERE ur.user_id = :userId
+      ORDER BY r.name, p.resource, p.action, p.scope
+      """, nativeQuery = true)
+  List<EffectivePermissionRow> findEffectivePermissionRows(@Param("userId") String userId);
 }
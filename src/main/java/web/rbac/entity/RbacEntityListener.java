@@ -0,0 +1,32 @@
+package web.rbac.entity;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import web.rbac.RbacChangedEvent;
+
+/**
+ * Publishes {@link RbacChangedEvent} for writes to RBAC link tables made through JPA. Created by
+ * Hibernate through Spring's bean container, hence the injected publisher.
+ */
+public class RbacEntityListener {
+
+  private final ApplicationEventPublisher publisher;
+
+  public RbacEntityListener(ApplicationEventPublisher publisher) {
+    this.publisher = publisher;
+  }
+
+  @PostPersist
+  @PostUpdate
+  @PostRemove
+  void changed(Object entity) {
+    String userId = switch (entity) {
+      case UserRoleEntity ur -> ur.getUserId();
+      case UserScopeEntity us -> us.getUserId();
+      default -> null; // role_permissions / permissions affect every holder of the role
+    };
+    publisher.publishEvent(new RbacChangedEvent(userId));
+  }
+}
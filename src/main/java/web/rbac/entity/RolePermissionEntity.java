@@ -2,11 +2,13 @@ package web.rbac.entity;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import web.common.entity.BaseEntity;
 
 @Entity
+@EntityListeners(RbacEntityListener.class)
 @Table(name = "role_permissions")
 public class RolePermissionEntity extends BaseEntity {
   @Id
@@ -0,0 +1,225 @@
+package web.rbac.qualifier;
+
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.dsl.PathBuilder;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Compiled predicate tree of a {@code permissions.qualifiers} document (see
+ * {@link QualifierCompiler}). Evaluation walks plain Java objects; no JSON is touched per decision.
+ *
+ * <p>The SQL forms are two-valued: a leaf on a NULL column is FALSE rather than UNKNOWN, so a
+ * negation ({@code not}, or a DENY excluded from a listing) keeps the rows {@link #test} keeps.
+ */
+public sealed interface Qualifier<T> {
+
+  boolean test(T target);
+
+  /** SQL form, or empty when a leaf references an attribute without a column mapping. */
+  Optional<Specification<T>> toSpecification();
+
+  /** QueryDSL form over {@code root}; empty under the same condition as {@link #toSpecification()}. */
+  Optional<com.querydsl.core.types.Predicate> toQuerydsl(PathBuilder<?> root);
+
+  record All<T>(List<Qualifier<T>> parts) implements Qualifier<T> {
+    @Override
+    public boolean test(T target) {
+      for (int i = 0, n = parts.size(); i < n; i++) {
+        if (!parts.get(i).test(target)) return false;
+      }
+      return true;
+    }
+
+    @Override
+    public Optional<Specification<T>> toSpecification() {
+      List<Specification<T>> specs = specs(parts);
+      if (specs == null) return Optional.empty();
+      return Optional.of((root, query, cb) -> cb.and(predicates(specs, root, query, cb)));
+    }
+
+    @Override
+    public Optional<com.querydsl.core.types.Predicate> toQuerydsl(PathBuilder<?> root) {
+      List<com.querydsl.core.types.Predicate> preds = querydsl(parts, root);
+      return preds == null ? Optional.empty() : Optional.of(ExpressionUtils.allOf(preds));
+    }
+  }
+
+  record Any<T>(List<Qualifier<T>> parts) implements Qualifier<T> {
+    @Override
+    public boolean test(T target) {
+      for (int i = 0, n = parts.size(); i < n; i++) {
+        if (parts.get(i).test(target)) return true;
+      }
+      return false;
+    }
+
+    @Override
+    public Optional<Specification<T>> toSpecification() {
+      List<Specification<T>> specs = specs(parts);
+      if (specs == null) return Optional.empty();
+      return Optional.of((root, query, cb) -> cb.or(predicates(specs, root, query, cb)));
+    }
+
+    @Override
+    public Optional<com.querydsl.core.types.Predicate> toQuerydsl(PathBuilder<?> root) {
+      List<com.querydsl.core.types.Predicate> preds = querydsl(parts, root);
+      return preds == null ? Optional.empty() : Optional.of(ExpressionUtils.anyOf(preds));
+    }
+  }
+
+  record Not<T>(Qualifier<T> part) implements Qualifier<T> {
+    @Override
+    public boolean test(T target) {
+      return !part.test(target);
+    }
+
+    @Override
+    public Optional<Specification<T>> toSpecification() {
+      return part.toSpecification().map(s -> (root, query, cb) -> cb.not(s.toPredicate(root, query, cb)));
+    }
+
+    @Override
+    public Optional<com.querydsl.core.types.Predicate> toQuerydsl(PathBuilder<?> root) {
+      return part.toQuerydsl(root).map(com.querydsl.core.types.Predicate::not);
+    }
+  }
+
+  /** {@code eq}; a null attribute value never matches (FALSE in SQL, not NULL). */
+  record Eq<T>(QualifierAttribute<T> attribute, Object value) implements Qualifier<T> {
+    @Override
+    public boolean test(T target) {
+      return value.equals(attribute.getter().apply(target));
+    }
+
+    @Override
+    public Optional<Specification<T>> toSpecification() {
+      String path = attribute.jpaAttribute();
+      if (path == null) return Optional.empty();
+      return Optional.of((root, query, cb) -> cb.and(cb.isNotNull(root.get(path)), cb.equal(root.get(path), value)));
+    }
+
+    @Override
+    public Optional<com.querydsl.core.types.Predicate> toQuerydsl(PathBuilder<?> root) {
+      Path<Object> path = path(root, attribute);
+      return path == null ? Optional.empty()
+          : Optional.of(ExpressionUtils.and(ExpressionUtils.isNotNull(path), ExpressionUtils.eqConst(path, value)));
+    }
+  }
+
+  /** {@code ne}; a null attribute value matches, as in Java. */
+  record Ne<T>(QualifierAttribute<T> attribute, Object value) implements Qualifier<T> {
+    @Override
+    public boolean test(T target) {
+      return !value.equals(attribute.getter().apply(target));
+    }
+
+    @Override
+    public Optional<Specification<T>> toSpecification() {
+      String path = attribute.jpaAttribute();
+      if (path == null) return Optional.empty();
+      return Optional.of((root, query, cb) -> cb.or(cb.isNull(root.get(path)), cb.notEqual(root.get(path), value)));
+    }
+
+    @Override
+    public Optional<com.querydsl.core.types.Predicate> toQuerydsl(PathBuilder<?> root) {
+      Path<Object> path = path(root, attribute);
+      return path == null ? Optional.empty()
+          : Optional.of(ExpressionUtils.or(ExpressionUtils.isNull(path), ExpressionUtils.neConst(path, value)));
+    }
+  }
+
+  /** {@code in} / {@code nin}; {@code negated} follows {@link Ne} null handling. */
+  record In<T>(QualifierAttribute<T> attribute, Set<Object> values, boolean negated) implements Qualifier<T> {
+    @Override
+    public boolean test(T target) {
+      Object v = attribute.getter().apply(target);
+      return (v != null && values.contains(v)) != negated;
+    }
+
+    @Override
+    public Optional<Specification<T>> toSpecification() {
+      String path = attribute.jpaAttribute();
+      if (path == null) return Optional.empty();
+      return Optional.of((root, query, cb) -> {
+        if (values.isEmpty()) return negated ? cb.conjunction() : cb.disjunction();
+        Predicate in = root.get(path).in(values);
+        return negated ? cb.or(cb.isNull(root.get(path)), cb.not(in)) : cb.and(cb.isNotNull(root.get(path)), in);
+      });
+    }
+
+    @Override
+    public Optional<com.querydsl.core.types.Predicate> toQuerydsl(PathBuilder<?> root) {
+      Path<Object> path = path(root, attribute);
+      if (path == null) return Optional.empty();
+      // JPQLSerializer renders an empty IN list as 1=2
+      com.querydsl.core.types.Predicate in = ExpressionUtils.in(path, values);
+      return Optional.of(negated ? ExpressionUtils.or(ExpressionUtils.isNull(path), in.not())
+          : ExpressionUtils.and(ExpressionUtils.isNotNull(path), in));
+    }
+  }
+
+  record Exists<T>(QualifierAttribute<T> attribute, boolean expected) implements Qualifier<T> {
+    @Override
+    public boolean test(T target) {
+      return (attribute.getter().apply(target) != null) == expected;
+    }
+
+    @Override
+    public Optional<Specification<T>> toSpecification() {
+      String path = attribute.jpaAttribute();
+      if (path == null) return Optional.empty();
+      return Optional.of((root, query, cb) -> expected ? cb.isNotNull(root.get(path)) : cb.isNull(root.get(path)));
+    }
+
+    @Override
+    public Optional<com.querydsl.core.types.Predicate> toQuerydsl(PathBuilder<?> root) {
+      Path<Object> path = path(root, attribute);
+      if (path == null) return Optional.empty();
+      return Optional.of(expected ? ExpressionUtils.isNotNull(path) : ExpressionUtils.isNull(path));
+    }
+  }
+
+  private static <T> List<Specification<T>> specs(List<Qualifier<T>> parts) {
+    List<Specification<T>> specs = new ArrayList<>(parts.size());
+    for (Qualifier<T> part : parts) {
+      Optional<Specification<T>> s = part.toSpecification();
+      if (s.isEmpty()) return null;
+      specs.add(s.get());
+    }
+    return specs;
+  }
+
+  private static <T> List<com.querydsl.core.types.Predicate> querydsl(List<Qualifier<T>> parts, PathBuilder<?> root) {
+    List<com.querydsl.core.types.Predicate> preds = new ArrayList<>(parts.size());
+    for (Qualifier<T> part : parts) {
+      Optional<com.querydsl.core.types.Predicate> p = part.toQuerydsl(root);
+      if (p.isEmpty()) return null;
+      preds.add(p.get());
+    }
+    return preds;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Path<Object> path(PathBuilder<?> root, QualifierAttribute<?> attribute) {
+    String name = attribute.jpaAttribute();
+    return name == null ? null : (Path<Object>) root.get(name, attribute.type());
+  }
+
+  private static <T> Predicate[] predicates(List<Specification<T>> specs, Root<T> root,
+                                            CriteriaQuery<?> query, CriteriaBuilder cb) {
+    Predicate[] out = new Predicate[specs.size()];
+    for (int i = 0; i < out.length; i++) {
+      out[i] = specs.get(i).toPredicate(root, query, cb);
+    }
+    return out;
+  }
+}
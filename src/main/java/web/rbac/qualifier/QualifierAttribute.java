@@ -0,0 +1,12 @@
+package web.rbac.qualifier;
+
+import java.util.function.Function;
+
+/**
+ * An attribute a qualifier may test.
+ *
+ * @param type          {@code String.class} or {@code Boolean.class}; qualifier values are checked against it
+ * @param getter        in-memory accessor
+ * @param jpaAttribute  entity attribute for SQL pushdown, or null when only evaluable in memory
+ */
+public record QualifierAttribute<T>(String name, Class<?> type, Function<T, Object> getter, String jpaAttribute) {}
@@ -0,0 +1,35 @@
+package web.rbac.qualifier;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import web.user.entity.UserEntity;
+
+/** Attributes that qualifiers on one resource may reference. */
+public final class QualifierAttributes<T> {
+
+  public static final QualifierAttributes<UserEntity> USER = new QualifierAttributes<>(List.of(
+      new QualifierAttribute<>("id", String.class, UserEntity::getId, "id"),
+      new QualifierAttribute<>("countryId", String.class, UserEntity::getCountryId, "countryId"),
+      new QualifierAttribute<>("provinceId", String.class, UserEntity::getProvinceId, "provinceId"),
+      new QualifierAttribute<>("roleId", String.class, UserEntity::getRoleId, "roleId"),
+      new QualifierAttribute<>("email", String.class, UserEntity::getEmail, "email"),
+      new QualifierAttribute<>("phone", String.class, UserEntity::getPhone, "phone"),
+      new QualifierAttribute<>("isActive", Boolean.class, UserEntity::isActive, "isActive")));
+
+  private final Map<String, QualifierAttribute<T>> byName;
+
+  public QualifierAttributes(List<QualifierAttribute<T>> attributes) {
+    this.byName = attributes.stream().collect(Collectors.toUnmodifiableMap(QualifierAttribute::name, Function.identity()));
+  }
+
+  /** Registry for {@code permissions.resource}, or null when the resource has no qualifier support. */
+  public static QualifierAttributes<?> forResource(String resource) {
+    return "USER".equalsIgnoreCase(resource) ? USER : null;
+  }
+
+  public QualifierAttribute<T> get(String name) {
+    return byName.get(name);
+  }
+}
@@ -0,0 +1,89 @@
+package web.rbac.qualifier;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compiles a {@code permissions.qualifiers} document into a {@link Qualifier} tree.
+ *
+ * <pre>
+ * {"all": [ ... ]}   {"any": [ ... ]}   {"not": { ... }}
+ * {"attr": "countryId", "op": "eq",  "value": "01J..."}        ops: eq, ne
+ * {"attr": "roleId",    "op": "in",  "values": ["01H...", ...]} ops: in, nin
+ * {"attr": "email",     "op": "exists", "value": true}
+ * </pre>
+ *
+ * Unknown attributes, operators or value types are rejected with {@link IllegalArgumentException}.
+ */
+public final class QualifierCompiler {
+
+  private static final ObjectMapper JSON = new ObjectMapper();
+
+  private QualifierCompiler() {}
+
+  /** Compiled tree, or null when the document is absent or an empty object (no restriction). */
+  public static <T> Qualifier<T> compile(String document, QualifierAttributes<T> attributes) {
+    if (document == null || document.isBlank()) return null;
+    JsonNode root;
+    try {
+      root = JSON.readTree(document);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Qualifier is not valid JSON", e);
+    }
+    if (root == null || root.isNull() || (root.isObject() && root.isEmpty())) return null;
+    return node(root, attributes);
+  }
+
+  private static <T> Qualifier<T> node(JsonNode n, QualifierAttributes<T> attributes) {
+    if (!n.isObject() || n.size() == 0) {
+      throw new IllegalArgumentException("Qualifier node must be a non-empty object: " + n);
+    }
+    if (n.has("all")) return new Qualifier.All<>(children(n.get("all"), attributes));
+    if (n.has("any")) return new Qualifier.Any<>(children(n.get("any"), attributes));
+    if (n.has("not")) return new Qualifier.Not<>(node(n.get("not"), attributes));
+
+    String name = n.path("attr").asText(null);
+    QualifierAttribute<T> attribute = name == null ? null : attributes.get(name);
+    if (attribute == null) {
+      throw new IllegalArgumentException("Unknown qualifier attribute: " + name);
+    }
+    String op = n.path("op").asText("eq");
+    return switch (op) {
+      case "eq" -> new Qualifier.Eq<>(attribute, value(n.get("value"), attribute));
+      case "ne" -> new Qualifier.Ne<>(attribute, value(n.get("value"), attribute));
+      case "in", "nin" -> new Qualifier.In<>(attribute, values(n.get("values"), attribute), op.equals("nin"));
+      case "exists" -> new Qualifier.Exists<>(attribute, !n.has("value") || n.get("value").asBoolean());
+      default -> throw new IllegalArgumentException("Unknown qualifier op: " + op);
+    };
+  }
+
+  private static <T> List<Qualifier<T>> children(JsonNode array, QualifierAttributes<T> attributes) {
+    if (array == null || !array.isArray() || array.isEmpty()) {
+      throw new IllegalArgumentException("all/any need a non-empty array");
+    }
+    List<Qualifier<T>> parts = new ArrayList<>(array.size());
+    array.forEach(child -> parts.add(node(child, attributes)));
+    return List.copyOf(parts);
+  }
+
+  private static Set<Object> values(JsonNode array, QualifierAttribute<?> attribute) {
+    if (array == null || !array.isArray()) {
+      throw new IllegalArgumentException("'values' must be an array for " + attribute.name());
+    }
+    Set<Object> values = new HashSet<>();
+    array.forEach(v -> values.add(value(v, attribute)));
+    return Set.copyOf(values);
+  }
+
+  private static Object value(JsonNode v, QualifierAttribute<?> attribute) {
+    if (attribute.type() == String.class && v != null && v.isTextual()) return v.textValue();
+    if (attribute.type() == Boolean.class && v != null && v.isBoolean()) return v.booleanValue();
+    throw new IllegalArgumentException(
+        "Expected " + attribute.type().getSimpleName() + " value for " + attribute.name() + ": " + v);
+  }
+}
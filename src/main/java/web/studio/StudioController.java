@@ -9,16 +9,19 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import web.common.dto.CountMode;
+import web.common.dto.PageResult;
 import web.common.request.RequestIdHolder;
 import web.studio.dto.StudioCreateRequest;
 import web.studio.dto.StudioResponse;
+import web.studio.dto.StudioSuggestion;
 
 import java.util.List;
 
@@ -98,22 +101,23 @@ public class StudioController {
         @ApiResponse(responseCode = "200", description = "Studios found"),
         @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
-    public ResponseEntity<web.common.dto.ApiResponse<Page<StudioResponse>>> getStudiosByOwnerPaginated(
+    public ResponseEntity<web.common.dto.ApiResponse<Slice<StudioResponse>>> getStudiosByOwnerPaginated(
             @Parameter(description = "Owner user ID", required = true) @PathVariable String ownerId,
             @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
             @Parameter(description = "Sort field") @RequestParam(defaultValue = "createdAt") String sortBy,
-            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "DESC") String sortDir) {
+            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "DESC") String sortDir,
+            @Parameter(description = "Total count mode: none (hasNext only), estimate or exact") @RequestParam(required = false) String count) {
         
         logger.debug("Fetching studios by owner with pagination: {} (page: {}, size: {})", ownerId, page, size);
         
         Sort sort = Sort.by(Sort.Direction.fromString(sortDir), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        Page<StudioResponse> studioPage = studioService.findStudiosByOwner(ownerId, pageable);
+        PageResult<StudioResponse> studioPage = studioService.findStudiosByOwner(ownerId, pageable, CountMode.parse(count));
         
         String rid = RequestIdHolder.getOrCreate();
-        return ResponseEntity.ok(web.common.dto.ApiResponse.success(rid, studioPage, null));
+        return ResponseEntity.ok(web.common.dto.ApiResponse.success(rid, studioPage.slice(), studioPage.meta()));
     }
 
     @GetMapping("/search")
@@ -136,6 +140,22 @@ public class StudioController {
         return ResponseEntity.ok(web.common.dto.ApiResponse.success(rid, studios, null));
     }
 
+    @GetMapping("/autocomplete")
+    @Operation(summary = "Autocomplete studio names", description = "Returns id, name, code and city of studios whose name matches what has been typed so far, tolerating typos")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Suggestions returned"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    public ResponseEntity<web.common.dto.ApiResponse<List<StudioSuggestion>>> autocompleteStudios(
+            @Parameter(description = "Text typed so far", required = true) @RequestParam String q,
+            @Parameter(description = "Maximum number of suggestions (1-50)") @RequestParam(defaultValue = "10") int limit) {
+
+        List<StudioSuggestion> suggestions = studioService.autocompleteStudios(q, Math.max(1, Math.min(limit, 50)));
+
+        String rid = RequestIdHolder.getOrCreate();
+        return ResponseEntity.ok(web.common.dto.ApiResponse.success(rid, suggestions, null));
+    }
+
     @GetMapping("/geographic")
     @Operation(summary = "Find studios by geographic area", description = "Finds studios in a specific country and optionally province")
     @ApiResponses({
@@ -0,0 +1,47 @@
+package web.studio;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Turns what the user has typed so far into search input for the studio name queries.
+ */
+final class StudioNameQuery {
+
+    /** Longer input is cut; nobody types 100 characters into a dropdown. */
+    static final int MAX_LENGTH = 100;
+    private static final int MAX_WORDS = 8;
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private StudioNameQuery() {}
+
+    /** Trimmed, lower-cased and length-capped input. */
+    static String normalize(String input) {
+        if (input == null) return "";
+        String s = input.strip().toLowerCase(Locale.ROOT);
+        return s.length() > MAX_LENGTH ? s.substring(0, MAX_LENGTH) : s;
+    }
+
+    /**
+     * Lower-cased words of the input. Only letters and digits survive, so words can be joined into
+     * {@code to_tsquery} syntax or a space-separated list safely.
+     */
+    static List<String> words(String input) {
+        List<String> words = new ArrayList<>();
+        for (String word : SEPARATORS.split(normalize(input))) {
+            if (!word.isEmpty() && words.size() < MAX_WORDS) words.add(word);
+        }
+        return words;
+    }
+
+    /**
+     * Prefix tsquery matching names that contain every word as a word prefix, e.g.
+     * {@code [dance, st]} becomes {@code "dance:* & st:*"}. Null when there are no words.
+     */
+    static String prefix(List<String> words) {
+        if (words.isEmpty()) return null;
+        return String.join(":* & ", words) + ":*";
+    }
+}
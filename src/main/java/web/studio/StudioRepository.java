@@ -2,10 +2,13 @@ package web.studio;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import web.studio.dto.StudioSuggestion;
 import web.studio.entity.StudioEntity;
 
 import java.util.List;
@@ -17,10 +20,11 @@ public interface StudioRepository extends JpaRepository<StudioEntity, String> {
     /**
      * Find studio by ID with active status and not deleted
      */
+    @EntityGraph(StudioEntity.DETAILS_GRAPH)
     @Query("""
         SELECT s FROM StudioEntity s 
         WHERE s.id = :id 
-        AND s.status = 'ACTIVE' 
+        AND s.status = 'active' 
         AND s.deletedAt IS NULL
         """)
     Optional<StudioEntity> findActiveById(@Param("id") String id);
@@ -28,10 +32,11 @@ public interface StudioRepository extends JpaRepository<StudioEntity, String> {
     /**
      * Find studios by owner ID with active status
      */
+    @EntityGraph(StudioEntity.DETAILS_GRAPH)
     @Query("""
         SELECT s FROM StudioEntity s 
         WHERE s.owner.id = :ownerId 
-        AND s.status = 'ACTIVE' 
+        AND s.status = 'active' 
         AND s.deletedAt IS NULL
         ORDER BY s.createdAt DESC
         """)
@@ -40,6 +45,7 @@ public interface StudioRepository extends JpaRepository<StudioEntity, String> {
     /**
      * Find studios by owner ID with pagination
      */
+    @EntityGraph(StudioEntity.DETAILS_GRAPH)
     @Query("""
         SELECT s FROM StudioEntity s 
         WHERE s.owner.id = :ownerId 
@@ -48,13 +54,25 @@ public interface StudioRepository extends JpaRepository<StudioEntity, String> {
         """)
     Page<StudioEntity> findByOwnerId(@Param("ownerId") String ownerId, Pageable pageable);
 
+    /**
+     * Find studios by owner ID without a count query
+     */
+    @EntityGraph(StudioEntity.DETAILS_GRAPH)
+    @Query("""
+        SELECT s FROM StudioEntity s 
+        WHERE s.owner.id = :ownerId 
+        AND s.deletedAt IS NULL
+        ORDER BY s.createdAt DESC
+        """)
+    Slice<StudioEntity> readByOwnerId(@Param("ownerId") String ownerId, Pageable pageable);
+
     /**
      * Check if email exists for active studios (for uniqueness validation)
      */
     @Query("""
         SELECT COUNT(s) > 0 FROM StudioEntity s 
         WHERE LOWER(s.email) = LOWER(:email) 
-        AND s.status = 'ACTIVE' 
+        AND s.status = 'active' 
         AND s.deletedAt IS NULL
         AND (:excludeId IS NULL OR s.id != :excludeId)
         """)
@@ -66,40 +84,88 @@ public interface StudioRepository extends JpaRepository<StudioEntity, String> {
     @Query("""
         SELECT COUNT(s) > 0 FROM StudioEntity s 
         WHERE UPPER(s.code) = UPPER(:code) 
-        AND s.status = 'ACTIVE' 
+        AND s.status = 'active' 
         AND s.deletedAt IS NULL
         AND (:excludeId IS NULL OR s.id != :excludeId)
         """)
     boolean existsByCodeAndActive(@Param("code") String code, @Param("excludeId") String excludeId);
 
     /**
-     * Search studios by name (full-text search)
+     * Search studios by name (full-text search). Returns ids only; load them with
+     * {@link #findWithDetailsByIdIn} so a page costs two statements regardless of its size.
+     * The endpoint returns a plain list, so no count query is run.
      */
     @Query(value = """
-        SELECT * FROM studio s
-        WHERE to_tsvector('simple', s.name) @@ plainto_tsquery('simple', :searchTerm)
-          AND s.status = 'ACTIVE'
+        SELECT s.id FROM studio s
+        WHERE s.name_tsv @@ plainto_tsquery('simple', :searchTerm)
+          AND s.status = 'active'
           AND s.deleted_at IS NULL
-        ORDER BY ts_rank_cd(to_tsvector('simple', s.name), plainto_tsquery('simple', :searchTerm)) DESC
+        ORDER BY ts_rank_cd(s.name_tsv, plainto_tsquery('simple', :searchTerm)) DESC, s.id
         """,
-        countQuery = """
-        SELECT COUNT(*) FROM studio s
-        WHERE to_tsvector('simple', s.name) @@ plainto_tsquery('simple', :searchTerm)
-          AND s.status = 'ACTIVE'
-          AND s.deleted_at IS NULL
+        nativeQuery = true)
+    Slice<String> searchIdsByName(@Param("searchTerm") String searchTerm, Pageable pageable);
+
+    /**
+     * Autocomplete by word prefixes. {@code tsQuery} is a prefix tsquery such as
+     * {@code 'dan:* & stu:*'} (see {@code StudioNameQuery.prefix}). Only the 200 shortest matches
+     * are ranked: the shortest names are the closest to what was typed, and with
+     * {@code ix_studio_name_length} the planner can stop after 200 of them, so a one-letter prefix
+     * costs about the same as a full name; more typing narrows it.
+     */
+    @Query(value = """
+        SELECT c.id AS id, c.name AS name, c.code AS code, a.city AS city
+        FROM (
+            SELECT s.id, s.name, s.code, s.address_id, s.name_tsv
+            FROM studio s
+            WHERE s.name_tsv @@ to_tsquery('simple', :tsQuery)
+              AND s.status = 'active'
+              AND s.deleted_at IS NULL
+            ORDER BY length(s.name), s.id
+            LIMIT 200
+        ) c
+        JOIN address a ON a.id = c.address_id
+        ORDER BY ts_rank_cd(c.name_tsv, to_tsquery('simple', :tsQuery)) DESC, length(c.name), c.name, c.id
+        LIMIT :limit
+        """,
+        nativeQuery = true)
+    List<StudioSuggestion> suggestByPrefix(@Param("tsQuery") String tsQuery, @Param("limit") int limit);
+
+    /**
+     * Closest known studio name word (pg_trgm similarity) for each space-separated word, in input
+     * order; a word without a close match is returned unchanged.
+     */
+    @Query(value = """
+        SELECT coalesce(
+                 (SELECT w.word FROM studio_name_word w
+                  WHERE w.word % t.term
+                  ORDER BY similarity(w.word, t.term) DESC, w.word
+                  LIMIT 1),
+                 t.term)
+        FROM regexp_split_to_table(:words, ' ') WITH ORDINALITY AS t(term, ord)
+        ORDER BY t.ord
         """,
         nativeQuery = true)
-    Page<StudioEntity> searchByName(@Param("searchTerm") String searchTerm, Pageable pageable);
+    List<String> correctNameWords(@Param("words") String words);
 
     /**
-     * Find studios in specific geographic area (by country and province)
+     * Load studios with owner, address and postal code in one statement (unordered)
+     */
+    @EntityGraph(StudioEntity.DETAILS_GRAPH)
+    @Query("SELECT s FROM StudioEntity s WHERE s.id IN :ids")
+    List<StudioEntity> findWithDetailsByIdIn(@Param("ids") java.util.Collection<String> ids);
+
+    /**
+     * Find studios in specific geographic area (by country and province). Filters on the address,
+     * so the fetch plan is spelled out as JOIN FETCH to reuse that join.
      */
     @Query("""
         SELECT s FROM StudioEntity s
-        JOIN s.address a
+        JOIN FETCH s.address a
+        JOIN FETCH a.postalCodeReference
+        JOIN FETCH s.owner
         WHERE a.countryCode = :countryCode
         AND (:provinceCode IS NULL OR a.provinceCode = :provinceCode)
-        AND s.status = 'ACTIVE' 
+        AND s.status = 'active' 
         AND s.deletedAt IS NULL
         ORDER BY s.name
         """)
@@ -113,11 +179,12 @@ public interface StudioRepository extends JpaRepository<StudioEntity, String> {
      */
     @Query("""
         SELECT s FROM StudioEntity s
-        JOIN s.address a
-        JOIN a.postalCodeReference pcr
+        JOIN FETCH s.address a
+        JOIN FETCH a.postalCodeReference pcr
+        JOIN FETCH s.owner
         WHERE pcr.postalCode = :postalCode
         AND pcr.countryCode = :countryCode
-        AND s.status = 'ACTIVE' 
+        AND s.status = 'active' 
         AND s.deletedAt IS NULL
         ORDER BY s.name
         """)
@@ -131,7 +198,7 @@ public interface StudioRepository extends JpaRepository<StudioEntity, String> {
     @Query("""
         SELECT COUNT(s) FROM StudioEntity s 
         WHERE s.owner.id = :ownerId 
-        AND s.status = 'ACTIVE' 
+        AND s.status = 'active' 
         AND s.deletedAt IS NULL
         """)
     long countActiveByOwnerId(@Param("ownerId") String ownerId);
@@ -141,7 +208,7 @@ public interface StudioRepository extends JpaRepository<StudioEntity, String> {
      */
     @Query("""
         SELECT s.id, s.name, s.code FROM StudioEntity s 
-        WHERE s.status = 'ACTIVE' 
+        WHERE s.status = 'active' 
         AND s.deletedAt IS NULL
         ORDER BY s.name
         """)
@@ -154,7 +221,7 @@ public interface StudioRepository extends JpaRepository<StudioEntity, String> {
         SELECT s, a, pcr FROM StudioEntity s
         JOIN FETCH s.address a
         JOIN FETCH a.postalCodeReference pcr
-        WHERE s.status = 'ACTIVE' 
+        WHERE s.status = 'active' 
         AND s.deletedAt IS NULL
         ORDER BY s.name
         """)
@@ -166,7 +233,7 @@ public interface StudioRepository extends JpaRepository<StudioEntity, String> {
     @Query("""
         SELECT s FROM StudioEntity s 
         WHERE LOWER(s.companyName) LIKE LOWER(CONCAT('%', :companyName, '%'))
-        AND s.status = 'ACTIVE' 
+        AND s.status = 'active' 
         AND s.deletedAt IS NULL
         ORDER BY s.companyName
         """)
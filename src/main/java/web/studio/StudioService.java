@@ -5,17 +5,23 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import web.common.db.RowEstimates;
+import web.common.dto.CountMode;
+import web.common.dto.PageResult;
 import web.common.exception.AppException;
 import web.common.exception.ErrorCode;
 import web.common.util.Ulids;
 import web.location.AddressRepository;
 import web.location.PostalCodeReferenceRepository;
+import web.location.ReferenceDataCache;
 import web.location.entity.AddressEntity;
 import web.location.entity.PostalCodeReferenceEntity;
 import web.studio.dto.StudioCreateRequest;
 import web.studio.dto.StudioResponse;
+import web.studio.dto.StudioSuggestion;
 import web.studio.entity.StudioEntity;
 import web.user.UserRepository;
 import web.user.entity.UserEntity;
@@ -23,6 +29,9 @@ import web.user.entity.UserEntity;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,17 +44,23 @@ public class StudioService {
     private final AddressRepository addressRepository;
     private final PostalCodeReferenceRepository postalCodeRepository;
     private final UserRepository userRepository;
+    private final ReferenceDataCache referenceData;
+    private final RowEstimates rowEstimates;
 
     @Autowired
     public StudioService(
             StudioRepository studioRepository,
             AddressRepository addressRepository,
             PostalCodeReferenceRepository postalCodeRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            ReferenceDataCache referenceData,
+            RowEstimates rowEstimates) {
         this.studioRepository = studioRepository;
         this.addressRepository = addressRepository;
         this.postalCodeRepository = postalCodeRepository;
         this.userRepository = userRepository;
+        this.referenceData = referenceData;
+        this.rowEstimates = rowEstimates;
     }
 
     /**
@@ -109,17 +124,62 @@ public class StudioService {
         return studioPage.map(this::convertToStudioResponse);
     }
 
+    /**
+     * Find studios by owner with pagination and a selectable count mode
+     */
+    @Transactional(readOnly = true)
+    public PageResult<StudioResponse> findStudiosByOwner(String ownerId, Pageable pageable, CountMode count) {
+        if (count == CountMode.EXACT) {
+            return PageResult.exact(findStudiosByOwner(ownerId, pageable));
+        }
+        Slice<StudioEntity> slice = studioRepository.readByOwnerId(ownerId, pageable);
+        PageResult<StudioEntity> result = count == CountMode.NONE
+                ? PageResult.uncounted(slice)
+                : PageResult.estimated(slice, rowEstimates.explain(
+                        "SELECT 1 FROM studio s WHERE s.owner_id = ? AND s.deleted_at IS NULL", ownerId));
+        return result.map(this::convertToStudioResponse);
+    }
+
     /**
      * Search studios by name
      */
     @Transactional(readOnly = true)
     public List<StudioResponse> searchStudiosByName(String searchTerm, Pageable pageable) {
-        Page<StudioEntity> studioPage = studioRepository.searchByName(searchTerm, pageable);
-        return studioPage.getContent().stream()
+        // Native ranking query can't take a fetch plan: page the ids, then load them in one go
+        List<String> ids = studioRepository.searchIdsByName(searchTerm, pageable).getContent();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<String, StudioEntity> byId = studioRepository.findWithDetailsByIdIn(ids).stream()
+                .collect(Collectors.toMap(StudioEntity::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .map(this::convertToStudioResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Studio name autocomplete by word prefixes. When nothing matches, each word is replaced by the
+     * closest known studio name word and the search runs once more (typos). Returns the
+     * lightweight dropdown projection only.
+     */
+    @Transactional(readOnly = true)
+    public List<StudioSuggestion> autocompleteStudios(String query, int limit) {
+        List<String> words = StudioNameQuery.words(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        List<StudioSuggestion> suggestions = studioRepository.suggestByPrefix(StudioNameQuery.prefix(words), limit);
+        if (suggestions.isEmpty()) {
+            List<String> corrected = studioRepository.correctNameWords(String.join(" ", words));
+            if (!corrected.equals(words)) {
+                suggestions = studioRepository.suggestByPrefix(StudioNameQuery.prefix(corrected), limit);
+            }
+        }
+        return suggestions;
+    }
+
     /**
      * Find studios in geographic area
      */
@@ -303,7 +363,8 @@ studio.setId(Ulids.newUlid());
                 postalCodeResponse.setCity(pcr.getCity());
                 postalCodeResponse.setProvinceCode(pcr.getProvinceCode());
                 postalCodeResponse.setCountryCode(pcr.getCountryCode());
-                // TODO: Add province and country names from lookup tables
+                postalCodeResponse.setProvinceName(referenceData.provinceName(pcr.getProvinceCode()));
+                postalCodeResponse.setCountryName(referenceData.countryName(pcr.getCountryCode()));
                 addressResponse.setPostalCode(postalCodeResponse);
             }
 
@@ -0,0 +1,11 @@
+package web.studio.dto;
+
+/**
+ * One autocomplete entry: just enough to label a dropdown option and select the studio.
+ */
+public interface StudioSuggestion {
+    String getId();
+    String getName();
+    String getCode();
+    String getCity();
+}
@@ -11,8 +11,21 @@ import web.user.entity.UserEntity;
 
 @Entity
 @Table(name = "studio")
+@NamedEntityGraph(
+        name = StudioEntity.DETAILS_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode("owner"),
+                @NamedAttributeNode(value = "address", subgraph = "address")
+        },
+        subgraphs = @NamedSubgraph(name = "address", attributeNodes = @NamedAttributeNode("postalCodeReference")))
 public class StudioEntity extends BaseEntity {
 
+    /**
+     * Fetch plan for building a {@code StudioResponse}: owner, address and the address's postal
+     * code joined into the studio query. All three are to-one, so the graph is safe with paging.
+     */
+    public static final String DETAILS_GRAPH = "Studio.details";
+
     @Id
     @Column(name = "id", length = 26, nullable = false)
     @Pattern(regexp = "^[0-7][0-9A-HJKMNP-TV-Z]{25}$", message = "Invalid ULID format")
@@ -65,7 +78,7 @@ public class StudioEntity extends BaseEntity {
 
     // Status
     @Column(name = "status", length = 20, nullable = false)
-    @Enumerated(EnumType.STRING)
+    @Convert(converter = StudioStatusConverter.class)
     private StudioStatus status = StudioStatus.ACTIVE;
 
     // Constructors
@@ -145,4 +158,22 @@ public class StudioEntity extends BaseEntity {
         @Override
         public String toString() { return value; }
     }
+
+    /** Stores {@link StudioStatus} as its lowercase value, as required by the table's status check. */
+    @Converter
+    static class StudioStatusConverter implements AttributeConverter<StudioStatus, String> {
+        @Override
+        public String convertToDatabaseColumn(StudioStatus status) {
+            return status == null ? null : status.getValue();
+        }
+
+        @Override
+        public StudioStatus convertToEntityAttribute(String value) {
+            if (value == null) return null;
+            for (StudioStatus status : StudioStatus.values()) {
+                if (status.getValue().equalsIgnoreCase(value)) return status;
+            }
+            throw new IllegalArgumentException("Unknown StudioStatus: " + value);
+        }
+    }
 }
@@ -3,19 +3,28 @@ package web.user;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import web.common.dto.ApiResponse;
 import web.common.request.RequestIdHolder;
+import web.user.dto.UserBulkDeleteRequest;
+import web.user.dto.UserBulkResult;
+import web.user.dto.UserBulkUpdateRequest;
 import web.user.dto.UserCreateRequest;
+import web.user.dto.UserCursorPage;
+import web.user.dto.UserImportResult;
 import web.user.dto.UserUpdateRequest;
 import web.user.dto.UserResponse;
 import web.user.dto.UserListItemResponse;
 
+import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
 import java.util.Map;
-import org.springframework.data.domain.Page;
 
 @RestController
 @RequestMapping("/api/v1/users")
@@ -23,9 +32,13 @@ import org.springframework.data.domain.Page;
 public class UserController {
 
   private final UserService service;
+  private final UserExportService exporter;
+  private final UserImportService importer;
 
-  public UserController(UserService service) {
+  public UserController(UserService service, UserExportService exporter, UserImportService importer) {
     this.service = service;
+    this.exporter = exporter;
+    this.importer = importer;
   }
 
   @PostMapping
@@ -47,9 +60,10 @@ public class UserController {
   }
 
   @GetMapping
-  @Operation(summary = "List users (paginated)")
+  @Operation(summary = "List users (paginated; count=none|estimate|exact, or after= for keyset paging without counts)")
   public ResponseEntity<ApiResponse<List<UserListItemResponse>>> list(
       @RequestParam(required = false) Integer page,
+      @RequestParam(required = false) String after,
       @RequestParam(required = false) Integer size,
       @RequestParam(required = false) String countryId,
       @RequestParam(required = false) String provinceId,
@@ -57,18 +71,64 @@ public class UserController {
       @RequestParam(required = false) String phone,
       @RequestParam(required = false) String email,
       @RequestParam(required = false, name = "role") String role,
+      @RequestParam(required = false) Boolean deleted,
+      @RequestParam(required = false) String count
+  ) {
+    if (after != null) {
+      // Cursor mode: empty "after" requests the first page
+      UserCursorPage cursorPage = service.findAfter(after, size, countryId, provinceId, name, phone, email, role, deleted);
+      Map<String, Object> meta = new java.util.LinkedHashMap<>();
+      meta.put("size", (size == null ? 20 : size));
+      meta.put("nextCursor", cursorPage.nextCursor());
+      meta.put("hasNext", cursorPage.hasNext());
+      return ResponseEntity.ok(ApiResponse.success(RequestIdHolder.getOrCreate(), cursorPage.items(), meta));
+    }
+    web.common.dto.PageResult<UserListItemResponse> result = service.find(
+        page, size, countryId, provinceId, name, phone, email, role, deleted, web.common.dto.CountMode.parse(count));
+    String rid = RequestIdHolder.getOrCreate();
+    return ResponseEntity.ok(ApiResponse.success(rid, result.content(), result.meta()));
+  }
+
+  @GetMapping("/export")
+  @Operation(summary = "Stream users matching the list filters as NDJSON (default) or CSV")
+  public ResponseEntity<StreamingResponseBody> export(
+      @RequestParam(required = false) String format,
+      @RequestParam(required = false) String countryId,
+      @RequestParam(required = false) String provinceId,
+      @RequestParam(required = false, name = "name") String name,
+      @RequestParam(required = false) String phone,
+      @RequestParam(required = false) String email,
+      @RequestParam(required = false, name = "role") String role,
       @RequestParam(required = false) Boolean deleted
   ) {
-    Page<UserListItemResponse> result = service.find(page, size, countryId, provinceId, name, phone, email, role, deleted);
+    UserFileFormat f = UserFileFormat.parse(format);
+    StreamingResponseBody body = exporter.export(f, countryId, provinceId, name, phone, email, role, deleted);
+    return ResponseEntity.ok()
+        .contentType(f.mediaType())
+        .header(HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename("users." + f.extension()).build().toString())
+        .body(body);
+  }
+
+  @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+  @Operation(summary = "Bulk-create users from CSV (with header row) or NDJSON; one result per data line")
+  public ResponseEntity<ApiResponse<List<UserImportResult>>> importUsers(
+      @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+      InputStream body
+  ) {
+    List<UserImportResult> results = importer.importUsers(UserFileFormat.of(contentType), body);
+    return ResponseEntity.ok(ApiResponse.success(RequestIdHolder.getOrCreate(), results, importMeta(results)));
+  }
+
+  @GetMapping("/search")
+  @Operation(summary = "Type-ahead user search ranked by similarity of name, email or phone")
+  public ResponseEntity<ApiResponse<List<UserListItemResponse>>> search(
+      @RequestParam String q,
+      @RequestParam(required = false) Integer limit
+  ) {
+    List<UserListItemResponse> data = service.search(q, limit);
     String rid = RequestIdHolder.getOrCreate();
-    Map<String, Object> meta = Map.of(
-        "page", (page == null ? 0 : page),
-        "size", (size == null ? 20 : size),
-        "totalItems", result.getTotalElements(),
-        "totalPages", result.getTotalPages(),
-        "hasNext", result.hasNext()
-    );
-    return ResponseEntity.ok(ApiResponse.success(rid, result.getContent(), meta));
+    return ResponseEntity.ok(ApiResponse.success(rid, data, Map.of("count", data.size())));
   }
 
   @PatchMapping("/{id}")
@@ -80,6 +140,22 @@ public class UserController {
     return ResponseEntity.ok(ApiResponse.success(rid, data, null));
   }
 
+  @PatchMapping("/bulk")
+  @Operation(summary = "Update many users with the same partial change")
+  public ResponseEntity<ApiResponse<List<UserBulkResult>>> bulkUpdate(@Valid @RequestBody UserBulkUpdateRequest req) {
+    List<UserBulkResult> data = service.bulkUpdate(req);
+    String rid = RequestIdHolder.getOrCreate();
+    return ResponseEntity.ok(ApiResponse.success(rid, data, bulkMeta(data)));
+  }
+
+  @PostMapping("/bulk-delete")
+  @Operation(summary = "Soft delete many users")
+  public ResponseEntity<ApiResponse<List<UserBulkResult>>> bulkDelete(@Valid @RequestBody UserBulkDeleteRequest req) {
+    List<UserBulkResult> data = service.bulkSoftDelete(req);
+    String rid = RequestIdHolder.getOrCreate();
+    return ResponseEntity.ok(ApiResponse.success(rid, data, bulkMeta(data)));
+  }
+
   @DeleteMapping("/{id}")
   @Operation(summary = "Soft delete user")
   public ResponseEntity<ApiResponse<Void>> delete(@PathVariable String id) {
@@ -87,4 +163,34 @@ public class UserController {
     String rid = RequestIdHolder.getOrCreate();
     return ResponseEntity.ok(ApiResponse.success(rid, null, null));
   }
+
+  private static Map<String, Object> bulkMeta(List<UserBulkResult> results) {
+    Map<String, Object> meta = new java.util.LinkedHashMap<>();
+    meta.put("requested", results.size());
+    for (UserBulkResult.Status status : UserBulkResult.Status.values()) {
+      long n = results.stream().filter(r -> r.status() == status).count();
+      if (n > 0) meta.put(switch (status) {
+        case UPDATED -> "updated";
+        case DELETED -> "deleted";
+        case DENIED -> "denied";
+        case NOT_FOUND -> "notFound";
+      }, n);
+    }
+    return meta;
+  }
+
+  private static Map<String, Object> importMeta(List<UserImportResult> results) {
+    Map<String, Object> meta = new java.util.LinkedHashMap<>();
+    meta.put("requested", results.size());
+    for (UserImportResult.Status status : UserImportResult.Status.values()) {
+      long n = results.stream().filter(r -> r.status() == status).count();
+      if (n > 0) meta.put(switch (status) {
+        case CREATED -> "created";
+        case INVALID -> "invalid";
+        case DENIED -> "denied";
+        case DUPLICATE -> "duplicate";
+      }, n);
+    }
+    return meta;
+  }
 }
@@ -0,0 +1,51 @@
+package web.user;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import com.querydsl.core.types.Predicate;
+import web.common.exception.AppException;
+import web.common.exception.ErrorCode;
+import web.user.dto.UserListItemResponse;
+import web.user.entity.QUserEntity;
+
+/**
+ * Opaque keyset position for user listings: the {@code (created_at, id)} of the last row served.
+ * Rows are ordered by {@link UserQueryRepository#ORDER}, matching index
+ * {@code users_active_created_at_id_idx}.
+ */
+record UserCursor(Instant createdAt, String id) {
+
+  static UserCursor of(UserListItemResponse last, Instant createdAt) {
+    return new UserCursor(createdAt, last.id());
+  }
+
+  /** Parses a token from {@link #encode()}; malformed tokens are an ARGUMENT_INVALID error. */
+  static UserCursor decode(String token) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      int sep = raw.indexOf(':');
+      long micros = Long.parseLong(raw.substring(0, sep));
+      String id = raw.substring(sep + 1);
+      if (id.isEmpty() || id.length() > 26) throw new IllegalArgumentException("id");
+      return new UserCursor(Instant.EPOCH.plusNanos(Math.multiplyExact(micros, 1000L)), id);
+    } catch (RuntimeException e) {
+      throw new AppException(ErrorCode.ARGUMENT_INVALID, Map.of("field", "after", "reason", "invalid_cursor"));
+    }
+  }
+
+  String encode() {
+    long micros = Math.addExact(Math.multiplyExact(createdAt.getEpochSecond(), 1_000_000L), createdAt.getNano() / 1000);
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString((micros + ":" + id).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Rows after this position: {@code created_at <= c AND (created_at < c OR id > :id)}. The
+   * redundant bound lets Postgres start the index scan at the cursor despite mixed directions.
+   */
+  Predicate seek(QUserEntity u) {
+    return u.createdAt.loe(createdAt).and(u.createdAt.lt(createdAt).or(u.id.gt(id)));
+  }
+}
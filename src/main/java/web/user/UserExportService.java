@@ -0,0 +1,129 @@
+package web.user;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.querydsl.core.BooleanBuilder;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import web.common.security.CurrentUser;
+import web.rbac.AuthorizationService;
+import web.user.dto.UserListItemResponse;
+import web.user.entity.QUserEntity;
+
+/**
+ * Streams the user listing as NDJSON or CSV.
+ *
+ * <p>Rows come from a server-side cursor ({@link UserQueryRepository#stream}) inside a read-only
+ * transaction and are written as they arrive, so memory stays flat regardless of result size; a
+ * slow client simply blocks the writer. Filters and visibility are those of
+ * {@link UserService#find}, resolved on the request thread before streaming starts.
+ */
+@Service
+public class UserExportService {
+
+  private static final Logger log = LoggerFactory.getLogger(UserExportService.class);
+  private static final int FETCH_SIZE = 1000;
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final String CSV_HEADER = "id,name,email,phone,role,country,province\r\n";
+
+  private final UserQueryRepository queries;
+  private final AuthorizationService authz;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate readOnlyTx;
+
+  public UserExportService(UserQueryRepository queries, AuthorizationService authz,
+                           ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+    this.queries = queries;
+    this.authz = authz;
+    this.objectMapper = objectMapper;
+    this.readOnlyTx = new TransactionTemplate(transactionManager);
+    this.readOnlyTx.setReadOnly(true);
+  }
+
+  public StreamingResponseBody export(
+      UserFileFormat format,
+      String countryId, String provinceId,
+      String name, String phone, String email,
+      String role,
+      Boolean deleted
+  ) {
+    QUserEntity u = QUserEntity.userEntity;
+    String currentUserId = CurrentUser.userId().orElse(null);
+    BooleanBuilder where = new BooleanBuilder()
+        .and(new UserListFilter(countryId, provinceId, name, phone, email, role, deleted).toPredicate(u))
+        .and(authz.userViewPredicate(currentUserId));
+
+    return out -> readOnlyTx.executeWithoutResult(status -> {
+      long rows;
+      try (Stream<UserListItemResponse> items = queries.stream(where, FETCH_SIZE);
+           Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+        rows = format == UserFileFormat.CSV ? writeCsv(items.iterator(), writer) : writeNdjson(items.iterator(), writer);
+      } catch (IOException e) {
+        // Usually the client went away; rolling back closes the cursor
+        throw new UncheckedIOException(e);
+      }
+      log.info("Exported {} users as {} for {}", rows, format, currentUserId);
+    });
+  }
+
+  private long writeNdjson(Iterator<UserListItemResponse> items, Writer writer) throws IOException {
+    long n = 0;
+    // Leave flushing to the buffer and closing to the caller
+    try (SequenceWriter json = objectMapper.writerFor(UserListItemResponse.class)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+        .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+        .withRootValueSeparator("\n")
+        .writeValues(writer)) {
+      while (items.hasNext()) {
+        json.write(items.next());
+        n++;
+      }
+    }
+    if (n > 0) writer.write('\n');
+    return n;
+  }
+
+  private static long writeCsv(Iterator<UserListItemResponse> items, Writer writer) throws IOException {
+    writer.write(CSV_HEADER);
+    long n = 0;
+    while (items.hasNext()) {
+      UserListItemResponse r = items.next();
+      csv(writer, r.id()).write(',');
+      csv(writer, r.name()).write(',');
+      csv(writer, r.email()).write(',');
+      csv(writer, r.phone()).write(',');
+      csv(writer, r.role()).write(',');
+      csv(writer, r.country()).write(',');
+      csv(writer, r.province()).write("\r\n");
+      n++;
+    }
+    return n;
+  }
+
+  // RFC 4180: quote fields containing separators, quotes or line breaks; double embedded quotes
+  private static Writer csv(Writer writer, String value) throws IOException {
+    if (value == null) return writer;
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+      writer.write(value);
+    } else {
+      writer.write('"');
+      writer.write(value.replace("\"", "\"\""));
+      writer.write('"');
+    }
+    return writer;
+  }
+}
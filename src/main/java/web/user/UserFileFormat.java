@@ -0,0 +1,43 @@
+package web.user;
+
+import java.util.Locale;
+import java.util.Map;
+import org.springframework.http.MediaType;
+import web.common.exception.AppException;
+import web.common.exception.ErrorCode;
+
+/** File formats accepted by user export and import. */
+public enum UserFileFormat {
+  NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+  CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+  private final MediaType mediaType;
+  private final String extension;
+
+  UserFileFormat(MediaType mediaType, String extension) {
+    this.mediaType = mediaType;
+    this.extension = extension;
+  }
+
+  public MediaType mediaType() { return mediaType; }
+  public String extension() { return extension; }
+
+  /** Parses a {@code format} parameter; null or blank means {@link #NDJSON}. */
+  public static UserFileFormat parse(String value) {
+    if (value == null || value.isBlank()) return NDJSON;
+    try {
+      return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new AppException(ErrorCode.ARGUMENT_INVALID, Map.of("field", "format", "reason", "unsupported", "value", value));
+    }
+  }
+
+  /** Format of a request body by its Content-Type (parameters such as charset are ignored). */
+  public static UserFileFormat of(MediaType contentType) {
+    for (UserFileFormat f : values()) {
+      if (f.mediaType.isCompatibleWith(contentType)) return f;
+    }
+    throw new AppException(ErrorCode.ARGUMENT_INVALID,
+        Map.of("field", "Content-Type", "reason", "unsupported", "value", String.valueOf(contentType)));
+  }
+}
@@ -0,0 +1,181 @@
+package web.user;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import web.common.exception.AppException;
+import web.common.exception.ErrorCode;
+import web.user.dto.UserCreateRequest;
+
+/**
+ * Reads a user import body into one {@link UserCreateRequest} per data line.
+ *
+ * <p>CSV needs a header row; columns are matched by name ignoring case, {@code _} and spaces
+ * ({@code email, phone, fullName|name, countryId, provinceId, roleId, isActive}) and unknown
+ * columns are ignored. NDJSON lines use the {@code POST /api/v1/users} body.
+ */
+final class UserImportReader {
+
+  /** One data line; {@code error} is set instead of {@code request} when it could not be read. */
+  record Line(int number, UserCreateRequest request, String field, String error) {}
+
+  private static final Map<String, String> CSV_COLUMNS = Map.ofEntries(
+      Map.entry("email", "email"),
+      Map.entry("phone", "phone"),
+      Map.entry("fullname", "fullName"),
+      Map.entry("name", "fullName"),
+      Map.entry("countryid", "countryId"),
+      Map.entry("provinceid", "provinceId"),
+      Map.entry("roleid", "roleId"),
+      Map.entry("isactive", "isActive"),
+      Map.entry("active", "isActive"));
+
+  private UserImportReader() {}
+
+  static List<Line> read(UserFileFormat format, InputStream in, ObjectMapper mapper, int maxRows) throws IOException {
+    Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+    return format == UserFileFormat.CSV ? readCsv(reader, maxRows) : readNdjson(reader, mapper, maxRows);
+  }
+
+  private static List<Line> readNdjson(Reader reader, ObjectMapper mapper, int maxRows) throws IOException {
+    BufferedReader lines = (BufferedReader) reader;
+    List<Line> result = new ArrayList<>();
+    int number = 0;
+    for (String text = lines.readLine(); text != null; text = lines.readLine()) {
+      number++;
+      if (text.isBlank()) continue;
+      checkLimit(result, maxRows);
+      try {
+        result.add(new Line(number, mapper.readValue(text, UserCreateRequest.class), null, null));
+      } catch (JsonProcessingException e) {
+        result.add(new Line(number, null, null, "malformed_json"));
+      }
+    }
+    return result;
+  }
+
+  private static List<Line> readCsv(Reader reader, int maxRows) throws IOException {
+    CsvParser csv = new CsvParser(reader);
+    List<String> header = csv.next();
+    if (header == null) return List.of();
+    String[] columns = new String[header.size()];
+    for (int i = 0; i < columns.length; i++) {
+      String key = header.get(i).replace("_", "").replace(" ", "").replace("\uFEFF", "").toLowerCase(Locale.ROOT);
+      columns[i] = CSV_COLUMNS.get(key);
+    }
+
+    List<Line> result = new ArrayList<>();
+    for (List<String> record = csv.next(); record != null; record = csv.next()) {
+      if (record.size() == 1 && record.get(0).isBlank()) continue;
+      checkLimit(result, maxRows);
+      String email = null, phone = null, fullName = null, countryId = null, provinceId = null, roleId = null, active = null;
+      for (int i = 0; i < Math.min(columns.length, record.size()); i++) {
+        if (columns[i] == null) continue;
+        String v = record.get(i).isBlank() ? null : record.get(i);
+        switch (columns[i]) {
+          case "email" -> email = v;
+          case "phone" -> phone = v;
+          case "fullName" -> fullName = v;
+          case "countryId" -> countryId = v;
+          case "provinceId" -> provinceId = v;
+          case "roleId" -> roleId = v;
+          case "isActive" -> active = v;
+          default -> { }
+        }
+      }
+      Boolean isActive = parseBoolean(active);
+      if (active != null && isActive == null) {
+        result.add(new Line(csv.recordLine(), null, "isActive", "invalid_boolean"));
+      } else {
+        result.add(new Line(csv.recordLine(),
+            new UserCreateRequest(email, phone, fullName, countryId, provinceId, roleId, isActive), null, null));
+      }
+    }
+    return result;
+  }
+
+  private static void checkLimit(List<Line> lines, int maxRows) {
+    if (lines.size() >= maxRows) {
+      throw new AppException(ErrorCode.ARGUMENT_INVALID, Map.of("reason", "too_many_rows", "max", maxRows));
+    }
+  }
+
+  private static Boolean parseBoolean(String v) {
+    if (v == null) return null;
+    return switch (v.trim().toLowerCase(Locale.ROOT)) {
+      case "true", "1", "yes", "y" -> Boolean.TRUE;
+      case "false", "0", "no", "n" -> Boolean.FALSE;
+      default -> null;
+    };
+  }
+
+  /** RFC 4180 records: quoted fields may contain separators, doubled quotes and line breaks. */
+  private static final class CsvParser {
+    private final Reader in;
+    private int line = 1;
+    private int recordLine;
+
+    CsvParser(Reader in) {
+      this.in = in;
+    }
+
+    int recordLine() {
+      return recordLine;
+    }
+
+    List<String> next() throws IOException {
+      int c = read();
+      if (c < 0) return null;
+      recordLine = line;
+      List<String> fields = new ArrayList<>();
+      StringBuilder field = new StringBuilder();
+      boolean quoted = false;
+      while (true) {
+        if (quoted) {
+          if (c < 0) break;
+          if (c == '"') {
+            int d = read();
+            if (d == '"') {
+              field.append('"');
+            } else {
+              quoted = false;
+              c = d;
+              continue;
+            }
+          } else {
+            if (c == '\n') line++;
+            field.append((char) c);
+          }
+        } else if (c < 0 || c == '\n') {
+          if (c == '\n') line++;
+          break;
+        } else if (c == '\r') {
+          // dropped; \r\n is handled by the \n
+        } else if (c == ',') {
+          fields.add(field.toString());
+          field.setLength(0);
+        } else if (c == '"' && field.isEmpty()) {
+          quoted = true;
+        } else {
+          field.append((char) c);
+        }
+        c = read();
+      }
+      fields.add(field.toString());
+      return fields;
+    }
+
+    private int read() throws IOException {
+      return in.read();
+    }
+  }
+}
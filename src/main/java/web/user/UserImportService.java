@@ -0,0 +1,204 @@
+package web.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import web.common.security.CurrentUser;
+import web.common.security.PrincipalResolver;
+import web.common.util.Ulids;
+import web.rbac.AuthorizationService;
+import web.user.dto.UserCreateRequest;
+import web.user.dto.UserImportResult;
+import web.user.dto.UserImportResult.Status;
+
+/**
+ * Bulk counterpart of {@link UserService#create}: the same validation, authorization and
+ * duplicate rules, applied set-wise.
+ *
+ * <p>USER:CREATE is checked once per distinct country/province. Duplicates within the file are
+ * caught in memory. Duplicates against active users take one query per chunk, joining the
+ * chunk's values ({@code unnest(?)}) to {@code users_email_uq_active}/{@code users_phone_uq_active};
+ * a plain {@code = ANY(?)} with thousands of values tends to be planned as a sequential scan.
+ *
+ * <p>Rows are inserted with one {@code INSERT ... SELECT FROM unnest(...) ON CONFLICT DO NOTHING
+ * RETURNING id} per chunk; rows the insert skipped (a concurrent insert won) are reported as
+ * duplicates.
+ */
+@Service
+public class UserImportService {
+
+  private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+  static final int MAX_ROWS = 100_000;
+  private static final int CHUNK = 5_000;
+
+  private static final String INSERT_SQL = """
+      INSERT INTO users (id, email, phone, full_name, is_active, country_id, province_id, role_id, created_by, updated_by)
+      SELECT r.id, r.email, r.phone, r.full_name, r.is_active, r.country_id, r.province_id, r.role_id, ?, ?
+      FROM unnest(?::text[], ?::text[], ?::text[], ?::text[], ?::boolean[], ?::text[], ?::text[], ?::text[])
+        AS r(id, email, phone, full_name, is_active, country_id, province_id, role_id)
+      ON CONFLICT DO NOTHING
+      RETURNING id
+      """;
+
+  private final JdbcTemplate jdbc;
+  private final AuthorizationService authz;
+  private final Validator validator;
+  private final ObjectMapper objectMapper;
+  private final PrincipalResolver principals;
+
+  public UserImportService(JdbcTemplate jdbc, AuthorizationService authz, Validator validator, ObjectMapper objectMapper,
+                           PrincipalResolver principals) {
+    this.jdbc = jdbc;
+    this.authz = authz;
+    this.validator = validator;
+    this.objectMapper = objectMapper;
+    this.principals = principals;
+  }
+
+  private record Candidate(int index, int line, String id, String email, String phone, UserCreateRequest req) {}
+
+  private record Location(String countryId, String provinceId) {}
+
+  /** Imports every line of {@code body}; returns one result per data line, in file order. */
+  @Transactional
+  public List<UserImportResult> importUsers(UserFileFormat format, InputStream body) {
+    List<UserImportReader.Line> lines;
+    try {
+      lines = UserImportReader.read(format, body, objectMapper, MAX_ROWS);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    String actorUserId = CurrentUser.userId().orElse(null);
+    UserImportResult[] results = new UserImportResult[lines.size()];
+
+    // Row validation, authorization per location, and duplicates within the file
+    Map<Location, Boolean> allowed = new HashMap<>();
+    Set<String> seenEmails = new HashSet<>();
+    Set<String> seenPhones = new HashSet<>();
+    List<Candidate> candidates = new ArrayList<>(lines.size());
+    for (int i = 0; i < lines.size(); i++) {
+      UserImportReader.Line line = lines.get(i);
+      UserImportResult invalid = validate(line);
+      if (invalid != null) {
+        results[i] = invalid;
+        continue;
+      }
+      UserCreateRequest req = line.request();
+      Location location = new Location(req.countryId(), req.provinceId());
+      if (!allowed.computeIfAbsent(location, l -> authz.canCreateUser(actorUserId, l.countryId(), l.provinceId()))) {
+        results[i] = new UserImportResult(line.number(), null, Status.DENIED, null, "USER:CREATE");
+        continue;
+      }
+      String email = blank(req.email()) ? null : req.email().trim().toLowerCase();
+      String phone = blank(req.phone()) ? null : req.phone().trim();
+      if (email != null && !seenEmails.add(email)) {
+        results[i] = new UserImportResult(line.number(), null, Status.DUPLICATE, "email", "duplicate_in_file");
+        continue;
+      }
+      if (phone != null && !seenPhones.add(phone)) {
+        results[i] = new UserImportResult(line.number(), null, Status.DUPLICATE, "phone", "duplicate_in_file");
+        continue;
+      }
+      candidates.add(new Candidate(i, line.number(), Ulids.newUlid(), email, phone, req));
+    }
+
+    for (int from = 0; from < candidates.size(); from += CHUNK) {
+      insertChunk(candidates.subList(from, Math.min(from + CHUNK, candidates.size())), actorUserId, results);
+    }
+
+    log.info("Imported {} of {} users as {} for {}", Arrays.stream(results).filter(r -> r.status() == Status.CREATED).count(),
+        results.length, format, actorUserId);
+    return Arrays.asList(results);
+  }
+
+  private void insertChunk(List<Candidate> chunk, String actorUserId, UserImportResult[] results) {
+    Set<String> existingEmails = existing(
+        "SELECT lower(u.email) FROM unnest(?::text[]) AS k(v) JOIN users u ON lower(u.email) = k.v"
+            + " WHERE u.deleted_at IS NULL AND u.email IS NOT NULL",
+        chunk.stream().map(Candidate::email).filter(e -> e != null).toArray(String[]::new));
+    Set<String> existingPhones = existing(
+        "SELECT u.phone FROM unnest(?::text[]) AS k(v) JOIN users u ON u.phone = k.v"
+            + " WHERE u.deleted_at IS NULL AND u.phone IS NOT NULL",
+        chunk.stream().map(Candidate::phone).filter(p -> p != null).toArray(String[]::new));
+
+    List<Candidate> inserts = new ArrayList<>(chunk.size());
+    for (Candidate c : chunk) {
+      if (c.email() != null && existingEmails.contains(c.email())) {
+        results[c.index()] = new UserImportResult(c.line(), null, Status.DUPLICATE, "email", "exists");
+      } else if (c.phone() != null && existingPhones.contains(c.phone())) {
+        results[c.index()] = new UserImportResult(c.line(), null, Status.DUPLICATE, "phone", "exists");
+      } else {
+        inserts.add(c);
+      }
+    }
+    if (inserts.isEmpty()) return;
+
+    int n = inserts.size();
+    String[] ids = new String[n], emails = new String[n], phones = new String[n], names = new String[n];
+    String[] countries = new String[n], provinces = new String[n], roles = new String[n];
+    Boolean[] active = new Boolean[n];
+    for (int i = 0; i < n; i++) {
+      Candidate c = inserts.get(i);
+      ids[i] = c.id();
+      emails[i] = c.email();
+      phones[i] = c.phone();
+      names[i] = c.req().fullName().trim();
+      active[i] = c.req().isActive() == null ? Boolean.TRUE : c.req().isActive();
+      countries[i] = c.req().countryId();
+      provinces[i] = c.req().provinceId();
+      roles[i] = c.req().roleId();
+    }
+    Set<String> inserted = new HashSet<>(jdbc.queryForList(INSERT_SQL, String.class,
+        actorUserId, actorUserId, ids, emails, phones, names, active, countries, provinces, roles));
+    List<String> createdEmails = new ArrayList<>(inserted.size());
+    for (Candidate c : inserts) {
+      if (inserted.contains(c.id())) {
+        results[c.index()] = new UserImportResult(c.line(), c.id(), Status.CREATED, null, null);
+        if (c.email() != null) createdEmails.add(c.email());
+      } else {
+        results[c.index()] = new UserImportResult(c.line(), null, Status.DUPLICATE, "email_or_phone", "exists");
+      }
+    }
+    // Sign-ins before the import cached these emails as unregistered; drop them after commit
+    principals.evict(createdEmails);
+  }
+
+  private Set<String> existing(String sql, String[] values) {
+    if (values.length == 0) return Set.of();
+    return new HashSet<>(jdbc.queryForList(sql, String.class, (Object) values));
+  }
+
+  private UserImportResult validate(UserImportReader.Line line) {
+    if (line.request() == null) {
+      return new UserImportResult(line.number(), null, Status.INVALID, line.field(), line.error());
+    }
+    Set<ConstraintViolation<UserCreateRequest>> violations = validator.validate(line.request());
+    if (!violations.isEmpty()) {
+      ConstraintViolation<UserCreateRequest> v = violations.iterator().next();
+      return new UserImportResult(line.number(), null, Status.INVALID, v.getPropertyPath().toString(), v.getMessage());
+    }
+    if (blank(line.request().email()) && blank(line.request().phone())) {
+      return new UserImportResult(line.number(), null, Status.INVALID, null, "email_or_phone_required");
+    }
+    return null;
+  }
+
+  private static boolean blank(String s) {
+    return s == null || s.isBlank();
+  }
+}
@@ -0,0 +1,56 @@
+package web.user;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Predicate;
+import web.user.entity.QUserEntity;
+
+/** Query-string filters of the user listing. Blank values are ignored; {@code deleted} defaults to false. */
+record UserListFilter(
+    String countryId,
+    String provinceId,
+    String name,
+    String phone,
+    String email,
+    String role,
+    Boolean deleted
+) {
+
+  /** True when anything beyond the deleted flag narrows the listing. */
+  boolean hasCriteria() {
+    return !isBlank(countryId) || !isBlank(provinceId) || !isBlank(name)
+        || !isBlank(phone) || !isBlank(email) || !isBlank(role);
+  }
+
+  Predicate toPredicate(QUserEntity u) {
+    BooleanBuilder where = new BooleanBuilder();
+
+    // deleted filter; default to active only if not specified
+    where.and(Boolean.TRUE.equals(deleted) ? u.deletedAt.isNotNull() : u.deletedAt.isNull());
+
+    if (countryId != null && !countryId.isBlank()) where.and(u.countryId.eq(countryId));
+    if (provinceId != null && !provinceId.isBlank()) where.and(u.provinceId.eq(provinceId));
+    // Interpret role as roleId for now
+    if (role != null && !role.isBlank()) where.and(u.roleId.eq(role));
+
+    // Substring filters; lower(...) LIKE matches the trigram indexes from V22
+    if (name != null && !name.isBlank()) {
+      where.and(u.fullName.lower().like(containsPattern(name.trim().toLowerCase()), '\\'));
+    }
+    if (email != null && !email.isBlank()) {
+      where.and(u.email.lower().like(containsPattern(email.trim().toLowerCase()), '\\'));
+    }
+    if (phone != null && !phone.isBlank()) {
+      where.and(u.phone.like(containsPattern(phone.trim()), '\\'));
+    }
+    return where;
+  }
+
+  private static boolean isBlank(String s) {
+    return s == null || s.isBlank();
+  }
+
+  // %term% with LIKE wildcards in user input taken literally (backslash is the escape character)
+  static String containsPattern(String term) {
+    return "%" + term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+  }
+}
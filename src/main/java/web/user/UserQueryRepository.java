@@ -0,0 +1,125 @@
+package web.user;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Repository;
+import web.location.ReferenceDataCache;
+import web.user.dto.UserListItemResponse;
+import web.user.entity.QUserEntity;
+
+/**
+ * Read-only user listing: only the list columns are selected, so no entities are hydrated.
+ *
+ * <p>{@code users.country_id}/{@code province_id} hold either a ULID or a code; both are resolved
+ * to names through {@link ReferenceDataCache} instead of joining {@code country}/{@code province}.
+ */
+@Repository
+public class UserQueryRepository {
+
+  private static final QUserEntity u = QUserEntity.userEntity;
+  private static final Expression<?>[] COLUMNS = {u.id, u.fullName, u.email, u.phone, u.roleId, u.countryId, u.provinceId};
+  private static final Expression<?>[] COLUMNS_WITH_CREATED_AT = {
+      u.id, u.fullName, u.email, u.phone, u.roleId, u.countryId, u.provinceId, u.createdAt};
+
+  static final OrderSpecifier<?>[] ORDER = {u.createdAt.desc(), u.id.asc()};
+
+  private final JPAQueryFactory queryFactory;
+  private final ReferenceDataCache referenceData;
+
+  public UserQueryRepository(JPAQueryFactory queryFactory, ReferenceDataCache referenceData) {
+    this.queryFactory = queryFactory;
+    this.referenceData = referenceData;
+  }
+
+  /** One offset page plus its total count. */
+  public Page<UserListItemResponse> findPage(Predicate where, Pageable pageable) {
+    List<UserListItemResponse> content = listQuery(COLUMNS)
+        .where(where)
+        .orderBy(ORDER)
+        .offset(pageable.getOffset())
+        .limit(pageable.getPageSize())
+        .fetch()
+        .stream()
+        .map(this::item)
+        .toList();
+    Long total = queryFactory.select(u.count()).from(u).where(where).fetchOne();
+    return new PageImpl<>(content, pageable, total == null ? 0 : total);
+  }
+
+  /** One offset page without a count; one extra row is read to decide {@code hasNext}. */
+  public Slice<UserListItemResponse> findSlice(Predicate where, Pageable pageable) {
+    List<UserListItemResponse> content = listQuery(COLUMNS)
+        .where(where)
+        .orderBy(ORDER)
+        .offset(pageable.getOffset())
+        .limit(pageable.getPageSize() + 1L)
+        .fetch()
+        .stream()
+        .map(this::item)
+        .toList();
+    boolean hasNext = content.size() > pageable.getPageSize();
+    return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+  }
+
+  /** Up to {@code limit} rows in {@link #ORDER}, each with the created_at needed for a cursor. */
+  public List<Row> findSlice(Predicate where, int limit) {
+    return listQuery(COLUMNS_WITH_CREATED_AT)
+        .where(where)
+        .orderBy(ORDER)
+        .limit(limit)
+        .fetch()
+        .stream()
+        .map(t -> new Row(item(t), t.get(u.createdAt)))
+        .toList();
+  }
+
+  /** Rows for {@code ids} that also satisfy {@code where}, in no particular order. */
+  public List<UserListItemResponse> findByIds(Collection<String> ids, Predicate where) {
+    return listQuery(COLUMNS).where(u.id.in(ids), where).fetch().stream().map(this::item).toList();
+  }
+
+  /**
+   * All rows in {@link #ORDER} through a server-side cursor fetching {@code fetchSize} rows per
+   * round trip. Must be consumed inside a transaction and closed.
+   */
+  public Stream<UserListItemResponse> stream(Predicate where, int fetchSize) {
+    return listQuery(COLUMNS)
+        .where(where)
+        .orderBy(ORDER)
+        .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+        .setHint(HibernateHints.HINT_READ_ONLY, true)
+        .stream()
+        .map(this::item);
+  }
+
+  public record Row(UserListItemResponse item, Instant createdAt) {}
+
+  private UserListItemResponse item(Tuple t) {
+    return new UserListItemResponse(
+        t.get(u.id),
+        t.get(u.fullName),
+        t.get(u.email),
+        t.get(u.phone),
+        t.get(u.roleId), // TODO: map to role name when available
+        referenceData.countryName(t.get(u.countryId)),
+        referenceData.provinceName(t.get(u.provinceId)));
+  }
+
+  private JPAQuery<Tuple> listQuery(Expression<?>... select) {
+    return queryFactory.select(select).from(u);
+  }
+}
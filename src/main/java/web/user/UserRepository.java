@@ -1,15 +1,42 @@
 package web.user;
 
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import web.user.entity.UserEntity;
 
 public interface UserRepository extends JpaRepository<UserEntity, String>, JpaSpecificationExecutor<UserEntity> {
-  Optional<UserEntity> findByEmailIgnoreCaseAndDeletedAtIsNull(String email);
+  // Explicit lower() so the lookup can use users_email_uq_active (LOWER(email)); the derived
+  // IgnoreCase query renders upper() and falls back to a scan.
+  @Query("SELECT u FROM UserEntity u WHERE LOWER(u.email) = LOWER(:email) AND u.deletedAt IS NULL")
+  Optional<UserEntity> findByEmailIgnoreCaseAndDeletedAtIsNull(@Param("email") String email);
   Optional<UserEntity> findByPhoneAndDeletedAtIsNull(String phone);
   Optional<UserEntity> findByIdAndDeletedAtIsNull(String id);
   Page<UserEntity> findByDeletedAtIsNull(Pageable pageable);
+
+  // Ids of active users whose name, email or phone contains a word similar to :q (pg_trgm <%),
+  // best match first. Unless :global, only users inside the actor's country/province scopes
+  // (scope_type matched case-insensitively, as in ScopeSpecifications).
+  @Query(value = """
+      SELECT u.id FROM users u
+      WHERE u.deleted_at IS NULL
+        AND (:q <% lower(u.full_name) OR :q <% lower(u.email) OR :q <% u.phone)
+        AND (:global OR EXISTS (
+          SELECT 1 FROM user_scope us
+          WHERE us.user_id = :actorId
+            AND ((upper(us.scope_type) = 'COUNTRY' AND us.scope_id = u.country_id)
+              OR (upper(us.scope_type) = 'PROVINCE' AND us.scope_id = u.province_id))))
+      ORDER BY greatest(
+          word_similarity(:q, coalesce(lower(u.full_name), '')),
+          word_similarity(:q, coalesce(lower(u.email), '')),
+          word_similarity(:q, coalesce(u.phone, ''))) DESC, u.id
+      LIMIT :limit
+      """, nativeQuery = true)
+  List<String> searchIdsBySimilarity(@Param("q") String q, @Param("actorId") String actorId,
+                                     @Param("global") boolean global, @Param("limit") int limit);
 }
@@ -1,11 +1,13 @@
 package web.user;
 
+import com.querydsl.core.BooleanBuilder;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import web.common.dto.CountMode;
 import web.common.exception.AppException;
 import web.common.exception.ErrorCode;
 import web.common.util.Ulids;
@@ -21,15 +23,18 @@ import java.time.Instant;
 public class UserService {
 
   private final UserRepository repo;
-  private final web.location.CountryRepository countryRepo;
-  private final web.location.ProvinceRepository provinceRepo;
+  private final UserQueryRepository queries;
   private final web.rbac.AuthorizationService authz;
+  private final web.common.security.PrincipalResolver principals;
+  private final web.common.db.RowEstimates rowEstimates;
 
-  public UserService(UserRepository repo, web.location.CountryRepository countryRepo, web.location.ProvinceRepository provinceRepo, web.rbac.AuthorizationService authz) {
+  public UserService(UserRepository repo, UserQueryRepository queries, web.rbac.AuthorizationService authz, web.common.security.PrincipalResolver principals,
+                     web.common.db.RowEstimates rowEstimates) {
     this.repo = repo;
-    this.countryRepo = countryRepo;
-    this.provinceRepo = provinceRepo;
+    this.queries = queries;
     this.authz = authz;
+    this.principals = principals;
+    this.rowEstimates = rowEstimates;
   }
 
   @Transactional
@@ -47,8 +52,7 @@ public class UserService {
     String phone = hasPhone ? req.phone().trim() : null;
 
     // Authorization: actor must have USER:CREATE with appropriate scope
-    String actorEmail = web.common.security.CurrentUser.email().orElse(null);
-    String actorUserId = (actorEmail == null) ? null : authz.resolveUserIdByEmail(actorEmail).orElse(null);
+    String actorUserId = web.common.security.CurrentUser.userId().orElse(null);
     if (!authz.canCreateUser(actorUserId, req.countryId(), req.provinceId())) {
       throw new AppException(ErrorCode.ACCESS_DENIED, Map.of("action", "USER:CREATE"));
     }
@@ -77,6 +81,8 @@ public class UserService {
 
     try {
       UserEntity saved = repo.save(e);
+      // A sign-in before provisioning cached this email as unregistered; drop it after commit
+      principals.evict(email);
       return toResponse(saved);
     } catch (DataIntegrityViolationException ex) {
       // Fallback in case of race condition with unique indexes
@@ -104,21 +110,26 @@ public class UserService {
     }
     PageRequest pr = PageRequest.of(page, size, Sort.by("createdAt").descending());
 
-    String currentEmail = web.common.security.CurrentUser.email().orElse(null);
-    String currentUserId = (currentEmail == null) ? null : authz.resolveUserIdByEmail(currentEmail).orElse(null);
+    String currentUserId = web.common.security.CurrentUser.userId().orElse(null);
     org.springframework.data.jpa.domain.Specification<web.user.entity.UserEntity> scopeSpec = authz.userViewSpecForUserId(currentUserId);
 
     return repo.findAll(scopeSpec.and((root, cq, cb) -> cb.isNull(root.get("deletedAt"))), pr)
         .map(UserService::toResponse);
   }
 
+  /**
+   * Offset listing with a selectable count mode. {@code estimate} is only answered from planner
+   * statistics for unfiltered listings of an actor who sees every user; anything narrower falls
+   * back to an exact count, which the result reports.
+   */
   @Transactional(readOnly = true)
-  public Page<web.user.dto.UserListItemResponse> find(
+  public web.common.dto.PageResult<web.user.dto.UserListItemResponse> find(
       Integer page, Integer size,
       String countryId, String provinceId,
       String name, String phone, String email,
       String role,
-      Boolean deleted
+      Boolean deleted,
+      CountMode count
   ) {
     int p = (page == null ? 0 : page);
     int s = (size == null ? 20 : size);
@@ -126,87 +137,94 @@ public class UserService {
       throw new AppException(ErrorCode.ARGUMENT_INVALID, Map.of("page", p, "size", s));
     }
 
-    // Build specification
-    org.springframework.data.jpa.domain.Specification<UserEntity> spec = (root, cq, cb) -> {
-      java.util.List<jakarta.persistence.criteria.Predicate> preds = new java.util.ArrayList<>();
+    web.user.entity.QUserEntity u = web.user.entity.QUserEntity.userEntity;
+    String currentUserId = web.common.security.CurrentUser.userId().orElse(null);
+    UserListFilter filter = new UserListFilter(countryId, provinceId, name, phone, email, role, deleted);
+    BooleanBuilder where = new BooleanBuilder()
+        .and(filter.toPredicate(u))
+        .and(authz.userViewPredicate(currentUserId));
+    PageRequest pageable = PageRequest.of(p, s);
+
+    boolean unfiltered = !filter.hasCriteria() && authz.seesAllRows(currentUserId, "USER", "VIEW");
+    if (count == CountMode.NONE) {
+      return web.common.dto.PageResult.uncounted(queries.findSlice(where, pageable));
+    }
+    if (count == CountMode.ESTIMATE && unfiltered) {
+      long estimate = rowEstimates.explain(Boolean.TRUE.equals(deleted)
+          ? "SELECT 1 FROM users WHERE deleted_at IS NOT NULL"
+          : "SELECT 1 FROM users WHERE deleted_at IS NULL");
+      return web.common.dto.PageResult.estimated(queries.findSlice(where, pageable), estimate);
+    }
+    return web.common.dto.PageResult.exact(queries.findPage(where, pageable));
+  }
 
-      // deleted filter
-      if (deleted != null) {
-        if (deleted) preds.add(cb.isNotNull(root.get("deletedAt")));
-        else preds.add(cb.isNull(root.get("deletedAt")));
-      } else {
-        // default to active only if not specified
-        preds.add(cb.isNull(root.get("deletedAt")));
-      }
+  /**
+   * Keyset variant of {@link #find}: seeks past {@code after} (blank = first page) and reads one
+   * extra row to detect a next page, so no OFFSET scan and no COUNT query.
+   */
+  @Transactional(readOnly = true)
+  public web.user.dto.UserCursorPage findAfter(
+      String after, Integer size,
+      String countryId, String provinceId,
+      String name, String phone, String email,
+      String role,
+      Boolean deleted
+  ) {
+    int s = (size == null ? 20 : size);
+    if (s <= 0 || s > 200) {
+      throw new AppException(ErrorCode.ARGUMENT_INVALID, Map.of("size", s));
+    }
 
-      if (countryId != null && !countryId.isBlank()) {
-        preds.add(cb.equal(root.get("countryId"), countryId));
-      }
-      if (provinceId != null && !provinceId.isBlank()) {
-        preds.add(cb.equal(root.get("provinceId"), provinceId));
-      }
-      if (role != null && !role.isBlank()) {
-        // Interpret role as roleId for now
-        preds.add(cb.equal(root.get("roleId"), role));
-      }
-      if (name != null && !name.isBlank()) {
-        String like = "%" + name.trim().toLowerCase() + "%";
-        preds.add(cb.like(cb.lower(root.get("fullName")), like));
-      }
-      if (email != null && !email.isBlank()) {
-        String like = "%" + email.trim().toLowerCase() + "%";
-        preds.add(cb.like(cb.lower(root.get("email")), like));
-      }
-      if (phone != null && !phone.isBlank()) {
-        String like = "%" + phone.trim() + "%";
-        preds.add(cb.like(root.get("phone"), like));
-      }
+    web.user.entity.QUserEntity u = web.user.entity.QUserEntity.userEntity;
+    String currentUserId = web.common.security.CurrentUser.userId().orElse(null);
+    BooleanBuilder where = new BooleanBuilder()
+        .and(new UserListFilter(countryId, provinceId, name, phone, email, role, deleted).toPredicate(u))
+        .and(authz.userViewPredicate(currentUserId));
+    if (after != null && !after.isBlank()) {
+      where.and(UserCursor.decode(after.trim()).seek(u));
+    }
+
+    java.util.List<UserQueryRepository.Row> rows = queries.findSlice(where, s + 1);
+    boolean hasNext = rows.size() > s;
+    java.util.List<UserQueryRepository.Row> items = hasNext ? rows.subList(0, s) : rows;
+    String nextCursor = null;
+    if (hasNext) {
+      UserQueryRepository.Row last = items.get(s - 1);
+      nextCursor = UserCursor.of(last.item(), last.createdAt()).encode();
+    }
+    return new web.user.dto.UserCursorPage(
+        items.stream().map(UserQueryRepository.Row::item).toList(), nextCursor, hasNext);
+  }
+
+  /**
+   * Type-ahead search ranked by pg_trgm word similarity over name, email and phone. Candidates
+   * come from the trigram indexes (pre-filtered by the actor's coarse view access) and are then
+   * re-checked with the exact view predicate.
+   */
+  @Transactional(readOnly = true)
+  public java.util.List<web.user.dto.UserListItemResponse> search(String q, Integer limit) {
+    String term = q == null ? "" : q.trim().toLowerCase();
+    int l = (limit == null ? 10 : limit);
+    if (term.length() < 2 || term.length() > 100 || l <= 0 || l > 50) {
+      throw new AppException(ErrorCode.ARGUMENT_INVALID, Map.of("q", term, "limit", l));
+    }
 
-      return cb.and(preds.toArray(jakarta.persistence.criteria.Predicate[]::new));
-    };
-
-    PageRequest pr = PageRequest.of(p, s, Sort.by("createdAt").descending());
-
-    String currentEmail2 = web.common.security.CurrentUser.email().orElse(null);
-    String currentUserId2 = (currentEmail2 == null) ? null : authz.resolveUserIdByEmail(currentEmail2).orElse(null);
-    org.springframework.data.jpa.domain.Specification<UserEntity> scopeSpec2 = authz.userViewSpecForUserId(currentUserId2);
-
-    Page<UserEntity> pageResult = repo.findAll(spec.and(scopeSpec2), pr);
-
-    // Batch lookup names
-    java.util.List<UserEntity> items = pageResult.getContent();
-    java.util.Set<String> countryIds = items.stream()
-        .map(UserEntity::getCountryId).filter(id -> id != null && !id.isBlank())
-        .collect(java.util.stream.Collectors.toSet());
-    java.util.Set<String> provinceIds = items.stream()
-        .map(UserEntity::getProvinceId).filter(id -> id != null && !id.isBlank())
-        .collect(java.util.stream.Collectors.toSet());
-
-    // Resolve by ULID id and also by ISO code2 if provided instead of ULID
-    java.util.Set<String> countryIdsUlid = countryIds.stream().filter(id -> id.length() == 26).collect(java.util.stream.Collectors.toSet());
-    java.util.Set<String> countryCodes2 = countryIds.stream().filter(id -> id.length() == 2).collect(java.util.stream.Collectors.toSet());
-
-    java.util.Map<String, String> countryNamesById = countryRepo.findAllById(countryIdsUlid).stream()
-        .collect(java.util.stream.Collectors.toMap(web.location.entity.CountryEntity::getId, web.location.entity.CountryEntity::getName));
-    java.util.Map<String, String> countryNamesByCode2 = countryRepo.findByCodeInIgnoreCase(countryCodes2).stream()
-        .collect(java.util.stream.Collectors.toMap(c -> c.getCode(), web.location.entity.CountryEntity::getName, (a,b)->a, java.util.LinkedHashMap::new));
-    java.util.Set<String> provinceIdsUlid = provinceIds.stream().filter(id -> id.length() == 26).collect(java.util.stream.Collectors.toSet());
-    java.util.Set<String> provinceCodes = provinceIds.stream().filter(id -> id.length() != 26).collect(java.util.stream.Collectors.toSet());
-
-    java.util.Map<String, String> provinceNamesById = provinceRepo.findAllById(provinceIdsUlid).stream()
-        .collect(java.util.stream.Collectors.toMap(web.location.entity.ProvinceEntity::getId, web.location.entity.ProvinceEntity::getName));
-    java.util.Map<String, String> provinceNamesByCode = provinceRepo.findByProvinceCodeInIgnoreCase(provinceCodes).stream()
-        .collect(java.util.stream.Collectors.toMap(web.location.entity.ProvinceEntity::getProvinceCode, web.location.entity.ProvinceEntity::getName, (a,b)->a, java.util.LinkedHashMap::new));
-
-    return pageResult.map(u -> new web.user.dto.UserListItemResponse(
-        u.getId(),
-        u.getFullName(),
-        u.getEmail(),
-        u.getPhone(),
-        u.getRoleId(), // TODO: map to role name when available
-        (u.getCountryId() == null ? null : (u.getCountryId().length() == 26 ? countryNamesById.get(u.getCountryId()) : countryNamesByCode2.get(u.getCountryId()))),
-        (u.getProvinceId() == null ? null : (u.getProvinceId().length() == 26 ? provinceNamesById.get(u.getProvinceId()) : provinceNamesByCode.get(u.getProvinceId())))
-    ));
+    String currentUserId = web.common.security.CurrentUser.userId().orElse(null);
+    web.rbac.AuthorizationService.ViewAccess access = authz.viewAccess(currentUserId, "USER", "VIEW");
+    if (access == web.rbac.AuthorizationService.ViewAccess.NONE) {
+      return java.util.List.of();
+    }
+    java.util.List<String> ranked = repo.searchIdsBySimilarity(
+        term, currentUserId, access == web.rbac.AuthorizationService.ViewAccess.GLOBAL, l);
+    if (ranked.isEmpty()) {
+      return java.util.List.of();
+    }
+
+    java.util.Map<String, web.user.dto.UserListItemResponse> byId = new java.util.HashMap<>();
+    for (web.user.dto.UserListItemResponse item : queries.findByIds(ranked, authz.userViewPredicate(currentUserId))) {
+      byId.put(item.id(), item);
+    }
+    return ranked.stream().map(byId::get).filter(java.util.Objects::nonNull).toList();
   }
 
   @Transactional
@@ -215,11 +233,11 @@ public class UserService {
         new AppException(ErrorCode.RESOURCE_NOT_FOUND, Map.of("id", id)));
 
     // Authorization: actor must have USER:UPDATE with appropriate scope
-    String actorEmail = web.common.security.CurrentUser.email().orElse(null);
-    String actorUserId = (actorEmail == null) ? null : authz.resolveUserIdByEmail(actorEmail).orElse(null);
+    String actorUserId = web.common.security.CurrentUser.userId().orElse(null);
     if (!authz.canUpdateUser(actorUserId, e)) {
       throw new AppException(ErrorCode.ACCESS_DENIED, Map.of("action", "USER:UPDATE", "id", id));
     }
+    String previousEmail = e.getEmail();
 
     if (req.email() != null) {
       String newEmail = req.email().trim().toLowerCase();
@@ -264,6 +282,10 @@ public class UserService {
     if (req.provinceId() != null) e.setProvinceId(req.provinceId());
     if (req.roleId() != null) e.setRoleId(req.roleId());
 
+    // Cached principals carry email/country/province; refresh them after commit
+    principals.evict(previousEmail);
+    principals.evict(e.getEmail());
+
     try {
       UserEntity saved = repo.save(e);
       return toResponse(saved);
@@ -278,14 +300,93 @@ public class UserService {
         new AppException(ErrorCode.RESOURCE_NOT_FOUND, Map.of("id", id)));
 
     // Authorization: actor must have USER:DELETE with appropriate scope
-    String actorEmail = web.common.security.CurrentUser.email().orElse(null);
-    String actorUserId = (actorEmail == null) ? null : authz.resolveUserIdByEmail(actorEmail).orElse(null);
+    String actorUserId = web.common.security.CurrentUser.userId().orElse(null);
     if (!authz.canDeleteUser(actorUserId, e)) {
       throw new AppException(ErrorCode.ACCESS_DENIED, Map.of("action", "USER:DELETE", "id", id));
     }
 
     e.setDeletedAt(Instant.now());
     repo.save(e);
+    principals.evict(e.getEmail());
+  }
+
+  /**
+   * Applies one partial change to many users. Targets are loaded with a single IN query and
+   * authorized against one permission snapshot; permitted rows are flushed as a JDBC batch.
+   * Unknown/deleted ids and denied targets are reported per id instead of failing the request.
+   */
+  @Transactional
+  public java.util.List<web.user.dto.UserBulkResult> bulkUpdate(web.user.dto.UserBulkUpdateRequest req) {
+    if (req.isActive() == null && req.countryId() == null && req.provinceId() == null && req.roleId() == null) {
+      throw new AppException(ErrorCode.ARGUMENT_INVALID, Map.of("reason", "no_changes"));
+    }
+    java.util.Map<String, UserEntity> targets = loadActive(req.ids());
+    String actorUserId = web.common.security.CurrentUser.userId().orElse(null);
+    java.util.Map<String, Boolean> allowed = authz.canUpdateUsers(actorUserId, targets.values());
+
+    java.util.List<UserEntity> changed = new java.util.ArrayList<>();
+    java.util.List<web.user.dto.UserBulkResult> results = new java.util.ArrayList<>();
+    for (String id : new java.util.LinkedHashSet<>(req.ids())) {
+      UserEntity e = targets.get(id);
+      if (e == null) {
+        results.add(new web.user.dto.UserBulkResult(id, web.user.dto.UserBulkResult.Status.NOT_FOUND));
+      } else if (!allowed.getOrDefault(id, false)) {
+        results.add(new web.user.dto.UserBulkResult(id, web.user.dto.UserBulkResult.Status.DENIED));
+      } else {
+        if (req.isActive() != null) e.setIsActive(req.isActive());
+        if (req.countryId() != null) e.setCountryId(req.countryId());
+        if (req.provinceId() != null) e.setProvinceId(req.provinceId());
+        if (req.roleId() != null) e.setRoleId(req.roleId());
+        changed.add(e);
+        results.add(new web.user.dto.UserBulkResult(id, web.user.dto.UserBulkResult.Status.UPDATED));
+      }
+    }
+
+    try {
+      repo.saveAll(changed);
+      repo.flush();
+    } catch (DataIntegrityViolationException ex) {
+      throw new AppException(ErrorCode.CONFLICT, Map.of("reason", "constraint_violation"));
+    }
+    changed.forEach(e -> principals.evict(e.getEmail()));
+    return results;
+  }
+
+  /** Soft-deletes many users with the same per-id reporting as {@link #bulkUpdate}. */
+  @Transactional
+  public java.util.List<web.user.dto.UserBulkResult> bulkSoftDelete(web.user.dto.UserBulkDeleteRequest req) {
+    java.util.Map<String, UserEntity> targets = loadActive(req.ids());
+    String actorUserId = web.common.security.CurrentUser.userId().orElse(null);
+    java.util.Map<String, Boolean> allowed = authz.canDeleteUsers(actorUserId, targets.values());
+
+    Instant now = Instant.now();
+    java.util.List<UserEntity> deleted = new java.util.ArrayList<>();
+    java.util.List<web.user.dto.UserBulkResult> results = new java.util.ArrayList<>();
+    for (String id : new java.util.LinkedHashSet<>(req.ids())) {
+      UserEntity e = targets.get(id);
+      if (e == null) {
+        results.add(new web.user.dto.UserBulkResult(id, web.user.dto.UserBulkResult.Status.NOT_FOUND));
+      } else if (!allowed.getOrDefault(id, false)) {
+        results.add(new web.user.dto.UserBulkResult(id, web.user.dto.UserBulkResult.Status.DENIED));
+      } else {
+        e.setDeletedAt(now);
+        deleted.add(e);
+        results.add(new web.user.dto.UserBulkResult(id, web.user.dto.UserBulkResult.Status.DELETED));
+      }
+    }
+
+    repo.saveAll(deleted);
+    repo.flush();
+    deleted.forEach(e -> principals.evict(e.getEmail()));
+    return results;
+  }
+
+  private java.util.Map<String, UserEntity> loadActive(java.util.List<String> ids) {
+    java.util.Map<String, UserEntity> byId = new java.util.HashMap<>();
+    for (UserEntity e : repo.findAllById(new java.util.LinkedHashSet<>(ids))) {
+      if (e.getDeletedAt() == null) byId.put(e.getId(), e);
+    }
+    return byId;
   }
 
   private static UserResponse toResponse(UserEntity e) {
@@ -0,0 +1,11 @@
+package web.user.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record UserBulkDeleteRequest(
+    @NotEmpty
+    @Size(max = 500)
+    List<@Size(max = 26) String> ids
+) {}
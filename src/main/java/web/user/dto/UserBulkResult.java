@@ -0,0 +1,9 @@
+package web.user.dto;
+
+/** Outcome for one id of a bulk request. */
+public record UserBulkResult(
+    String id,
+    Status status
+) {
+  public enum Status { UPDATED, DELETED, DENIED, NOT_FOUND }
+}
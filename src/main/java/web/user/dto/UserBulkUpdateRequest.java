@@ -0,0 +1,23 @@
+package web.user.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/** Applies the same partial change to every listed user; null fields are left untouched. */
+public record UserBulkUpdateRequest(
+    @NotEmpty
+    @Size(max = 500)
+    List<@Size(max = 26) String> ids,
+
+    @Size(max = 26)
+    String countryId,
+
+    @Size(max = 26)
+    String provinceId,
+
+    @Size(max = 26)
+    String roleId,
+
+    Boolean isActive
+) {}
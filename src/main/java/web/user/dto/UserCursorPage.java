@@ -0,0 +1,10 @@
+package web.user.dto;
+
+import java.util.List;
+
+/** One keyset page; {@code nextCursor} is null on the last page. */
+public record UserCursorPage(
+    List<UserListItemResponse> items,
+    String nextCursor,
+    boolean hasNext
+) {}
@@ -0,0 +1,15 @@
+package web.user.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/** Outcome for one data line of a user import; {@code id} is set for created users only. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserImportResult(
+    int line,
+    String id,
+    Status status,
+    String field,
+    String reason
+) {
+  public enum Status { CREATED, INVALID, DENIED, DUPLICATE }
+}
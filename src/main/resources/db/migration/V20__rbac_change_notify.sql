@@ -0,0 +1,58 @@
+-- V20__rbac_change_notify.sql
+-- Broadcast RBAC changes on channel 'rbac_changed' so every node can drop cached authorization state.
+-- Payload: affected user id for user_roles/user_scope rows, '*' when any user can be affected.
+-- NOTIFY is delivered on commit and identical payloads within one transaction are folded.
+
+CREATE OR REPLACE FUNCTION rbac_notify_user_change() RETURNS trigger AS $$
+BEGIN
+  IF TG_OP IN ('UPDATE', 'DELETE') THEN
+    PERFORM pg_notify('rbac_changed', trim(OLD.user_id));
+  END IF;
+  IF TG_OP IN ('INSERT', 'UPDATE') THEN
+    PERFORM pg_notify('rbac_changed', trim(NEW.user_id));
+  END IF;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION rbac_notify_all_change() RETURNS trigger AS $$
+BEGIN
+  PERFORM pg_notify('rbac_changed', '*');
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- User-level assignments
+CREATE TRIGGER user_roles_rbac_notify
+  AFTER INSERT OR UPDATE OR DELETE ON user_roles
+  FOR EACH ROW EXECUTE FUNCTION rbac_notify_user_change();
+
+CREATE TRIGGER user_scope_rbac_notify
+  AFTER INSERT OR UPDATE OR DELETE ON user_scope
+  FOR EACH ROW EXECUTE FUNCTION rbac_notify_user_change();
+
+-- Role/permission definitions affect every holder of the role
+CREATE TRIGGER role_permissions_rbac_notify
+  AFTER INSERT OR UPDATE OR DELETE ON role_permissions
+  FOR EACH STATEMENT EXECUTE FUNCTION rbac_notify_all_change();
+
+CREATE TRIGGER permissions_rbac_notify
+  AFTER INSERT OR UPDATE OR DELETE ON permissions
+  FOR EACH STATEMENT EXECUTE FUNCTION rbac_notify_all_change();
+
+-- TRUNCATE bypasses row triggers
+CREATE TRIGGER user_roles_rbac_notify_truncate
+  AFTER TRUNCATE ON user_roles
+  FOR EACH STATEMENT EXECUTE FUNCTION rbac_notify_all_change();
+
+CREATE TRIGGER user_scope_rbac_notify_truncate
+  AFTER TRUNCATE ON user_scope
+  FOR EACH STATEMENT EXECUTE FUNCTION rbac_notify_all_change();
+
+CREATE TRIGGER role_permissions_rbac_notify_truncate
+  AFTER TRUNCATE ON role_permissions
+  FOR EACH STATEMENT EXECUTE FUNCTION rbac_notify_all_change();
+
+CREATE TRIGGER permissions_rbac_notify_truncate
+  AFTER TRUNCATE ON permissions
+  FOR EACH STATEMENT EXECUTE FUNCTION rbac_notify_all_change();
@@ -0,0 +1,6 @@
+-- V21__users_keyset_index.sql
+-- Keyset pagination for GET /api/v1/users?after=...: ORDER BY created_at DESC, id over active rows.
+
+CREATE INDEX IF NOT EXISTS users_active_created_at_id_idx
+  ON users (created_at DESC, id)
+  WHERE deleted_at IS NULL;
@@ -0,0 +1,9 @@
+-- V22__users_trigram_search.sql
+-- Trigram GIN indexes so substring filters (LIKE '%x%') and the type-ahead search on users can use an index.
+-- Expressions must match the queries exactly: lower(full_name), lower(email), phone.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS users_full_name_trgm_idx ON users USING GIN (lower(full_name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS users_email_trgm_idx     ON users USING GIN (lower(email) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS users_phone_trgm_idx     ON users USING GIN (phone gin_trgm_ops);
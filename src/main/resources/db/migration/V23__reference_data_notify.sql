@@ -0,0 +1,17 @@
+-- V23__reference_data_notify.sql
+-- Notify 'reference_data_changed' on any change to country/province so nodes drop their in-memory copy.
+
+CREATE OR REPLACE FUNCTION reference_data_notify_change() RETURNS trigger AS $$
+BEGIN
+  PERFORM pg_notify('reference_data_changed', TG_TABLE_NAME);
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER country_reference_data_notify
+  AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON country
+  FOR EACH STATEMENT EXECUTE FUNCTION reference_data_notify_change();
+
+CREATE TRIGGER province_reference_data_notify
+  AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON province
+  FOR EACH STATEMENT EXECUTE FUNCTION reference_data_notify_change();
@@ -0,0 +1,59 @@
+-- V24__studio_name_search.sql
+-- Store the studio name tsvector instead of recomputing it per row for matching and ts_rank_cd,
+-- and keep a vocabulary of name words for typo correction in autocomplete.
+-- Expressions must match StudioRepository's native queries.
+
+ALTER TABLE studio
+    ADD COLUMN name_tsv tsvector GENERATED ALWAYS AS (to_tsvector('simple', name)) STORED;
+
+DROP INDEX IF EXISTS ix_studio_name_search;
+CREATE INDEX ix_studio_name_search
+    ON studio USING GIN (name_tsv)
+    WHERE deleted_at IS NULL AND status = 'active';
+
+-- Autocomplete ranks the shortest prefix matches only; walking this index in order lets a short,
+-- common prefix stop after the first few hundred rows instead of sorting every match.
+CREATE INDEX ix_studio_name_length
+    ON studio (length(name), id)
+    WHERE deleted_at IS NULL AND status = 'active';
+
+COMMENT ON COLUMN studio.name_tsv IS 'Generated to_tsvector(''simple'', name) for ranked and prefix name search';
+
+-- Distinct non-numeric words of studio names. Misspelt input is matched against this small table
+-- (pg_trgm similarity) rather than against every studio name. Words are never removed: a stale
+-- word only leads to a correction that finds nothing.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE TABLE studio_name_word (
+    word TEXT PRIMARY KEY
+);
+
+CREATE INDEX ix_studio_name_word_trgm ON studio_name_word USING GIN (word gin_trgm_ops);
+
+CREATE OR REPLACE FUNCTION studio_name_word_collect() RETURNS trigger AS $$
+BEGIN
+  INSERT INTO studio_name_word (word)
+  SELECT DISTINCT w.lexeme
+  FROM new_rows n, unnest(n.name_tsv) w
+  WHERE w.lexeme !~ '^[0-9]+$'
+  ON CONFLICT DO NOTHING;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Transition tables allow a single event per trigger, hence two.
+CREATE TRIGGER studio_name_word_insert
+  AFTER INSERT ON studio REFERENCING NEW TABLE AS new_rows
+  FOR EACH STATEMENT EXECUTE FUNCTION studio_name_word_collect();
+
+CREATE TRIGGER studio_name_word_update
+  AFTER UPDATE ON studio REFERENCING NEW TABLE AS new_rows
+  FOR EACH STATEMENT EXECUTE FUNCTION studio_name_word_collect();
+
+INSERT INTO studio_name_word (word)
+SELECT DISTINCT w.lexeme
+FROM studio s, unnest(s.name_tsv) w
+WHERE w.lexeme !~ '^[0-9]+$'
+ON CONFLICT DO NOTHING;
+
+COMMENT ON TABLE studio_name_word IS 'Vocabulary of studio name words for typo-tolerant autocomplete';
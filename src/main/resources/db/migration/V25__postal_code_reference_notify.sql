@@ -0,0 +1,43 @@
+-- V25__postal_code_reference_notify.sql
+-- Notify 'postal_code_reference_changed' with the affected country codes (comma-separated) so nodes
+-- rebuild those countries in their in-memory prefix index. An empty payload means "all countries".
+
+CREATE OR REPLACE FUNCTION postal_code_reference_notify_change() RETURNS trigger AS $$
+DECLARE
+  countries text;
+BEGIN
+  IF TG_OP = 'TRUNCATE' THEN
+    countries := '';
+  ELSIF TG_OP = 'INSERT' THEN
+    SELECT string_agg(DISTINCT country_code, ',') INTO countries FROM new_rows;
+  ELSIF TG_OP = 'DELETE' THEN
+    SELECT string_agg(DISTINCT country_code, ',') INTO countries FROM old_rows;
+  ELSE
+    SELECT string_agg(DISTINCT c, ',') INTO countries
+      FROM (SELECT country_code AS c FROM old_rows UNION SELECT country_code FROM new_rows) changed;
+  END IF;
+  IF countries IS NOT NULL THEN
+    PERFORM pg_notify('postal_code_reference_changed', countries);
+  END IF;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER postal_code_reference_notify_insert
+  AFTER INSERT ON postal_code_reference
+  REFERENCING NEW TABLE AS new_rows
+  FOR EACH STATEMENT EXECUTE FUNCTION postal_code_reference_notify_change();
+
+CREATE TRIGGER postal_code_reference_notify_update
+  AFTER UPDATE ON postal_code_reference
+  REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+  FOR EACH STATEMENT EXECUTE FUNCTION postal_code_reference_notify_change();
+
+CREATE TRIGGER postal_code_reference_notify_delete
+  AFTER DELETE ON postal_code_reference
+  REFERENCING OLD TABLE AS old_rows
+  FOR EACH STATEMENT EXECUTE FUNCTION postal_code_reference_notify_change();
+
+CREATE TRIGGER postal_code_reference_notify_truncate
+  AFTER TRUNCATE ON postal_code_reference
+  FOR EACH STATEMENT EXECUTE FUNCTION postal_code_reference_notify_change();
@@ -0,0 +1,92 @@
+package web.common.db;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PrimaryReadsTest {
+
+  private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+  private LazyConnectionDataSourceProxy dataSource;
+  private DataSourceTransactionManager transactionManager;
+  private PrimaryReads primaryReads;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    DataSource primary = mock(DataSource.class);
+    DataSource replica = mock(DataSource.class);
+    when(primary.getConnection()).thenAnswer(inv -> mock(Connection.class));
+    when(replica.getConnection()).thenAnswer(inv -> mock(Connection.class));
+    ReadWriteRoutingDataSource routing =
+        new ReadWriteRoutingDataSource(primary, replica, Duration.ofSeconds(5), meters, Ticker.systemTicker());
+    routing.afterPropertiesSet();
+    dataSource = new LazyConnectionDataSourceProxy();
+    dataSource.setTargetDataSource(routing);
+    dataSource.setDefaultAutoCommit(true);
+    dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+    transactionManager = new DataSourceTransactionManager(dataSource);
+    primaryReads = new PrimaryReads(transactionManager);
+  }
+
+  @Test
+  void readOnlyCallerIsSuspendedAndWorkRunsOnPrimary() {
+    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+
+    readOnly.executeWithoutResult(status -> {
+      touch();
+      primaryReads.execute(this::touch);
+      touch();
+    });
+
+    assertThat(count("replica", "read_only")).isEqualTo(1);
+    assertThat(count("primary", "write")).isEqualTo(1);
+  }
+
+  @Test
+  void readWriteCallerIsJoined() {
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      Connection outer = touch();
+      assertThat(primaryReads.execute(this::touch)).isSameAs(outer);
+    });
+
+    assertThat(count("primary", "write")).isEqualTo(1);
+  }
+
+  @Test
+  void workWithoutCallerRunsOnPrimary() {
+    primaryReads.execute(this::touch);
+
+    assertThat(count("primary", "write")).isEqualTo(1);
+  }
+
+  /** Takes the transaction's connection and forces the proxy to fetch its target. */
+  private Connection touch() {
+    Connection connection = DataSourceUtils.getConnection(dataSource);
+    try {
+      connection.createStatement();
+    } catch (SQLException e) {
+      throw new IllegalStateException(e);
+    }
+    return connection;
+  }
+
+  private double count(String target, String reason) {
+    var counter = meters.find("db.routing").tag("target", target).tag("reason", reason).counter();
+    return counter == null ? 0 : counter.count();
+  }
+}
@@ -0,0 +1,104 @@
+package web.common.db;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import web.common.security.AuthenticatedUser;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadWriteRoutingDataSourceTest {
+
+  private final Connection primaryConnection = mock(Connection.class);
+  private final Connection replicaConnection = mock(Connection.class);
+  private final AtomicLong nanos = new AtomicLong();
+  private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+  private ReadWriteRoutingDataSource routing;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    DataSource primary = mock(DataSource.class);
+    DataSource replica = mock(DataSource.class);
+    when(primary.getConnection()).thenReturn(primaryConnection);
+    when(replica.getConnection()).thenReturn(replicaConnection);
+    Ticker ticker = nanos::get;
+    routing = new ReadWriteRoutingDataSource(primary, replica, Duration.ofSeconds(5), meters, ticker);
+    routing.afterPropertiesSet();
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    TransactionSynchronizationManager.clear();
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void routesByTransactionReadOnlyFlag() throws SQLException {
+    assertThat(routing.getConnection()).isSameAs(primaryConnection); // no transaction
+
+    inTransaction(true);
+    assertThat(routing.getConnection()).isSameAs(replicaConnection);
+
+    inTransaction(false);
+    assertThat(routing.getConnection()).isSameAs(primaryConnection);
+
+    assertThat(count("replica", "read_only")).isEqualTo(1);
+    assertThat(count("primary", "no_transaction")).isEqualTo(1);
+    assertThat(count("primary", "write")).isEqualTo(1);
+  }
+
+  @Test
+  void readsStickToPrimaryAfterOwnCommittedWrite() throws SQLException {
+    signIn("writer");
+    TransactionSynchronizationManager.initSynchronization();
+    inTransaction(false);
+    routing.getConnection();
+    // Not sticky until the write commits
+    inTransaction(true);
+    assertThat(routing.getConnection()).isSameAs(replicaConnection);
+
+    TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+    TransactionSynchronizationManager.clearSynchronization();
+
+    assertThat(routing.getConnection()).isSameAs(primaryConnection);
+    signIn("someone-else");
+    assertThat(routing.getConnection()).isSameAs(replicaConnection);
+
+    signIn("writer");
+    nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+    assertThat(routing.getConnection()).isSameAs(replicaConnection);
+    assertThat(count("primary", "sticky")).isEqualTo(1);
+  }
+
+  private static void inTransaction(boolean readOnly) {
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+  }
+
+  private static void signIn(String userId) {
+    AuthenticatedUser user = new AuthenticatedUser(userId, userId + "@example.com", null, null, List.of(), userId);
+    SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+  }
+
+  private double count(String target, String reason) {
+    return meters.get("db.routing").tag("target", target).tag("reason", reason).counter().count();
+  }
+}
@@ -0,0 +1,82 @@
+package web.common.db;
+
+import com.google.firebase.auth.FirebaseAuth;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import web.TestcontainersConfiguration;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Primary comes from {@link TestcontainersConfiguration}; a second container stands in for the
+ * replica. Each holds a different row in {@code routing_probe}, so the value read tells which
+ * database served the transaction.
+ */
+@SpringBootTest(classes = web.WebApplication.class)
+@Import(TestcontainersConfiguration.class)
+class ReadWriteRoutingIntegrationTest {
+
+  static final PostgreSQLContainer<?> replica =
+      new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"));
+
+  static {
+    replica.start();
+  }
+
+  @DynamicPropertySource
+  static void replicaProperties(DynamicPropertyRegistry registry) {
+    registry.add("app.datasource.replica.url", replica::getJdbcUrl);
+    registry.add("app.datasource.replica.username", replica::getUsername);
+    registry.add("app.datasource.replica.password", replica::getPassword);
+  }
+
+  @Autowired
+  JdbcTemplate jdbc;
+
+  @Autowired
+  PlatformTransactionManager transactionManager;
+
+  @MockBean
+  FirebaseAuth firebaseAuth;
+
+  @BeforeEach
+  void createProbes() throws Exception {
+    jdbc.execute("DROP TABLE IF EXISTS routing_probe");
+    jdbc.execute("CREATE TABLE routing_probe (source text)");
+    jdbc.execute("INSERT INTO routing_probe VALUES ('primary')");
+    try (Connection c = DriverManager.getConnection(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword());
+         Statement s = c.createStatement()) {
+      s.execute("DROP TABLE IF EXISTS routing_probe");
+      s.execute("CREATE TABLE routing_probe (source text)");
+      s.execute("INSERT INTO routing_probe VALUES ('replica')");
+    }
+  }
+
+  @Test
+  void readOnlyTransactionsReadFromReplica() {
+    assertThat(probe(true)).isEqualTo("replica");
+    assertThat(probe(false)).isEqualTo("primary");
+    assertThat(jdbc.queryForObject("SELECT source FROM routing_probe", String.class)).isEqualTo("primary");
+  }
+
+  private String probe(boolean readOnly) {
+    TransactionTemplate tx = new TransactionTemplate(transactionManager);
+    tx.setReadOnly(readOnly);
+    return tx.execute(status -> jdbc.queryForObject("SELECT source FROM routing_probe", String.class));
+  }
+}
@@ -0,0 +1,126 @@
+package web.common.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class FirebaseTokenVerifierTest {
+
+  @Mock
+  private FirebaseAuth firebaseAuth;
+
+  private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+  private final AtomicLong nanos = new AtomicLong();
+  private SimpleMeterRegistry registry;
+  private FirebaseTokenVerifier verifier;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    FirebaseTokenCacheProps props = new FirebaseTokenCacheProps(true, 100L, Duration.ofMinutes(10), Duration.ofMinutes(1));
+    verifier = new FirebaseTokenVerifier(firebaseAuth, props, registry, nanos::get, Clock.fixed(NOW, ZoneOffset.UTC),
+        MoreExecutors.newDirectExecutorService());
+  }
+
+  @Test
+  void burstOfRequestsWithSameToken_verifiesOnce() throws Exception {
+    FirebaseToken decoded = token("uid-1", "a@example.com", NOW.plusSeconds(3600));
+    when(firebaseAuth.verifyIdToken("tok", true)).thenReturn(decoded);
+
+    for (int i = 0; i < 10; i++) {
+      assertThat(verifier.verify("tok")).get().extracting(VerifiedToken::principalName).isEqualTo("a@example.com");
+    }
+
+    verify(firebaseAuth, times(1)).verifyIdToken("tok", true);
+    assertThat(registry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(9);
+    assertThat(registry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void invalidToken_isNotCached() throws Exception {
+    when(firebaseAuth.verifyIdToken(anyString(), anyBoolean())).thenThrow(mock(FirebaseAuthException.class));
+
+    assertThat(verifier.verify("bad")).isEmpty();
+    assertThat(verifier.verify("bad")).isEmpty();
+
+    verify(firebaseAuth, times(2)).verifyIdToken("bad", true);
+  }
+
+  @Test
+  void entryNeverOutlivesTokenExp() throws Exception {
+    FirebaseToken decoded = token("uid-1", "a@example.com", NOW.minusSeconds(1));
+    when(firebaseAuth.verifyIdToken("tok", true)).thenReturn(decoded);
+
+    verifier.verify("tok");
+    verifier.verify("tok");
+
+    verify(firebaseAuth, times(2)).verifyIdToken("tok", true);
+  }
+
+  @Test
+  void entryExpiresAtTokenExpMeasuredOnTheTicker() throws Exception {
+    FirebaseToken decoded = token("uid-1", "a@example.com", NOW.plusSeconds(30));
+    when(firebaseAuth.verifyIdToken("tok", true)).thenReturn(decoded);
+
+    verifier.verify("tok");
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(29));
+    verifier.verify("tok");
+    verify(firebaseAuth, times(1)).verifyIdToken("tok", true);
+
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+    verifier.verify("tok");
+    verify(firebaseAuth, times(2)).verifyIdToken("tok", true);
+  }
+
+  @Test
+  void revocationIsRecheckedInBackgroundAfterInterval_andRevokedUidIsEvicted() throws Exception {
+    FirebaseToken decoded = token("uid-1", "a@example.com", NOW.plusSeconds(3600));
+    when(firebaseAuth.verifyIdToken("tok", true))
+        .thenReturn(decoded)
+        .thenThrow(mock(FirebaseAuthException.class));
+
+    verifier.verify("tok");
+    verifier.verify("tok"); // within interval: no re-check
+    verify(firebaseAuth, times(1)).verifyIdToken("tok", true);
+
+    nanos.addAndGet(TimeUnit.MINUTES.toNanos(2));
+    assertThat(verifier.verify("tok")).isPresent(); // served from cache, check runs in background
+    verify(firebaseAuth, times(2)).verifyIdToken(eq("tok"), eq(true));
+    assertThat(registry.get("firebase.id-tokens.revoked").counter().count()).isEqualTo(1);
+
+    assertThat(verifier.verify("tok")).isEmpty(); // evicted, inline verification now fails
+  }
+
+  private static FirebaseToken token(String uid, String email, Instant exp) {
+    FirebaseToken decoded = mock(FirebaseToken.class);
+    when(decoded.getUid()).thenReturn(uid);
+    when(decoded.getEmail()).thenReturn(email);
+    when(decoded.getClaims()).thenReturn(Map.of("exp", exp.getEpochSecond()));
+    return decoded;
+  }
+}
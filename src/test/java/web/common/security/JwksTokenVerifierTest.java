@@ -0,0 +1,92 @@
+package web.common.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class JwksTokenVerifierTest {
+
+  private static final Instant NOW = Instant.parse("2025-09-12T00:00:00Z");
+
+  private static LocalTokenSigner signer;
+  private static JwksTokenVerifier verifier;
+
+  @BeforeAll
+  static void setUp() {
+    signer = LocalTokenSigner.generate("test-key").withIssuerAndAudience("https://issuer.test", "myc-api");
+    verifier = new JwksTokenVerifier(signer.jwksJson(),
+        new JwksProps(null, "https://issuer.test", "myc-api", Duration.ofSeconds(30)),
+        Clock.fixed(NOW, ZoneOffset.UTC));
+  }
+
+  @Test
+  void validToken_isAccepted() {
+    String token = signer.sign("uid-1", "a@example.com", NOW.getEpochSecond(), NOW.plusSeconds(3600).getEpochSecond());
+
+    assertThat(verifier.verify(token)).hasValueSatisfying(v -> {
+      assertThat(v.uid()).isEqualTo("uid-1");
+      assertThat(v.principalName()).isEqualTo("a@example.com");
+      assertThat(v.expiresAt()).isEqualTo(NOW.plusSeconds(3600));
+    });
+    // Second call goes through the cached header -> key path.
+    assertThat(verifier.verify(token)).isPresent();
+  }
+
+  @Test
+  void expiredToken_isRejected() {
+    String token = signer.sign("uid-1", "a@example.com", NOW.minusSeconds(7200).getEpochSecond(),
+        NOW.minusSeconds(3600).getEpochSecond());
+
+    assertThat(verifier.verify(token)).isEmpty();
+  }
+
+  @Test
+  void tamperedPayload_isRejected() {
+    String token = signer.sign("uid-1", "a@example.com", NOW.getEpochSecond(), NOW.plusSeconds(3600).getEpochSecond());
+    String other = signer.sign("uid-2", "b@example.com", NOW.getEpochSecond(), NOW.plusSeconds(3600).getEpochSecond());
+    String[] a = token.split("\\.");
+    String[] b = other.split("\\.");
+
+    assertThat(verifier.verify(a[0] + "." + b[1] + "." + a[2])).isEmpty();
+  }
+
+  @Test
+  void tokenFromUnknownKey_isRejected() {
+    LocalTokenSigner stranger = LocalTokenSigner.generate("test-key").withIssuerAndAudience("https://issuer.test", "myc-api");
+    String token = stranger.sign("uid-1", null, NOW.getEpochSecond(), NOW.plusSeconds(3600).getEpochSecond());
+
+    assertThat(verifier.verify(token)).isEmpty();
+  }
+
+  @Test
+  void wrongAudienceOrIssuer_isRejected() {
+    long iat = NOW.getEpochSecond();
+    long exp = NOW.plusSeconds(3600).getEpochSecond();
+
+    assertThat(verifier.verify(signer.withIssuerAndAudience("https://issuer.test", "other").sign("u", null, iat, exp))).isEmpty();
+    assertThat(verifier.verify(signer.withIssuerAndAudience("https://evil.test", "myc-api").sign("u", null, iat, exp))).isEmpty();
+  }
+
+  @Test
+  void malformedTokens_areRejected() {
+    assertThat(verifier.verify(null)).isEmpty();
+    assertThat(verifier.verify("not-a-jwt")).isEmpty();
+    assertThat(verifier.verify("a.b.c.d")).isEmpty();
+    assertThat(verifier.verify("!!.??.**")).isEmpty();
+  }
+
+  @Test
+  void pemRoundTrip_producesEquivalentSigner() {
+    LocalTokenSigner restored = LocalTokenSigner.fromPem("test-key", signer.privateKeyPem())
+        .withIssuerAndAudience("https://issuer.test", "myc-api");
+
+    String token = restored.sign("uid-1", null, NOW.getEpochSecond(), NOW.plusSeconds(60).getEpochSecond());
+
+    assertThat(verifier.verify(token)).isPresent();
+  }
+}
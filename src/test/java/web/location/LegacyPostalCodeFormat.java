@@ -0,0 +1,69 @@
+package web.location;
+
+import java.util.regex.Pattern;
+
+/**
+ * Regex-based postal code handling that {@link PostalCodeRules} replaced, kept verbatim as the
+ * reference for {@link PostalCodeRulesTest} and the baseline for {@link PostalCodeRulesBenchmark}.
+ */
+final class LegacyPostalCodeFormat {
+
+  private static final Pattern CANADA_POSTAL_CODE = Pattern.compile("^[A-Z]\\d[A-Z] ?\\d[A-Z]\\d$");
+  private static final Pattern US_ZIP_CODE = Pattern.compile("^\\d{5}(-\\d{4})?$");
+  private static final Pattern UK_POSTAL_CODE = Pattern.compile("^[A-Z]{1,2}\\d[A-Z\\d]? ?\\d[A-Z]{2}$");
+  private static final Pattern SINGAPORE_POSTAL_CODE = Pattern.compile("^\\d{6}$");
+  private static final Pattern MALAYSIA_POSTAL_CODE = Pattern.compile("^\\d{5}$");
+
+  private LegacyPostalCodeFormat() {}
+
+  static boolean isValid(String postalCode, String countryCode) {
+    if (postalCode == null || countryCode == null) {
+      return false;
+    }
+    
+    String normalizedCode = postalCode.toUpperCase().trim();
+    String normalizedCountry = countryCode.toUpperCase().trim();
+    
+    return switch (normalizedCountry) {
+      case "CA" -> CANADA_POSTAL_CODE.matcher(normalizedCode).matches();
+      case "US" -> US_ZIP_CODE.matcher(normalizedCode).matches();
+      case "GB", "UK" -> UK_POSTAL_CODE.matcher(normalizedCode).matches();
+      case "SG" -> SINGAPORE_POSTAL_CODE.matcher(normalizedCode).matches();
+      case "MY" -> MALAYSIA_POSTAL_CODE.matcher(normalizedCode).matches();
+      default -> normalizedCode.length() >= 3 && normalizedCode.length() <= 16; // Generic validation
+    };
+  }
+
+  static String normalize(String postalCode, String countryCode) {
+    if (postalCode == null) {
+      return null;
+    }
+    
+    String normalized = postalCode.toUpperCase().trim();
+    String country = countryCode.toUpperCase().trim();
+    
+    return switch (country) {
+      case "CA" -> {
+        // Canadian postal codes: remove spaces, ensure format A1A 1A1
+        normalized = normalized.replaceAll("\\s+", "");
+        if (normalized.length() == 6) {
+          yield normalized.substring(0, 3) + " " + normalized.substring(3);
+        }
+        yield normalized;
+      }
+      case "US" -> {
+        // US ZIP codes: remove spaces and hyphens for storage
+        yield normalized.replaceAll("[\\s-]+", "");
+      }
+      case "GB", "UK" -> {
+        // UK postal codes: normalize spacing
+        normalized = normalized.replaceAll("\\s+", "");
+        if (normalized.length() >= 5) {
+          yield normalized.substring(0, normalized.length() - 3) + " " + normalized.substring(normalized.length() - 3);
+        }
+        yield normalized;
+      }
+      default -> normalized.replaceAll("\\s+", ""); // Remove spaces for other countries
+    };
+  }
+}
@@ -0,0 +1,34 @@
+package web.location;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostalCodeBloomFilterTest {
+
+  @Test
+  void hasNoFalseNegativesAndStaysNearTargetRate() {
+    String[] codes = IntStream.range(0, 20_000).mapToObj(i -> String.format("%05d", i * 3)).toArray(String[]::new);
+    PostalCodeBloomFilter filter = PostalCodeBloomFilter.of(codes, 0.01);
+
+    for (String code : codes) {
+      assertThat(filter.mightContain(code)).as(code).isTrue();
+    }
+    long falsePositives = IntStream.range(0, 60_000).filter(i -> i % 3 != 0)
+        .mapToObj(i -> String.format("%05d", i)).filter(filter::mightContain).count();
+
+    assertThat(falsePositives / 40_000.0).isLessThan(0.02);
+    assertThat(filter.expectedFalsePositiveRate()).isBetween(0.005, 0.015);
+    assertThat(filter.sizeInBytes()).isLessThan(20_000 * 2);
+  }
+
+  @Test
+  void emptyFilterContainsNothing() {
+    PostalCodeBloomFilter filter = PostalCodeBloomFilter.of(new String[0], 0.01);
+
+    assertThat(filter.mightContain("50450")).isFalse();
+    assertThat(filter.expectedFalsePositiveRate()).isZero();
+  }
+}
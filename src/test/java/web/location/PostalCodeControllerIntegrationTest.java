@@ -23,7 +23,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @SpringBootTest
 @AutoConfigureWebMvc
-@TestPropertySource(properties = {"spring.jpa.hibernate.ddl-auto=create-drop"})
+// Rows are seeded in rolled-back test transactions the prefix index and response cache never see
+@TestPropertySource(properties = {"spring.jpa.hibernate.ddl-auto=create-drop", "postal-codes.prefix-index.enabled=false",
+    "postal-codes.response-cache.enabled=false"})
 @Transactional
 class PostalCodeControllerIntegrationTest {
 
@@ -154,6 +156,21 @@ class PostalCodeControllerIntegrationTest {
         .andExpect(jsonPath("$.meta.count").value(1));
   }
 
+  @Test
+  void testGetCitiesByCountry_NotModified() throws Exception {
+    String etag = mockMvc.perform(get("/api/v1/postal-codes/cities")
+            .param("countryCode", "CA"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Cache-Control", containsString("private")))
+        .andReturn().getResponse().getHeader("ETag");
+
+    mockMvc.perform(get("/api/v1/postal-codes/cities")
+            .param("countryCode", "CA")
+            .header("If-None-Match", etag))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+  }
+
   @Test
   void testGetProvincesByCountry() throws Exception {
     mockMvc.perform(get("/api/v1/postal-codes/provinces")
@@ -0,0 +1,175 @@
+package web.location;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import web.location.entity.PostalCodeReferenceEntity;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class PostalCodePrefixIndexTest {
+
+  private PostalCodeReferenceRepository repository;
+  private PostalCodePrefixIndex index;
+  private SimpleMeterRegistry meterRegistry;
+  private final Deque<Runnable> queued = new ArrayDeque<>();
+  private boolean deferRebuilds;
+
+  @BeforeEach
+  void setUp() {
+    repository = mock(PostalCodeReferenceRepository.class);
+    meterRegistry = new SimpleMeterRegistry();
+    when(repository.findDistinctCountryCodes()).thenReturn(List.of("MY", "CA"));
+    when(repository.findByCountryCodeOrderByPostalCode("MY"))
+        .thenReturn(List.of(code("50450", "MY"), code("50000", "MY"), code("51000", "MY"), code("50088", "MY")));
+    when(repository.findByCountryCodeOrderByPostalCode("CA"))
+        .thenReturn(List.of(code("M4B 1A1", "CA"), code("m4b 2C3", "CA")));
+    Executor rebuilds = task -> {
+      if (deferRebuilds) queued.add(task); else task.run();
+    };
+    index = new PostalCodePrefixIndex(repository, mock(PlatformTransactionManager.class), meterRegistry, rebuilds, true);
+  }
+
+  @Test
+  void notLoadedUntilReady() {
+    assertThat(index.search("MY", "50", PageRequest.of(0, 10))).isEmpty();
+
+    index.load();
+
+    assertThat(index.isLoaded()).isTrue();
+  }
+
+  @Test
+  void pagesPrefixRangeWithExactTotal() {
+    index.load();
+    clearInvocations(repository);
+
+    Page<PostalCodeReferenceEntity> first = index.search("MY", "50", PageRequest.of(0, 2)).orElseThrow();
+    Page<PostalCodeReferenceEntity> second = index.search("MY", "50", PageRequest.of(1, 2)).orElseThrow();
+
+    assertThat(first.getContent()).extracting(PostalCodeReferenceEntity::getPostalCode).containsExactly("50000", "50088");
+    assertThat(second.getContent()).extracting(PostalCodeReferenceEntity::getPostalCode).containsExactly("50450");
+    assertThat(first.getTotalElements()).isEqualTo(3);
+    assertThat(index.search("CA", "M4B", PageRequest.of(0, 10)).orElseThrow().getContent())
+        .extracting(PostalCodeReferenceEntity::getPostalCode).containsExactly("M4B 1A1", "m4b 2C3");
+    assertThat(index.search("MY", "6", PageRequest.of(0, 10)).orElseThrow()).isEmpty();
+    assertThat(index.search("SG", "01", PageRequest.of(0, 10)).orElseThrow()).isEmpty();
+    verifyNoInteractions(repository);
+  }
+
+  @Test
+  void findAllMatchesExactStoredCodes() {
+    assertThat(index.findAll("MY", List.of("50000"))).isEmpty();
+    index.load();
+
+    assertThat(index.findAll("MY", List.of("50000", "50", "99999")).orElseThrow()).containsOnlyKeys("50000");
+    assertThat(index.findAll("CA", List.of("M4B 1A1", "M4B 2C3")).orElseThrow()).containsOnlyKeys("M4B 1A1");
+    assertThat(index.findAll("SG", List.of("018956")).orElseThrow()).isEmpty();
+    assertThat(meterRegistry.get("postal-codes.membership.lookups").tag("result", "present").counter().count())
+        .isEqualTo(2);
+    assertThat(meterRegistry.get("postal-codes.membership.memory").tag("country", "MY").gauge().value())
+        .isPositive();
+    assertThat(meterRegistry.get("postal-codes.membership.false-positive-rate").tag("country", "MY").gauge().value())
+        .isBetween(0.0, 0.05);
+  }
+
+  @Test
+  void notificationRebuildsOnlyListedCountries() {
+    index.load();
+    when(repository.findByCountryCodeOrderByPostalCode("MY")).thenReturn(List.of(code("50000", "MY")));
+
+    index.onNotification("MY");
+
+    assertThat(index.search("MY", "5", PageRequest.of(0, 10)).orElseThrow().getTotalElements()).isEqualTo(1);
+    assertThat(index.search("CA", "M", PageRequest.of(0, 10)).orElseThrow().getTotalElements()).isEqualTo(2);
+    verify(repository, times(1)).findByCountryCodeOrderByPostalCode("CA");
+  }
+
+  @Test
+  void countryWithPendingRebuildFallsBackToQueries() {
+    index.load();
+    deferRebuilds = true;
+    when(repository.findByCountryCodeOrderByPostalCode("MY")).thenReturn(List.of(code("50000", "MY"), code("52000", "MY")));
+
+    index.refreshAfterCommit("my");
+
+    assertThat(index.findAll("MY", List.of("52000"))).isEmpty();
+    assertThat(index.search("MY", "5", PageRequest.of(0, 10))).isEmpty();
+    assertThat(index.findAll("CA", List.of("M4B 1A1")).orElseThrow()).containsOnlyKeys("M4B 1A1");
+
+    queued.poll().run();
+
+    assertThat(index.findAll("MY", List.of("52000")).orElseThrow()).containsOnlyKeys("52000");
+  }
+
+  @Test
+  void changeDuringRebuildKeepsCountryStale() {
+    index.load();
+    deferRebuilds = true;
+    index.onNotification("MY");
+    Runnable first = queued.poll();
+    when(repository.findByCountryCodeOrderByPostalCode("MY")).thenAnswer(inv -> {
+      index.onNotification("MY"); // committed after these rows were read
+      return List.of(code("50000", "MY"));
+    });
+
+    first.run();
+
+    assertThat(index.search("MY", "5", PageRequest.of(0, 10))).isEmpty();
+    when(repository.findByCountryCodeOrderByPostalCode("MY")).thenReturn(List.of(code("50000", "MY")));
+    queued.poll().run();
+    assertThat(index.search("MY", "5", PageRequest.of(0, 10)).orElseThrow().getTotalElements()).isEqualTo(1);
+  }
+
+  @Test
+  @ExtendWith(OutputCaptureExtension.class)
+  void gaugesAreRegisteredOncePerCountry(CapturedOutput output) {
+    index.load();
+
+    index.onNotification("MY");
+    index.onNotification("MY");
+    index.onResubscribe();
+
+    assertThat(output).doesNotContain("has been already registered");
+    assertThat(meterRegistry.find("postal-codes.membership.memory").gauges()).hasSize(2);
+  }
+
+  @Test
+  void failedRebuildFallsBackToQueries() {
+    index.load();
+    when(repository.findByCountryCodeOrderByPostalCode("MY")).thenThrow(new IllegalStateException("db down"));
+
+    index.onNotification("MY");
+
+    assertThat(index.isLoaded()).isFalse();
+    assertThat(index.search("CA", "M", PageRequest.of(0, 10))).isEmpty();
+  }
+
+  @Test
+  void disabledNeverLoads() {
+    PostalCodePrefixIndex disabled = new PostalCodePrefixIndex(repository, mock(PlatformTransactionManager.class), meterRegistry,
+        Runnable::run, false);
+
+    disabled.load();
+    disabled.onNotification("MY");
+
+    assertThat(disabled.search("MY", "50", PageRequest.of(0, 10))).isEmpty();
+    verifyNoInteractions(repository);
+  }
+
+  private static PostalCodeReferenceEntity code(String postalCode, String countryCode) {
+    return new PostalCodeReferenceEntity("id-" + postalCode, postalCode, "City", "01", countryCode, "active");
+  }
+}
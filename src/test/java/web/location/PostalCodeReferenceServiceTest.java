@@ -9,11 +9,19 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import web.common.db.RowEstimates;
+import web.common.dto.CountMode;
+import web.common.dto.PageResult;
+import web.location.dto.PostalCodeBatchValidationRequest;
+import web.location.dto.PostalCodeBatchValidationResult;
 import web.location.entity.PostalCodeReferenceEntity;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -26,6 +34,18 @@ class PostalCodeReferenceServiceTest {
   @Mock
   private PostalCodeReferenceRepository repository;
 
+  @Mock
+  private ReferenceDataCache referenceData;
+
+  @Mock
+  private RowEstimates rowEstimates;
+
+  @Mock
+  private PostalCodePrefixIndex prefixIndex;
+
+  @Mock
+  private PostalCodeResponseCache responseCache;
+
   @InjectMocks
   private PostalCodeReferenceService service;
 
@@ -65,6 +85,15 @@ class PostalCodeReferenceServiceTest {
     assertThat(result).isEmpty();
   }
 
+  @Test
+  void testFindByPostalCodeAndCountryCode_MissAnsweredByPrefixIndex() {
+    when(prefixIndex.findAll("CA", List.of("M4B 9Z9"))).thenReturn(Optional.of(Map.of()));
+
+    assertThat(service.findByPostalCodeAndCountryCode("m4b9z9", "CA")).isEmpty();
+    assertThat(service.existsByPostalCodeAndCountryCode("M4B 9Z9", "ca")).isFalse();
+    verifyNoInteractions(repository);
+  }
+
   @Test
   void testFindByPostalCodeAndCountryCode_NullInputs() {
     Optional<PostalCodeReferenceEntity> result1 = service.findByPostalCodeAndCountryCode(null, "CA");
@@ -108,6 +137,61 @@ class PostalCodeReferenceServiceTest {
     verify(repository, never()).findByCountryCodeAndPostalCodeStartingWithIgnoreCase(any(), any(), any());
   }
 
+  @Test
+  void testSearchPostalCodes_CountNoneSkipsCount() {
+    when(repository.readByCountryCodeAndPostalCodeStartingWithIgnoreCase(eq("CA"), eq("M4B%"), any()))
+        .thenReturn(new SliceImpl<>(List.of(testEntity), PageRequest.of(0, 1), true));
+
+    PageResult<PostalCodeReferenceEntity> result = service.searchPostalCodes("CA", "M4B", 0, 1, CountMode.NONE);
+
+    assertThat(result.content()).containsExactly(testEntity);
+    assertThat(result.meta()).containsEntry("count", "none").containsEntry("hasNext", true)
+        .doesNotContainKey("totalItems");
+    verify(repository, never()).findByCountryCodeAndPostalCodeStartingWithIgnoreCase(any(), any(), any());
+    verifyNoInteractions(rowEstimates);
+  }
+
+  @Test
+  void testSearchPostalCodes_CountEstimateClampedToSeenRows() {
+    when(repository.readByCountryCodeAndPostalCodeStartingWithIgnoreCase(eq("CA"), eq("M4B%"), any()))
+        .thenReturn(new SliceImpl<>(List.of(testEntity), PageRequest.of(2, 1), true));
+    when(rowEstimates.explain(anyString(), eq("CA"), eq("M4B%"))).thenReturn(1L);
+
+    PageResult<PostalCodeReferenceEntity> result = service.searchPostalCodes("CA", "M4B", 2, 1, CountMode.ESTIMATE);
+
+    // Planner said 1 row, but page 2 has a row and a next page
+    assertThat(result.meta()).containsEntry("count", "estimate").containsEntry("totalItems", 4L)
+        .containsEntry("hasNext", true);
+  }
+
+  @Test
+  void testSearchPostalCodes_ServedFromPrefixIndex() {
+    when(prefixIndex.search(eq("CA"), eq("M4B"), any()))
+        .thenReturn(Optional.of(new PageImpl<>(List.of(testEntity), PageRequest.of(0, 1), 3)));
+
+    Page<PostalCodeReferenceEntity> exact = service.searchPostalCodes("ca", "m4b", 0, 1);
+    PageResult<PostalCodeReferenceEntity> uncounted = service.searchPostalCodes("CA", "M4B", 0, 1, CountMode.NONE);
+    PageResult<PostalCodeReferenceEntity> estimated = service.searchPostalCodes("CA", "M4B", 0, 1, CountMode.ESTIMATE);
+
+    assertThat(exact.getContent()).containsExactly(testEntity);
+    assertThat(uncounted.meta()).containsEntry("count", "none").containsEntry("hasNext", true)
+        .doesNotContainKey("totalItems");
+    // The index knows the total, so an estimate is upgraded to exact
+    assertThat(estimated.meta()).containsEntry("count", "exact").containsEntry("totalItems", 3L);
+    verifyNoInteractions(repository, rowEstimates);
+  }
+
+  @Test
+  void testCreatePostalCodeReference_RefreshesPrefixIndex() {
+    when(repository.existsByPostalCodeAndCountryCode("M5V 1A1", "CA")).thenReturn(false);
+    when(repository.save(any(PostalCodeReferenceEntity.class))).thenReturn(testEntity);
+
+    service.createPostalCodeReference("M5V 1A1", "Toronto", "ON", "ca", "test-user");
+
+    verify(prefixIndex).refreshAfterCommit("CA");
+    verify(responseCache).invalidateAfterCommit("CA");
+  }
+
   @Test
   void testIsValidPostalCodeFormat_Canada() {
     assertThat(service.isValidPostalCodeFormat("M4B 1A1", "CA")).isTrue();
@@ -170,6 +254,43 @@ class PostalCodeReferenceServiceTest {
     assertThat(result.get(0)).isEqualTo(testEntity);
   }
 
+  @Test
+  void testValidatePostalCodesBatch_GroupsByCountryInInputOrder() {
+    PostalCodeReferenceEntity my = new PostalCodeReferenceEntity("my-id", "50450", "Kuala Lumpur", "MY-14", "MY", "active");
+    when(repository.findByPostalCodeInAndCountryCode(anyCollection(), eq("CA"))).thenReturn(List.of(testEntity));
+    when(repository.findByPostalCodeInAndCountryCode(anyCollection(), eq("MY"))).thenReturn(List.of(my));
+    when(repository.findByPostalCodeInAndCountryCode(anyCollection(), eq("SG"))).thenReturn(List.of());
+
+    List<PostalCodeBatchValidationResult> results = service.validatePostalCodes(List.of(
+        new PostalCodeBatchValidationRequest.Item("ca", "m4b1a1"),
+        new PostalCodeBatchValidationRequest.Item("MY", "99999"),
+        new PostalCodeBatchValidationRequest.Item("MY", " 50450 "),
+        new PostalCodeBatchValidationRequest.Item("CA", "M4B 1A1"),
+        new PostalCodeBatchValidationRequest.Item(null, "50450"),
+        new PostalCodeBatchValidationRequest.Item("SG", "bad")));
+
+    assertThat(results).extracting(PostalCodeBatchValidationResult::valid)
+        .containsExactly(true, false, true, true, false, false);
+    assertThat(results).extracting(PostalCodeBatchValidationResult::formatValid)
+        .containsExactly(true, true, true, true, false, false);
+    assertThat(results.get(2).reference().postalCode()).isEqualTo("50450");
+    verify(repository).findByPostalCodeInAndCountryCode(Set.of("M4B 1A1"), "CA");
+    verify(repository).findByPostalCodeInAndCountryCode(Set.of("99999", "50450"), "MY");
+    verify(repository, times(3)).findByPostalCodeInAndCountryCode(anyCollection(), anyString());
+  }
+
+  @Test
+  void testValidatePostalCodesBatch_ServedFromPrefixIndex() {
+    when(prefixIndex.findAll(eq("CA"), anyCollection())).thenReturn(Optional.of(Map.of("M4B 1A1", testEntity)));
+
+    List<PostalCodeBatchValidationResult> results = service.validatePostalCodes(List.of(
+        new PostalCodeBatchValidationRequest.Item("CA", "M4B 1A1"),
+        new PostalCodeBatchValidationRequest.Item("CA", "M4B 9Z9")));
+
+    assertThat(results).extracting(PostalCodeBatchValidationResult::valid).containsExactly(true, false);
+    verifyNoInteractions(repository);
+  }
+
   @Test
   void testCreatePostalCodeReference_Success() {
     when(repository.existsByPostalCodeAndCountryCode("M5V 1A1", "CA")).thenReturn(false);
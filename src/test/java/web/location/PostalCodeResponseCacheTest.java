@@ -0,0 +1,116 @@
+package web.location;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import web.location.PostalCodeResponseCache.Body;
+import web.location.PostalCodeResponseCache.Payload;
+import web.location.PostalCodeResponseCache.View;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PostalCodeResponseCacheTest {
+
+  private PostalCodeResponseCache cache;
+  private AtomicInteger builds;
+  private List<String> cities;
+  private PlatformTransactionManager transactionManager;
+
+  @BeforeEach
+  void setUp() {
+    transactionManager = mock(PlatformTransactionManager.class);
+    cache = new PostalCodeResponseCache(new ObjectMapper(), transactionManager, true);
+    builds = new AtomicInteger();
+    cities = List.of("Kuala Lumpur", "Petaling Jaya");
+  }
+
+  @Test
+  void rendersEnvelopeAndReusesBytesUntilCountryChanges() {
+    Body first = cities("MY");
+    Body second = cities(" my ");
+
+    assertThat(second).isSameAs(first);
+    assertThat(builds).hasValue(1);
+    assertThat(new String(first.render("rid-1"), StandardCharsets.UTF_8)).isEqualTo(
+        "{\"success\":true,\"requestId\":\"rid-1\",\"data\":[\"Kuala Lumpur\",\"Petaling Jaya\"],\"meta\":{\"count\":2}}");
+
+    cache.onNotification("SG,MY");
+    cities = List.of("Kuala Lumpur");
+    Body changed = cities("MY");
+
+    assertThat(builds).hasValue(2);
+    assertThat(changed.etag()).isNotEqualTo(first.etag()).startsWith("\"").endsWith("\"");
+  }
+
+  @Test
+  void etagDependsOnlyOnContent() {
+    Body my = cities("MY");
+    cache.onNotification("");
+    Body rebuilt = cities("MY");
+
+    assertThat(rebuilt).isNotSameAs(my);
+    assertThat(rebuilt.etag()).isEqualTo(my.etag());
+    assertThat(cache.version("MY")).isEqualTo(1);
+  }
+
+  @Test
+  void otherCountriesStayCached() {
+    cities("MY");
+    long sg = cache.version("SG");
+
+    cache.invalidateAfterCommit("SG");
+    cities("MY");
+
+    assertThat(builds).hasValue(1);
+    assertThat(cache.version("SG")).isGreaterThan(sg);
+  }
+
+  @Test
+  void disabledRebuildsEveryCall() {
+    cache = new PostalCodeResponseCache(new ObjectMapper(), transactionManager, false);
+
+    Body first = cities("MY");
+    Body second = cities("MY");
+
+    assertThat(builds).hasValue(2);
+    assertThat(second.etag()).isEqualTo(first.etag());
+  }
+
+  @Test
+  void payloadAfterAWriteIsBuiltOnThePrimary() {
+    // Read-only transactions go to a replica that has not replayed the write yet
+    AtomicBoolean onPrimary = new AtomicBoolean();
+    when(transactionManager.getTransaction(any())).thenAnswer(inv -> {
+      onPrimary.set(!inv.<TransactionDefinition>getArgument(0).isReadOnly());
+      return mock(TransactionStatus.class);
+    });
+    List<String> replica = cities;
+    Body before = cities("MY");
+
+    cities = List.of("Kuala Lumpur", "Petaling Jaya", "Shah Alam");
+    cache.invalidateAfterCommit("MY");
+    Body after = cache.get(View.CITIES, "MY", () -> new Payload(onPrimary.get() ? cities : replica, null));
+
+    assertThat(after.etag()).isNotEqualTo(before.etag());
+    assertThat(new String(after.render("rid"), StandardCharsets.UTF_8)).contains("Shah Alam");
+  }
+
+  private Body cities(String country) {
+    return cache.get(View.CITIES, country, () -> {
+      builds.incrementAndGet();
+      return new Payload(cities, Map.of("count", cities.size()));
+    });
+  }
+}
@@ -0,0 +1,75 @@
+package web.location;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link PostalCodeRules} against the regex implementation it replaced, for canonical and
+ * user-typed input. Run after {@code mvn test-compile}:
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) org.openjdk.jmh.Main PostalCodeRulesBenchmark -prof gc
+ * </pre>
+ *
+ * (cp.txt from {@code mvn dependency:build-classpath -Dmdep.outputFile=cp.txt}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostalCodeRulesBenchmark {
+
+  @Param({"CA", "US", "GB", "SG", "MY"})
+  public String country;
+
+  private String canonical;
+  private String typed;
+
+  @Setup
+  public void setUp() {
+    switch (country) {
+      case "CA" -> { canonical = "M4B 1A1"; typed = " m4b1a1 "; }
+      case "US" -> { canonical = "902101234"; typed = "90210-1234"; }
+      case "GB" -> { canonical = "SW1A 1AA"; typed = "sw1a1aa"; }
+      case "SG" -> { canonical = "018956"; typed = " 018 956"; }
+      default -> { canonical = "50450"; typed = "50 450 "; }
+    }
+  }
+
+  @Benchmark
+  public void legacyNormalize(Blackhole bh) {
+    bh.consume(LegacyPostalCodeFormat.normalize(canonical, country));
+    bh.consume(LegacyPostalCodeFormat.normalize(typed, country));
+  }
+
+  @Benchmark
+  public void rulesNormalize(Blackhole bh) {
+    bh.consume(PostalCodeRules.forCountry(country).normalize(canonical));
+    bh.consume(PostalCodeRules.forCountry(country).normalize(typed));
+  }
+
+  @Benchmark
+  public void legacyValidate(Blackhole bh) {
+    bh.consume(LegacyPostalCodeFormat.isValid(canonical, country));
+    bh.consume(LegacyPostalCodeFormat.isValid(typed, country));
+  }
+
+  @Benchmark
+  public void rulesValidate(Blackhole bh) {
+    bh.consume(PostalCodeRules.forCountry(country).isValid(canonical));
+    bh.consume(PostalCodeRules.forCountry(country).isValid(typed));
+  }
+}
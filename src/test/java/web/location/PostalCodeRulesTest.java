@@ -0,0 +1,75 @@
+package web.location;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostalCodeRulesTest {
+
+  private static final String[] COUNTRIES = {"CA", "US", "GB", "UK", "SG", "MY", "XX", " ca ", "gb", "u"};
+  private static final String[] TEMPLATES = {
+      "A9A 9A9", "A9A9A9", "99999", "99999-9999", "A9 9AA", "A99 9AA", "A9A 9AA", "AA9 9AA", "AA99 9AA",
+      "AA9A 9AA", "AA9A9AA", "999999", "AAA", "9999999999999999"};
+  private static final char[] NOISE = {' ', ' ', '\t', '\n', '\u000B', '\f', '\r', '-', '\u0001', '\u001F', 'é', 'z', '7'};
+
+  @Test
+  void matchesLegacyRegexImplementationOnFuzzedInput() {
+    Random random = new Random(20250912);
+    for (int i = 0; i < 200_000; i++) {
+      String country = COUNTRIES[random.nextInt(COUNTRIES.length)];
+      String code = random.nextInt(4) == 0 ? randomString(random) : mutate(random, TEMPLATES[random.nextInt(TEMPLATES.length)]);
+      PostalCodeRules rules = PostalCodeRules.forCountry(country);
+
+      assertThat(rules.normalize(code)).as("normalize(%s, %s)", show(code), country)
+          .isEqualTo(LegacyPostalCodeFormat.normalize(code, country));
+      assertThat(rules.isValid(code)).as("isValid(%s, %s)", show(code), country)
+          .isEqualTo(LegacyPostalCodeFormat.isValid(code, country));
+    }
+  }
+
+  @Test
+  void returnsCanonicalInputUnchanged() {
+    String ca = "M4B 1A1";
+    String gb = "SW1A 1AA";
+    String my = "50450";
+
+    assertThat(PostalCodeRules.CA.normalize(ca)).isSameAs(ca);
+    assertThat(PostalCodeRules.GB.normalize(gb)).isSameAs(gb);
+    assertThat(PostalCodeRules.MY.normalize(my)).isSameAs(my);
+    assertThat(PostalCodeRules.CA.normalize(" m4b1a1 ")).isEqualTo("M4B 1A1");
+    assertThat(PostalCodeRules.US.normalize("12345-6789")).isEqualTo("123456789");
+  }
+
+  /** Fills a template (A = letter, 9 = digit) and sprinkles case changes, blanks and stray characters. */
+  private static String mutate(Random random, String template) {
+    StringBuilder b = new StringBuilder();
+    for (char t : template.toCharArray()) {
+      if (random.nextInt(12) == 0) b.append(NOISE[random.nextInt(NOISE.length)]);
+      char c = switch (t) {
+        case 'A' -> (char) ('A' + random.nextInt(26));
+        case '9' -> (char) ('0' + random.nextInt(10));
+        default -> t;
+      };
+      b.append(random.nextBoolean() ? Character.toLowerCase(c) : c);
+    }
+    if (random.nextInt(6) == 0) b.insert(0, NOISE[random.nextInt(NOISE.length)]);
+    if (random.nextInt(6) == 0) b.append(NOISE[random.nextInt(NOISE.length)]);
+    return b.toString();
+  }
+
+  private static String randomString(Random random) {
+    StringBuilder b = new StringBuilder();
+    int n = random.nextInt(20);
+    for (int i = 0; i < n; i++) {
+      b.append(random.nextInt(3) == 0 ? NOISE[random.nextInt(NOISE.length)] : (char) (0x20 + random.nextInt(0x5F)));
+    }
+    return b.toString();
+  }
+
+  private static String show(String s) {
+    return s.chars().mapToObj(c -> c < 0x20 ? String.format("\\u%04x", c) : String.valueOf((char) c))
+        .reduce("\"", String::concat) + "\"";
+  }
+}
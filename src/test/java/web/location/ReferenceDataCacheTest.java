@@ -0,0 +1,97 @@
+package web.location;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import web.location.entity.CountryEntity;
+import web.location.entity.ProvinceEntity;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ReferenceDataCacheTest {
+
+  private CountryRepository countries;
+  private ProvinceRepository provinces;
+  private ReferenceDataCache cache;
+
+  @BeforeEach
+  void setUp() {
+    countries = mock(CountryRepository.class);
+    provinces = mock(ProvinceRepository.class);
+    when(countries.findAll()).thenReturn(List.of(country("01HZY0AK000000000000000001", "MY", "malaysia")));
+    when(provinces.findAll()).thenReturn(List.of(province("01HZY0AP000000000000000001", "MY", "MY-01", "Johor")));
+    cache = new ReferenceDataCache(countries, provinces, mock(PlatformTransactionManager.class), Duration.ofHours(1),
+        Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC));
+  }
+
+  @Test
+  void resolvesByIdAndCaseInsensitiveCode() {
+    assertThat(cache.countryName("01HZY0AK000000000000000001")).isEqualTo("malaysia");
+    assertThat(cache.countryName(" my ")).isEqualTo("malaysia");
+    assertThat(cache.provinceName("my-01")).isEqualTo("Johor");
+    assertThat(cache.provinceName("01HZY0AP000000000000000001")).isEqualTo("Johor");
+    assertThat(cache.countryName("XX")).isNull();
+    assertThat(cache.provinceName(null)).isNull();
+    verify(countries, times(1)).findAll();
+  }
+
+  @Test
+  void notificationReloadsOnNextLookup() {
+    assertThat(cache.countryName("MY")).isEqualTo("malaysia");
+    when(countries.findAll()).thenReturn(List.of(country("01HZY0AK000000000000000001", "MY", "Malaysia")));
+
+    cache.onNotification("country");
+
+    assertThat(cache.countryName("MY")).isEqualTo("Malaysia");
+    verify(countries, times(2)).findAll();
+  }
+
+  @Test
+  void invalidationDuringLoadIsNotLost() throws Exception {
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch invalidated = new CountDownLatch(1);
+    when(countries.findAll())
+        .thenAnswer(inv -> {
+          loading.countDown();
+          invalidated.await(5, TimeUnit.SECONDS);
+          return List.of(country("01HZY0AK000000000000000001", "MY", "malaysia"));
+        })
+        .thenReturn(List.of(country("01HZY0AK000000000000000001", "MY", "Malaysia")));
+
+    CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.countryName("MY"));
+    assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+    cache.onNotification("country");
+    invalidated.countDown();
+
+    assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("Malaysia");
+    assertThat(cache.countryName("MY")).isEqualTo("Malaysia");
+    verify(countries, times(2)).findAll();
+  }
+
+  private static CountryEntity country(String id, String code, String name) {
+    CountryEntity c = new CountryEntity();
+    c.setId(id);
+    c.setCode(code);
+    c.setName(name);
+    return c;
+  }
+
+  private static ProvinceEntity province(String id, String countryCode, String provinceCode, String name) {
+    ProvinceEntity p = new ProvinceEntity();
+    p.setId(id);
+    p.setCountryCode(countryCode);
+    p.setProvinceCode(provinceCode);
+    p.setName(name);
+    return p;
+  }
+}
@@ -0,0 +1,113 @@
+package web.me;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import web.TestcontainersConfiguration;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(classes = web.WebApplication.class)
+@AutoConfigureMockMvc
+@Import(TestcontainersConfiguration.class)
+@Sql(scripts = {"classpath:sql/truncate_all.sql", "classpath:sql/test_seed.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class MePermissionsIntegrationTest {
+
+  private static final String CREATOR_ID = "01ABCDEFGHJKMNPQRSTVWXYZ12";
+  private static final String COUNTRY_MANAGER = "01HZRB00000000000000000003";
+  private static final String PERMISSION_ID = "01HZMEPERM0000000000000001";
+  private static final String MY = "01HZY0AM000000000000000000";
+
+  @Autowired MockMvc mvc;
+  @Autowired JdbcTemplate jdbc;
+  @MockBean FirebaseAuth firebaseAuth;
+
+  private void mockAuth(String token, String email) throws Exception {
+    FirebaseToken decoded = Mockito.mock(FirebaseToken.class);
+    Mockito.when(decoded.getEmail()).thenReturn(email);
+    Mockito.when(firebaseAuth.verifyIdToken(eq(token), eq(true))).thenReturn(decoded);
+  }
+
+  @AfterEach
+  void removeTestPermission() {
+    // permissions and role_permissions are reference data the truncate script keeps
+    jdbc.update("DELETE FROM role_permissions WHERE id LIKE '01HZMEPERM%'");
+    jdbc.update("DELETE FROM permissions WHERE id = ?", PERMISSION_ID);
+  }
+
+  @Test
+  void lists_roles_and_global_permissions_once() throws Exception {
+    mockAuth("me-token", "creator@example.com");
+
+    mvc.perform(get("/api/v1/me/permissions").header("Authorization", "Bearer me-token"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data.userId").value(CREATOR_ID))
+        .andExpect(jsonPath("$.data.roles", contains("HQ")))
+        .andExpect(jsonPath("$.data.permissions", hasSize(4)))
+        .andExpect(jsonPath("$.data.permissions[*].action", containsInAnyOrder("CREATE", "DELETE", "UPDATE", "VIEW")))
+        .andExpect(jsonPath("$.data.permissions[0].scope").value("GLOBAL"))
+        .andExpect(jsonPath("$.data.permissions[0].scopeIds").doesNotExist());
+  }
+
+  @Test
+  void scoped_permission_carries_the_users_scope_ids() throws Exception {
+    mockAuth("me-token", "creator@example.com");
+    jdbc.update("INSERT INTO permissions (id, resource, action, scope, effect) VALUES (?, 'STUDIO', 'VIEW', 'COUNTRY', 'ALLOW')",
+        PERMISSION_ID);
+    jdbc.update("INSERT INTO role_permissions (id, role_id, permission_id) VALUES ('01HZMEPERM0000000000000002', ?, ?)",
+        COUNTRY_MANAGER, PERMISSION_ID);
+    jdbc.update("INSERT INTO user_roles (id, user_id, role_id) VALUES ('01HZMEPERM0000000000000003', ?, ?)",
+        CREATOR_ID, COUNTRY_MANAGER);
+    // Scope types are not constrained to upper case
+    jdbc.update("INSERT INTO user_scope (id, user_id, scope_type, scope_id) VALUES ('01HZMEPERM0000000000000004', ?, 'country', ?)",
+        CREATOR_ID, MY);
+
+    mvc.perform(get("/api/v1/me/permissions").header("Authorization", "Bearer me-token"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data.roles", contains("COUNTRY_MANAGER", "HQ")))
+        .andExpect(jsonPath("$.data.permissions", hasSize(5)))
+        .andExpect(jsonPath("$.data.permissions[?(@.resource == 'STUDIO')].scopeIds[*]", contains(MY)));
+  }
+
+  @Test
+  void role_without_permissions_is_listed() throws Exception {
+    mockAuth("me-token", "creator@example.com");
+    jdbc.update("INSERT INTO user_roles (id, user_id, role_id) VALUES ('01HZMEPERM0000000000000005', ?, ?)",
+        CREATOR_ID, COUNTRY_MANAGER);
+
+    mvc.perform(get("/api/v1/me/permissions").header("Authorization", "Bearer me-token"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data.roles", contains("COUNTRY_MANAGER", "HQ")))
+        .andExpect(jsonPath("$.data.permissions", hasSize(4)));
+  }
+
+  @Test
+  void permission_granted_through_two_roles_is_listed_once() throws Exception {
+    mockAuth("me-token", "creator@example.com");
+    // USER:VIEW GLOBAL, already granted through HQ
+    jdbc.update("INSERT INTO role_permissions (id, role_id, permission_id) VALUES ('01HZMEPERM0000000000000006', ?, '01HZRB10000000000000000001')",
+        COUNTRY_MANAGER);
+    jdbc.update("INSERT INTO user_roles (id, user_id, role_id) VALUES ('01HZMEPERM0000000000000007', ?, ?)",
+        CREATOR_ID, COUNTRY_MANAGER);
+
+    mvc.perform(get("/api/v1/me/permissions").header("Authorization", "Bearer me-token"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data.roles", contains("COUNTRY_MANAGER", "HQ")))
+        .andExpect(jsonPath("$.data.permissions", hasSize(4)))
+        .andExpect(jsonPath("$.data.permissions[?(@.action == 'VIEW')]", hasSize(1)));
+  }
+}
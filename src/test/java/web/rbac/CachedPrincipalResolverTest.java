@@ -0,0 +1,142 @@
+package web.rbac;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import web.common.security.AuthenticatedUser;
+import web.common.security.VerifiedToken;
+import web.rbac.entity.UserRoleEntity;
+import web.user.entity.UserEntity;
+import web.user.UserRepository;
+
+class CachedPrincipalResolverTest {
+
+  private static final VerifiedToken TOKEN = new VerifiedToken("uid-1", "U1@example.com", Instant.now().plusSeconds(3600));
+
+  private UserRepository users;
+  private UserRoleRepository userRoles;
+  private CachedPrincipalResolver resolver;
+
+  @BeforeEach
+  void setUp() {
+    users = mock(UserRepository.class);
+    userRoles = mock(UserRoleRepository.class);
+    resolver = new CachedPrincipalResolver(users, userRoles, mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), Duration.ofSeconds(30), 100);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void resolvesUserAndRolesOnceUntilEvicted() {
+    when(users.findByEmailIgnoreCaseAndDeletedAtIsNull("U1@example.com")).thenReturn(Optional.of(user()));
+    when(userRoles.findByUserId("U1")).thenReturn(List.of(role("R1")));
+
+    AuthenticatedUser first = resolver.resolve(TOKEN);
+    AuthenticatedUser second = resolver.resolve(TOKEN);
+
+    assertThat(second).isSameAs(first);
+    assertThat(first.userId()).isEqualTo("U1");
+    assertThat(first.countryId()).isEqualTo("MY");
+    assertThat(first.roleIds()).containsExactly("R1");
+    verify(users, times(1)).findByEmailIgnoreCaseAndDeletedAtIsNull("U1@example.com");
+
+    resolver.evict("u1@EXAMPLE.com");
+    resolver.resolve(TOKEN);
+
+    verify(users, times(2)).findByEmailIgnoreCaseAndDeletedAtIsNull("U1@example.com");
+  }
+
+  @Test
+  void unknownEmailIsUnregisteredUntilEvictedAfterCommit() {
+    when(users.findByEmailIgnoreCaseAndDeletedAtIsNull("U1@example.com"))
+        .thenReturn(Optional.empty())
+        .thenReturn(Optional.of(user()));
+
+    AuthenticatedUser unregistered = resolver.resolve(TOKEN);
+    assertThat(unregistered.userId()).isNull();
+    assertThat(unregistered.getName()).isEqualTo("U1@example.com");
+
+    TransactionSynchronizationManager.initSynchronization();
+    resolver.evict("u1@example.com");
+    assertThat(resolver.resolve(TOKEN).userId()).as("still cached before commit").isNull();
+
+    TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    TransactionSynchronizationManager.clearSynchronization();
+
+    assertThat(resolver.resolve(TOKEN).userId()).isEqualTo("U1");
+  }
+
+  @Test
+  void bulkEvictDropsEveryEmailOnceAfterCommit() {
+    VerifiedToken other = new VerifiedToken("uid-2", "u2@example.com", Instant.now().plusSeconds(3600));
+    when(users.findByEmailIgnoreCaseAndDeletedAtIsNull(anyString())).thenReturn(Optional.empty());
+    resolver.resolve(TOKEN);
+    resolver.resolve(other);
+
+    TransactionSynchronizationManager.initSynchronization();
+    resolver.evict(List.of("U1@example.com", "u2@example.com", " "));
+    assertThat(TransactionSynchronizationManager.getSynchronizations()).hasSize(1);
+    resolver.resolve(TOKEN);
+    verify(users, times(1)).findByEmailIgnoreCaseAndDeletedAtIsNull("U1@example.com");
+
+    TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    TransactionSynchronizationManager.clearSynchronization();
+    resolver.resolve(TOKEN);
+    resolver.resolve(other);
+
+    verify(users, times(2)).findByEmailIgnoreCaseAndDeletedAtIsNull("U1@example.com");
+    verify(users, times(2)).findByEmailIgnoreCaseAndDeletedAtIsNull("u2@example.com");
+  }
+
+  @Test
+  void tokenWithoutEmailIsUnregisteredWithoutQuery() {
+    AuthenticatedUser principal = resolver.resolve(new VerifiedToken("uid-2", null, null));
+
+    assertThat(principal.userId()).isNull();
+    assertThat(principal.getName()).isEqualTo("uid-2");
+    verifyNoInteractions(users, userRoles);
+  }
+
+  @Test
+  void rbacChangeDropsOnlyThatUser() {
+    when(users.findByEmailIgnoreCaseAndDeletedAtIsNull("U1@example.com")).thenReturn(Optional.of(user()));
+    AuthenticatedUser first = resolver.resolve(TOKEN);
+
+    resolver.onRbacChanged(new RbacChangedEvent("U2"));
+    assertThat(resolver.resolve(TOKEN)).isSameAs(first);
+
+    resolver.onRbacChanged(new RbacChangedEvent("U1"));
+    assertThat(resolver.resolve(TOKEN)).isNotSameAs(first);
+  }
+
+  private static UserEntity user() {
+    UserEntity u = new UserEntity();
+    u.setId("U1");
+    u.setEmail("u1@example.com");
+    u.setCountryId("MY");
+    return u;
+  }
+
+  private static UserRoleEntity role(String roleId) {
+    UserRoleEntity r = new UserRoleEntity();
+    r.setUserId("U1");
+    r.setRoleId(roleId);
+    return r;
+  }
+}
@@ -0,0 +1,63 @@
+package web.rbac;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+class PermissionSnapshotCacheTest {
+
+  private final PermissionSnapshotCache cache = new PermissionSnapshotCache(new SimpleMeterRegistry(), Duration.ofMinutes(10), 100);
+  private final AtomicInteger loads = new AtomicInteger();
+  private final Function<String, PermissionSnapshot> loader = id -> {
+    loads.incrementAndGet();
+    return PermissionSnapshot.compile(id, List.of(), List.of());
+  };
+
+  @AfterEach
+  void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Test
+  void snapshotIsPinnedForTheRequest() {
+    // Zero TTL: the shared cache never holds an entry, so only the request context can serve repeats
+    PermissionSnapshotCache uncached = new PermissionSnapshotCache(new SimpleMeterRegistry(), Duration.ZERO, 100);
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    PermissionSnapshot first = uncached.get("U1", loader);
+
+    assertThat(uncached.get("U1", loader)).isSameAs(first);
+    assertThat(loads).hasValue(1);
+
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    assertThat(uncached.get("U1", loader)).isNotSameAs(first);
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  void outsideRequestGoesToSharedCache() {
+    PermissionSnapshot first = cache.get("U1", loader);
+
+    assertThat(cache.get("U1", loader)).isSameAs(first);
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  void evictOnRequestThreadDropsPinnedSnapshot() {
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    PermissionSnapshot first = cache.get("U1", loader);
+
+    cache.onRbacChanged(new RbacChangedEvent("U1"));
+
+    assertThat(cache.get("U1", loader)).isNotSameAs(first);
+    assertThat(loads).hasValue(2);
+  }
+}
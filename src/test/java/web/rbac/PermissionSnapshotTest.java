@@ -0,0 +1,140 @@
+package web.rbac;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import web.rbac.entity.PermissionEntity;
+import web.rbac.entity.UserScopeEntity;
+import web.user.entity.UserEntity;
+
+class PermissionSnapshotTest {
+
+  private static final String ACTOR = "01ACTOR0000000000000000001";
+
+  @Test
+  void globalAllow_permitsAnyTarget() {
+    PermissionSnapshot snap = PermissionSnapshot.compile(ACTOR, List.of(perm("USER", "UPDATE", "GLOBAL", "ALLOW")), List.of());
+
+    assertThat(snap.permits("USER", "UPDATE", "other", "MY", null, true)).isTrue();
+    assertThat(snap.allows("user", "update", PermissionScope.GLOBAL)).isTrue();
+    assertThat(snap.permits("USER", "DELETE", "other", "MY", null, false)).isFalse();
+  }
+
+  @Test
+  void denyTakesPrecedenceOverGlobalAllow() {
+    PermissionSnapshot snap = PermissionSnapshot.compile(ACTOR, List.of(
+        perm("USER", "VIEW", "GLOBAL", "ALLOW"),
+        perm("USER", "VIEW", "COUNTRY", "DENY")), List.of());
+
+    assertThat(snap.isDenied("USER", "VIEW")).isTrue();
+    assertThat(snap.allows("USER", "VIEW", PermissionScope.GLOBAL)).isFalse();
+    assertThat(snap.permits("USER", "VIEW", null, null, null, false)).isFalse();
+  }
+
+  @Test
+  void countryAndProvinceScopes_matchAssignedIds() {
+    PermissionSnapshot snap = PermissionSnapshot.compile(ACTOR,
+        List.of(perm("USER", "CREATE", "COUNTRY", "ALLOW"), perm("USER", "CREATE", "PROVINCE", "ALLOW")),
+        List.of(scope("COUNTRY", "C1"), scope("province", "P9")));
+
+    assertThat(snap.permits("USER", "CREATE", null, "C1", null, false)).isTrue();
+    assertThat(snap.permits("USER", "CREATE", null, "C2", "P9", false)).isTrue();
+    assertThat(snap.permits("USER", "CREATE", null, "C2", "P1", false)).isFalse();
+    assertThat(snap.scopeIds(PermissionScope.PROVINCE)).containsExactly("P9");
+  }
+
+  @Test
+  void scopeIdsWithoutMatchingGrant_doNotPermit() {
+    PermissionSnapshot snap = PermissionSnapshot.compile(ACTOR,
+        List.of(perm("USER", "UPDATE", "PROVINCE", "ALLOW")),
+        List.of(scope("COUNTRY", "C1")));
+
+    assertThat(snap.permits("USER", "UPDATE", "t", "C1", null, true)).isFalse();
+  }
+
+  @Test
+  void selfScope_onlyWhenAllowedForAction() {
+    PermissionSnapshot snap = PermissionSnapshot.compile(ACTOR, List.of(
+        perm("USER", "UPDATE", "SELF", "ALLOW"),
+        perm("USER", "DELETE", "SELF", "ALLOW")), List.of());
+
+    assertThat(snap.permits("USER", "UPDATE", ACTOR, null, null, true)).isTrue();
+    assertThat(snap.permits("USER", "UPDATE", "someone-else", null, null, true)).isFalse();
+    assertThat(snap.permits("USER", "DELETE", ACTOR, null, null, false)).isFalse();
+  }
+
+  @Test
+  void unknownScopeStillCountsAsPresentButGrantsNothing() {
+    PermissionSnapshot snap = PermissionSnapshot.compile(ACTOR, List.of(perm("STUDIO", "VIEW", "WHATEVER", "ALLOW")), List.of());
+
+    assertThat(snap.hasAny("STUDIO", "VIEW")).isTrue();
+    assertThat(snap.permits("STUDIO", "VIEW", null, "C1", "P1", true)).isFalse();
+  }
+
+  @Test
+  void emptySnapshot_deniesEverything() {
+    PermissionSnapshot snap = PermissionSnapshot.empty();
+
+    assertThat(snap.hasAny("USER", "VIEW")).isFalse();
+    assertThat(snap.permits("USER", "VIEW", null, null, null, true)).isFalse();
+    assertThat(snap.scopeIds(PermissionScope.COUNTRY)).isEmpty();
+  }
+
+  @Test
+  void qualifiedGrants_applyOnlyToMatchingTargets() {
+    PermissionEntity allowActive = perm("USER", "UPDATE", "GLOBAL", "ALLOW");
+    allowActive.setQualifiers("{\"attr\":\"isActive\",\"value\":true}");
+    PermissionEntity denyRole = perm("USER", "UPDATE", "GLOBAL", "DENY");
+    denyRole.setQualifiers("{\"attr\":\"roleId\",\"op\":\"in\",\"values\":[\"R-ADMIN\"]}");
+    PermissionSnapshot snap = PermissionSnapshot.compile(ACTOR, List.of(allowActive, denyRole), List.of());
+
+    assertThat(snap.permits("USER", "UPDATE", user(true, "R-STAFF"), "t", null, null, true)).isTrue();
+    assertThat(snap.permits("USER", "UPDATE", user(false, "R-STAFF"), "t", null, null, true)).isFalse();
+    assertThat(snap.permits("USER", "UPDATE", user(true, "R-ADMIN"), "t", null, null, true)).isFalse();
+    // Without a target a qualified DENY applies and a qualified ALLOW does not
+    assertThat(snap.permits("USER", "UPDATE", "t", null, null, true)).isFalse();
+    assertThat(snap.isDenied("USER", "UPDATE")).isFalse();
+    assertThat(snap.allows("USER", "UPDATE", PermissionScope.GLOBAL)).isFalse();
+    assertThat(snap.<UserEntity>qualifiedAllowFilter("USER", "UPDATE", PermissionScope.GLOBAL)).isNotNull();
+    assertThat(snap.<UserEntity>qualifiedDenyFilter("USER", "UPDATE")).isNotNull();
+  }
+
+  @Test
+  void invalidQualifiers_failClosed() {
+    PermissionEntity allow = perm("USER", "VIEW", "GLOBAL", "ALLOW");
+    allow.setQualifiers("{\"attr\":\"unknown\",\"value\":\"x\"}");
+    PermissionEntity deny = perm("USER", "DELETE", "GLOBAL", "DENY");
+    deny.setQualifiers("not json");
+    PermissionSnapshot snap = PermissionSnapshot.compile(ACTOR,
+        List.of(allow, deny, perm("USER", "DELETE", "GLOBAL", "ALLOW")), List.of());
+
+    assertThat(snap.hasAny("USER", "VIEW")).isFalse();
+    assertThat(snap.isDenied("USER", "DELETE")).isTrue();
+  }
+
+  private static UserEntity user(boolean active, String roleId) {
+    UserEntity u = new UserEntity();
+    u.setId("01TARGET000000000000000001");
+    u.setIsActive(active);
+    u.setRoleId(roleId);
+    return u;
+  }
+
+  private static PermissionEntity perm(String resource, String action, String scope, String effect) {
+    PermissionEntity p = new PermissionEntity();
+    p.setResource(resource);
+    p.setAction(action);
+    p.setScope(scope);
+    p.setEffect(effect);
+    return p;
+  }
+
+  private static UserScopeEntity scope(String type, String id) {
+    UserScopeEntity s = new UserScopeEntity();
+    s.setUserId(ACTOR);
+    s.setScopeType(type);
+    s.setScopeId(id);
+    return s;
+  }
+}
@@ -0,0 +1,94 @@
+package web.rbac;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.firebase.auth.FirebaseAuth;
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.web.context.request.RequestContextHolder;
+import web.TestcontainersConfiguration;
+
+/**
+ * Changes written straight to the RBAC tables (no application event) reach the snapshot cache
+ * through the V20 triggers and {@link RbacNotificationHandler}.
+ */
+@SpringBootTest(classes = web.WebApplication.class)
+@Import(TestcontainersConfiguration.class)
+@Sql(scripts = {"classpath:sql/truncate_all.sql", "classpath:sql/test_seed.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class RbacChangeNotificationIntegrationTest {
+
+  private static final String USER = "01HZN0T1FY0000000000000001";
+  private static final String HQ_ROLE = "01HZRB00000000000000000002";
+  private static final String COUNTRY_MANAGER_ROLE = "01HZRB00000000000000000003";
+  private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+  @Autowired JdbcTemplate jdbc;
+  @Autowired AuthorizationService authz;
+  @Autowired ApplicationEventPublisher events;
+  @MockBean FirebaseAuth firebaseAuth;
+
+  @BeforeEach
+  void seed() {
+    jdbc.update("INSERT INTO users (id, email, full_name, is_active) VALUES (?, 'notify@example.com', 'Notify', TRUE)", USER);
+    // Snapshots left by a previous test may outlive the truncate until its notification arrives
+    events.publishEvent(RbacChangedEvent.allUsers());
+    // The mock request bound to the test thread would pin the first snapshot for the whole test
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Test
+  void roleGrantedInDatabaseEvictsCachedSnapshot() {
+    assertThat(authz.snapshotFor(USER).allows("USER", "VIEW", PermissionScope.GLOBAL)).isFalse();
+
+    jdbc.update("INSERT INTO user_roles (id, user_id, role_id) VALUES ('01HZN0T1FY00000000000000R1', ?, ?)", USER, HQ_ROLE);
+
+    awaitTrue(() -> authz.snapshotFor(USER).allows("USER", "VIEW", PermissionScope.GLOBAL));
+  }
+
+  @Test
+  void roleRevokedInDatabaseEvictsCachedSnapshot() {
+    jdbc.update("INSERT INTO user_roles (id, user_id, role_id) VALUES ('01HZN0T1FY00000000000000R1', ?, ?)", USER, HQ_ROLE);
+    awaitTrue(() -> authz.snapshotFor(USER).allows("USER", "VIEW", PermissionScope.GLOBAL));
+
+    jdbc.update("DELETE FROM user_roles WHERE user_id = ?", USER);
+
+    awaitTrue(() -> !authz.snapshotFor(USER).allows("USER", "VIEW", PermissionScope.GLOBAL));
+  }
+
+  @Test
+  void rolePermissionChangeEvictsEveryHolder() {
+    jdbc.update("INSERT INTO user_roles (id, user_id, role_id) VALUES ('01HZN0T1FY00000000000000R1', ?, ?)", USER, COUNTRY_MANAGER_ROLE);
+    assertThat(authz.snapshotFor(USER).allows("USER", "VIEW", PermissionScope.GLOBAL)).isFalse();
+
+    try {
+      jdbc.update("INSERT INTO role_permissions (id, role_id, permission_id) VALUES ('01HZN0T1FY00000000000000P1', ?, '01HZRB10000000000000000001')",
+          COUNTRY_MANAGER_ROLE);
+
+      awaitTrue(() -> authz.snapshotFor(USER).allows("USER", "VIEW", PermissionScope.GLOBAL));
+    } finally {
+      jdbc.update("DELETE FROM role_permissions WHERE id = '01HZN0T1FY00000000000000P1'");
+    }
+  }
+
+  private static void awaitTrue(BooleanSupplier condition) {
+    long deadline = System.nanoTime() + TIMEOUT.toNanos();
+    while (!condition.getAsBoolean()) {
+      assertThat(System.nanoTime()).as("condition not met within %s", TIMEOUT).isLessThan(deadline);
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new AssertionError(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package web.rbac;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import web.TestcontainersConfiguration;
+import web.user.UserRepository;
+import web.user.entity.QUserEntity;
+import web.user.entity.UserEntity;
+
+@SpringBootTest(classes = web.WebApplication.class)
+@Import(TestcontainersConfiguration.class)
+@Sql(scripts = {"classpath:sql/truncate_all.sql", "classpath:sql/test_seed.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class ScopeSpecificationsIntegrationTest {
+
+  private static final String ACTOR = "01HZSC0PE0ACT0R00000000001";
+  private static final String MY = "01HZY0AM000000000000000000";
+  private static final String SG = "01HZY0AK000000000000000000";
+  private static final String MY_01 = "01HZY0MY000000000000000001";
+
+  @Autowired JdbcTemplate jdbc;
+  @Autowired UserRepository users;
+  @Autowired JPAQueryFactory queryFactory;
+  @MockBean FirebaseAuth firebaseAuth;
+
+  @BeforeEach
+  void seed() {
+    user(ACTOR, "actor@example.com", null, null);
+    user("01HZSC0PE0MY0000000000000A", "my.a@example.com", MY, null);
+    user("01HZSC0PE0SG0000000000000A", "sg.a@example.com", SG, null);
+    user("01HZSC0PE0SG0000000000000B", "sg.b@example.com", SG, MY_01); // matched through the province only
+    user("01HZSC0PE0N0NE00000000000A", "none@example.com", null, null);
+  }
+
+  @Test
+  void matchesCountryAndProvinceScopes() {
+    scope("COUNTRY", MY);
+    scope("PROVINCE", MY_01);
+
+    assertThat(visibleBySpecification(ACTOR)).containsExactlyInAnyOrder("my.a@example.com", "sg.b@example.com");
+    assertThat(visibleByQuerydsl(ACTOR)).containsExactlyInAnyOrder("my.a@example.com", "sg.b@example.com");
+  }
+
+  @Test
+  void scopeTypeIsCaseInsensitive() {
+    scope("country", MY);
+    scope("Province", MY_01);
+
+    assertThat(visibleBySpecification(ACTOR)).containsExactlyInAnyOrder("my.a@example.com", "sg.b@example.com");
+    assertThat(visibleByQuerydsl(ACTOR)).containsExactlyInAnyOrder("my.a@example.com", "sg.b@example.com");
+  }
+
+  @Test
+  void otherScopeTypesAndOtherActorsMatchNothing() {
+    scope("STUDIO", MY);
+    jdbc.update("INSERT INTO user_scope (id, user_id, scope_type, scope_id) VALUES (?, ?, 'COUNTRY', ?)",
+        "01HZSC0PE0XS0000000000000Z", "01HZSC0PE0SG0000000000000A", SG);
+
+    assertThat(visibleBySpecification(ACTOR)).isEmpty();
+    assertThat(visibleByQuerydsl(ACTOR)).isEmpty();
+    assertThat(visibleBySpecification(null)).isEmpty();
+  }
+
+  private List<String> visibleBySpecification(String actor) {
+    return users.findAll(ScopeSpecifications.<UserEntity>withinActorScopes(actor, "countryId", "provinceId"))
+        .stream().map(UserEntity::getEmail).toList();
+  }
+
+  private List<String> visibleByQuerydsl(String actor) {
+    QUserEntity u = QUserEntity.userEntity;
+    return queryFactory.select(u.email).from(u)
+        .where(ScopeSpecifications.withinActorScopes(actor, u.countryId, u.provinceId))
+        .fetch();
+  }
+
+  private void user(String id, String email, String countryId, String provinceId) {
+    jdbc.update("INSERT INTO users (id, email, full_name, is_active, country_id, province_id) VALUES (?, ?, ?, TRUE, ?, ?)",
+        id, email, email, countryId, provinceId);
+  }
+
+  private void scope(String type, String scopeId) {
+    jdbc.update("INSERT INTO user_scope (id, user_id, scope_type, scope_id) VALUES (?, ?, ?, ?)",
+        "01HZSC0PE0XS" + String.format("%014d", jdbc.queryForObject("SELECT count(*) FROM user_scope", Long.class)),
+        ACTOR, type, scopeId);
+  }
+}
@@ -0,0 +1,165 @@
+package web.rbac;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import web.TestcontainersConfiguration;
+import web.user.UserRepository;
+import web.user.entity.QUserEntity;
+import web.user.entity.UserEntity;
+
+/**
+ * Listing filters of {@link AuthorizationService} agree with {@link PermissionSnapshot#permits}
+ * for qualified and scoped grants.
+ */
+@SpringBootTest(classes = web.WebApplication.class)
+@Import(TestcontainersConfiguration.class)
+@Sql(scripts = {"classpath:sql/truncate_all.sql", "classpath:sql/test_seed.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class ScopedViewIntegrationTest {
+
+  private static final String ROLE = "01HZSVW0000000000000000R01";
+  private static final String ACTOR = "01HZSVW00000000000000ACT01";
+  private static final String MY = "01HZY0AM000000000000000000";
+  private static final String SG = "01HZY0AK000000000000000000";
+  private static final String MY_01 = "01HZY0MY000000000000000001";
+
+  @Autowired JdbcTemplate jdbc;
+  @Autowired AuthorizationService authz;
+  @Autowired UserRepository users;
+  @Autowired JPAQueryFactory queryFactory;
+  @Autowired ApplicationEventPublisher events;
+  @MockBean FirebaseAuth firebaseAuth;
+
+  @BeforeEach
+  void seed() {
+    jdbc.update("INSERT INTO roles (id, name) VALUES (?, 'SCOPED_VIEW_TEST') ON CONFLICT (id) DO NOTHING", ROLE);
+    user(ACTOR, "actor@example.com", MY, null, true);
+    jdbc.update("INSERT INTO user_roles (id, user_id, role_id) VALUES ('01HZSVW0000000000000000XR1', ?, ?)", ACTOR, ROLE);
+    user("01HZSVW0000000000000000MY1", "my.active@example.com", MY, null, true);
+    user("01HZSVW0000000000000000MY2", "my.inactive@example.com", MY, null, false);
+    user("01HZSVW0000000000000000SG1", "sg.active@example.com", SG, null, true);
+    user("01HZSVW0000000000000000SG2", "sg.province@example.com", SG, MY_01, true);
+    user("01HZSVW00000000000000N0NE1", "no.country@example.com", null, null, true);
+  }
+
+  @AfterEach
+  void cleanup() {
+    jdbc.update("DELETE FROM role_permissions WHERE role_id = ?", ROLE);
+    jdbc.update("DELETE FROM permissions WHERE id LIKE '01HZSVW%'");
+    jdbc.update("DELETE FROM user_roles WHERE role_id = ?", ROLE);
+  }
+
+  @Test
+  void qualifiedDenyKeepsRowsWithNullAttribute() {
+    grant("P1", "GLOBAL", "ALLOW", null);
+    grant("P2", "GLOBAL", "DENY", "{\"attr\":\"countryId\",\"op\":\"eq\",\"value\":\"" + SG + "\"}");
+
+    List<String> expected = List.of("actor@example.com", "my.active@example.com", "my.inactive@example.com",
+        "no.country@example.com", "creator@example.com");
+    assertThat(visibleBySpecification()).containsExactlyInAnyOrderElementsOf(expected);
+    assertThat(visibleByQuerydsl()).containsExactlyInAnyOrderElementsOf(expected);
+    assertThat(permitted()).containsExactlyInAnyOrderElementsOf(expected);
+    assertThat(authz.seesAllRows(ACTOR, "USER", "VIEW")).isFalse();
+  }
+
+  @Test
+  void onlyUnconditionalGlobalGrantSeesAllRows() {
+    grant("P1", "GLOBAL", "ALLOW", null);
+
+    assertThat(authz.seesAllRows(ACTOR, "USER", "VIEW")).isTrue();
+    assertThat(authz.seesAllRows(ACTOR, "USER", "UPDATE")).isFalse();
+    assertThat(authz.seesAllRows(null, "USER", "VIEW")).isFalse();
+  }
+
+  @Test
+  void negatedQualifierKeepsRowsWithNullAttribute() {
+    grant("P1", "GLOBAL", "ALLOW", "{\"not\":{\"attr\":\"countryId\",\"op\":\"eq\",\"value\":\"" + SG + "\"}}");
+
+    List<String> expected = List.of("actor@example.com", "my.active@example.com", "my.inactive@example.com",
+        "no.country@example.com", "creator@example.com");
+    assertThat(visibleBySpecification()).containsExactlyInAnyOrderElementsOf(expected);
+    assertThat(visibleByQuerydsl()).containsExactlyInAnyOrderElementsOf(expected);
+  }
+
+  @Test
+  void scopesWithoutGrantAtTheirLevelShowNothing() {
+    grant("P1", "PROVINCE", "ALLOW", null);
+    scope("COUNTRY", MY, "1");
+    scope("PROVINCE", MY_01, "2");
+
+    assertThat(visibleBySpecification()).containsExactly("sg.province@example.com");
+    assertThat(visibleByQuerydsl()).containsExactly("sg.province@example.com");
+    assertThat(permitted()).containsExactly("sg.province@example.com");
+    assertThat(authz.viewAccess(ACTOR, "USER", "VIEW")).isEqualTo(AuthorizationService.ViewAccess.SCOPED);
+  }
+
+  @Test
+  void qualifiedScopedAllowKeepsItsQualifier() {
+    grant("P1", "COUNTRY", "ALLOW", "{\"attr\":\"isActive\",\"op\":\"eq\",\"value\":true}");
+    scope("COUNTRY", MY, "1");
+
+    assertThat(visibleBySpecification()).containsExactlyInAnyOrder("actor@example.com", "my.active@example.com");
+    assertThat(visibleByQuerydsl()).containsExactlyInAnyOrder("actor@example.com", "my.active@example.com");
+    assertThat(permitted()).containsExactlyInAnyOrder("actor@example.com", "my.active@example.com");
+  }
+
+  @Test
+  void scopesWithoutScopedGrantGiveNoViewAccess() {
+    grant("P1", "SELF", "ALLOW", null);
+    scope("COUNTRY", MY, "1");
+
+    assertThat(authz.viewAccess(ACTOR, "USER", "VIEW")).isEqualTo(AuthorizationService.ViewAccess.NONE);
+    assertThat(visibleBySpecification()).isEmpty();
+    assertThat(visibleByQuerydsl()).isEmpty();
+  }
+
+  private List<String> visibleBySpecification() {
+    return users.findAll(authz.userViewSpecForUserId(ACTOR)).stream().map(UserEntity::getEmail).toList();
+  }
+
+  private List<String> visibleByQuerydsl() {
+    QUserEntity u = QUserEntity.userEntity;
+    return queryFactory.select(u.email).from(u).where(authz.userViewPredicate(ACTOR)).fetch();
+  }
+
+  private List<String> permitted() {
+    PermissionSnapshot snapshot = authz.snapshotFor(ACTOR);
+    return users.findAll().stream()
+        .filter(t -> snapshot.permits("USER", "VIEW", t, t.getId(), t.getCountryId(), t.getProvinceId(), false))
+        .map(UserEntity::getEmail)
+        .toList();
+  }
+
+  private void grant(String suffix, String scope, String effect, String qualifiers) {
+    String permissionId = "01HZSVW00000000000000000" + suffix;
+    jdbc.update("INSERT INTO permissions (id, resource, action, scope, effect, qualifiers) VALUES (?, 'USER', 'VIEW', ?, ?, CAST(? AS jsonb))",
+        permissionId, scope, effect, qualifiers);
+    jdbc.update("INSERT INTO role_permissions (id, role_id, permission_id) VALUES (?, ?, ?)",
+        "01HZSVW0000000000000000R" + suffix, ROLE, permissionId);
+    // Drop snapshots cached before these rows existed instead of waiting for the notification
+    events.publishEvent(RbacChangedEvent.allUsers());
+  }
+
+  private void scope(String type, String scopeId, String suffix) {
+    jdbc.update("INSERT INTO user_scope (id, user_id, scope_type, scope_id) VALUES (?, ?, ?, ?)",
+        "01HZSVW00000000000000000S" + suffix, ACTOR, type, scopeId);
+    events.publishEvent(RbacChangedEvent.allUsers());
+  }
+
+  private void user(String id, String email, String countryId, String provinceId, boolean active) {
+    jdbc.update("INSERT INTO users (id, email, full_name, is_active, country_id, province_id) VALUES (?, ?, ?, ?, ?, ?)",
+        id, email, email, active, countryId, provinceId);
+  }
+}
@@ -0,0 +1,83 @@
+package web.rbac.qualifier;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import web.rbac.PermissionSnapshot;
+import web.rbac.entity.PermissionEntity;
+import web.rbac.entity.UserScopeEntity;
+import web.user.entity.UserEntity;
+
+/**
+ * Per-decision cost of qualified grants. Run after {@code mvn test-compile}:
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) org.openjdk.jmh.Main QualifierBenchmark
+ * </pre>
+ *
+ * (cp.txt from {@code mvn dependency:build-classpath -Dmdep.outputFile=cp.txt}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QualifierBenchmark {
+
+  private static final String QUALIFIER = """
+      {"all": [
+        {"attr": "isActive", "op": "eq", "value": true},
+        {"any": [
+          {"attr": "roleId", "op": "in", "values": ["01HZRB00000000000000000005", "01HZRB00000000000000000006"]},
+          {"attr": "countryId", "op": "ne", "value": "01J0000000000000000000000X"}
+        ]},
+        {"not": {"attr": "email", "op": "exists", "value": false}}
+      ]}""";
+
+  private Qualifier<UserEntity> qualifier;
+  private PermissionSnapshot snapshot;
+  private UserEntity target;
+
+  @Setup
+  public void setUp() {
+    qualifier = QualifierCompiler.compile(QUALIFIER, QualifierAttributes.USER);
+
+    PermissionEntity p = new PermissionEntity();
+    p.setId("01PERM00000000000000000001");
+    p.setResource("USER");
+    p.setAction("UPDATE");
+    p.setScope("COUNTRY");
+    p.setEffect("ALLOW");
+    p.setQualifiers(QUALIFIER);
+    UserScopeEntity s = new UserScopeEntity();
+    s.setScopeType("COUNTRY");
+    s.setScopeId("01J00000000000000000000001");
+    snapshot = PermissionSnapshot.compile("01ACTOR0000000000000000001", List.of(p), List.of(s));
+
+    target = new UserEntity();
+    target.setId("01TARGET000000000000000001");
+    target.setEmail("t@example.com");
+    target.setCountryId("01J00000000000000000000001");
+    target.setRoleId("01HZRB00000000000000000006");
+  }
+
+  @Benchmark
+  public boolean qualifierTest() {
+    return qualifier.test(target);
+  }
+
+  @Benchmark
+  public boolean snapshotPermits() {
+    return snapshot.permits("USER", "UPDATE", target, target.getId(), target.getCountryId(), null, true);
+  }
+}
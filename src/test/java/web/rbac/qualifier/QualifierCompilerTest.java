@@ -0,0 +1,68 @@
+package web.rbac.qualifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import web.user.entity.UserEntity;
+
+class QualifierCompilerTest {
+
+  @Test
+  void emptyDocuments_meanNoRestriction() {
+    assertThat(QualifierCompiler.compile(null, QualifierAttributes.USER)).isNull();
+    assertThat(QualifierCompiler.compile(" ", QualifierAttributes.USER)).isNull();
+    assertThat(QualifierCompiler.compile("{}", QualifierAttributes.USER)).isNull();
+  }
+
+  @Test
+  void nestedTree_evaluatesAgainstEntity() {
+    Qualifier<UserEntity> q = QualifierCompiler.compile("""
+        {"all": [
+          {"attr": "isActive", "op": "eq", "value": true},
+          {"any": [
+            {"attr": "countryId", "op": "in", "values": ["C1", "C2"]},
+            {"not": {"attr": "email", "op": "exists"}}
+          ]}
+        ]}""", QualifierAttributes.USER);
+
+    assertThat(q.test(user("C1", "a@x", true))).isTrue();
+    assertThat(q.test(user("C9", null, true))).isTrue();
+    assertThat(q.test(user("C9", "a@x", true))).isFalse();
+    assertThat(q.test(user("C1", "a@x", false))).isFalse();
+    assertThat(q.toSpecification()).isPresent();
+  }
+
+  @Test
+  void negatedOperators_matchNullAttributes() {
+    Qualifier<UserEntity> ne = QualifierCompiler.compile("{\"attr\":\"countryId\",\"op\":\"ne\",\"value\":\"C1\"}", QualifierAttributes.USER);
+    Qualifier<UserEntity> nin = QualifierCompiler.compile("{\"attr\":\"countryId\",\"op\":\"nin\",\"values\":[\"C1\"]}", QualifierAttributes.USER);
+
+    assertThat(ne.test(user(null, null, true))).isTrue();
+    assertThat(nin.test(user(null, null, true))).isTrue();
+    assertThat(nin.test(user("C1", null, true))).isFalse();
+  }
+
+  @Test
+  void invalidDocuments_areRejected() {
+    assertThatThrownBy(() -> QualifierCompiler.compile("{\"attr\":\"salary\",\"value\":\"1\"}", QualifierAttributes.USER))
+        .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("salary");
+    assertThatThrownBy(() -> QualifierCompiler.compile("{\"attr\":\"isActive\",\"value\":\"yes\"}", QualifierAttributes.USER))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> QualifierCompiler.compile("{\"attr\":\"id\",\"op\":\"like\",\"value\":\"x\"}", QualifierAttributes.USER))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> QualifierCompiler.compile("{\"all\":[]}", QualifierAttributes.USER))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> QualifierCompiler.compile("{not json", QualifierAttributes.USER))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  static UserEntity user(String countryId, String email, boolean active) {
+    UserEntity u = new UserEntity();
+    u.setId("01TARGET000000000000000001");
+    u.setCountryId(countryId);
+    u.setEmail(email);
+    u.setIsActive(active);
+    return u;
+  }
+}
@@ -0,0 +1,151 @@
+package web.studio;
+
+import com.google.firebase.auth.FirebaseAuth;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import web.TestcontainersConfiguration;
+import web.common.dto.CountMode;
+import web.location.ReferenceDataCache;
+import web.studio.dto.StudioResponse;
+import web.studio.dto.StudioSuggestion;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Building a {@link StudioResponse} touches owner, address and postal code; the fetch plan must
+ * load them with the studio instead of issuing three queries per row.
+ */
+@SpringBootTest(classes = web.WebApplication.class,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(TestcontainersConfiguration.class)
+class StudioFetchPlanIntegrationTest {
+
+    private static final String OWNER_ID = "01HZFETCH00WNER00000000001";
+
+    @Autowired
+    private StudioService studioService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ReferenceDataCache referenceData;
+
+    @MockBean
+    private FirebaseAuth firebaseAuth;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.update("DELETE FROM studio WHERE owner_id = ?", OWNER_ID);
+        jdbc.update("DELETE FROM address WHERE created_by = ?", OWNER_ID);
+        jdbc.update("DELETE FROM users WHERE id = ?", OWNER_ID);
+        jdbc.update("INSERT INTO users (id, email, full_name, is_active) VALUES (?, 'fetch.plan@example.com', 'Fetch Plan', TRUE)", OWNER_ID);
+        String postalCodeId = jdbc.queryForObject("SELECT id FROM postal_code_reference ORDER BY id LIMIT 1", String.class);
+        for (int i = 0; i < 5; i++) {
+            String addressId = "01HZFETCHADDR0000000000" + String.format("%03d", i);
+            jdbc.update("""
+                    INSERT INTO address (id, street_line1, city, postal_code_id, province_code, country_code, created_by)
+                    SELECT ?, ?, p.city, p.id, translate(p.province_code, '-', '0'), p.country_code, ? FROM postal_code_reference p WHERE p.id = ?
+                    """, addressId, i + " Fetch Street", OWNER_ID, postalCodeId);
+            studio("01HZFETCHSTD00000000000" + String.format("%03d", i), "Fetch Studio " + i, "FETCH" + i, addressId);
+        }
+        referenceData.countryName("MY"); // country/province names are cached, load them up front
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void ownerPage_loadsAssociationsInTheStudioQuery() {
+        Page<StudioResponse> page = studioService.findStudiosByOwner(OWNER_ID, PageRequest.of(0, 3));
+
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getContent()).hasSize(3)
+                .allSatisfy(s -> {
+                    assertThat(s.getOwner().getId()).isEqualTo(OWNER_ID);
+                    assertThat(s.getAddress().getPostalCode()).isNotNull();
+                });
+        // Page query + count query, independent of the number of studios
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void ownerSlice_isOneStatement() {
+        List<StudioResponse> content = studioService
+                .findStudiosByOwner(OWNER_ID, PageRequest.of(0, 10), CountMode.NONE).content();
+
+        assertThat(content).hasSize(5);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void geographicArea_isOneStatement() {
+        List<StudioResponse> studios = studioService.findStudiosByGeographicArea("MY", null, PageRequest.of(0, 50));
+
+        assertThat(studios).extracting(StudioResponse::getId).hasSizeGreaterThanOrEqualTo(5);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void searchByName_isIdsThenOneFetch() {
+        List<StudioResponse> studios = studioService.searchStudiosByName("fetch", PageRequest.of(0, 10));
+
+        assertThat(studios).hasSize(5).allSatisfy(s -> assertThat(s.getOwner().getFullName()).isEqualTo("Fetch Plan"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void autocomplete_matchesWordPrefixesAndToleratesTypos() {
+        assertThat(studioService.autocompleteStudios("fetch stu", 10)).hasSize(5)
+                .allSatisfy(s -> assertThat(s.getCity()).isNotNull());
+        assertThat(studioService.autocompleteStudios("Studio 3", 10))
+                .extracting(StudioSuggestion::getName).containsExactly("Fetch Studio 3");
+        assertThat(studioService.autocompleteStudios("fetcj", 10)).hasSize(5);
+        assertThat(studioService.autocompleteStudios("&|!", 10)).isEmpty();
+    }
+
+    @Test
+    void autocomplete_picksTheBestCandidatesOfALargeMatchSet() {
+        // More prefix matches than the candidate cap; the closest name is inserted last
+        for (int i = 0; i < 250; i++) {
+            studio("01HZFETCHCRWD000000000" + String.format("%04d", i), "Fetch Crowd Studio Number " + i, "CROWD" + i);
+        }
+        studio("01HZFETCHCRWD00000000BEST1", "Fetch Crowd", "CROWDBEST");
+
+        assertThat(studioService.autocompleteStudios("fetch crowd", 1))
+                .extracting(StudioSuggestion::getName).containsExactly("Fetch Crowd");
+    }
+
+    @Test
+    void searchWithoutMatches_skipsTheFetchPhase() {
+        assertThat(studioService.searchStudiosByName("nothing-matches-this", PageRequest.of(0, 10))).isEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private void studio(String id, String name, String code) {
+        studio(id, name, code, "01HZFETCHADDR0000000000000");
+    }
+
+    private void studio(String id, String name, String code, String addressId) {
+        jdbc.update("""
+                INSERT INTO studio (id, name, code, company_name, address_id, owner_id, created_by)
+                VALUES (?, ?, ?, 'Fetch Co', ?, ?, ?)
+                """, id, name, code, addressId, OWNER_ID, OWNER_ID);
+    }
+}
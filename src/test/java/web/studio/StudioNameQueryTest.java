@@ -0,0 +1,30 @@
+package web.studio;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StudioNameQueryTest {
+
+    @Test
+    void prefix_joinsWordsAsPrefixTerms() {
+        assertThat(prefix("Dance")).isEqualTo("dance:*");
+        assertThat(prefix("  Dance  St")).isEqualTo("dance:* & st:*");
+        assertThat(prefix("Ballet-Études 2")).isEqualTo("ballet:* & études:* & 2:*");
+    }
+
+    @Test
+    void words_dropTsquerySyntax() {
+        assertThat(StudioNameQuery.words("a & !b | (c):* <-> 'd'")).containsExactly("a", "b", "c", "d");
+        assertThat(StudioNameQuery.words("&|!():*")).isEmpty();
+        assertThat(StudioNameQuery.words("   ")).isEmpty();
+        assertThat(StudioNameQuery.words(null)).isEmpty();
+        assertThat(StudioNameQuery.prefix(List.of())).isNull();
+    }
+
+    private static String prefix(String input) {
+        return StudioNameQuery.prefix(StudioNameQuery.words(input));
+    }
+}
@@ -0,0 +1,172 @@
+package web.user;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.context.annotation.Import;
+
+import web.TestcontainersConfiguration;
+
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(classes = web.WebApplication.class)
+@AutoConfigureMockMvc
+@Import(TestcontainersConfiguration.class)
+@Sql(scripts = {"classpath:sql/truncate_all.sql", "classpath:sql/test_seed.sql", "classpath:sql/test_seed_country_manager.sql"},
+    executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql/test_cleanup_country_manager.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class UserBulkMutationIntegrationTest {
+
+  private static final String CREATOR_ID = "01ABCDEFGHJKMNPQRSTVWXYZ12";
+  private static final String MANAGER_ID = "01HZTESTCM0000000000000M01";
+  private static final String MY_USER_1 = "01HZBATC000000000000000MY1";
+  private static final String MY_USER_2 = "01HZBATC000000000000000MY2";
+  private static final String SG_USER = "01HZBATC000000000000000SG1";
+  private static final String UNKNOWN = "01HZBATC000000000000000XXX";
+  private static final String MY = "01HZY0AM000000000000000000";
+  private static final String SG = "01HZY0AK000000000000000000";
+
+  @Autowired MockMvc mvc;
+  @Autowired JdbcTemplate jdbc;
+  @MockBean FirebaseAuth firebaseAuth;
+
+  private void mockAuth(String token, String email) throws Exception {
+    FirebaseToken decoded = Mockito.mock(FirebaseToken.class);
+    Mockito.when(decoded.getEmail()).thenReturn(email);
+    Mockito.when(firebaseAuth.verifyIdToken(eq(token), eq(true))).thenReturn(decoded);
+  }
+
+  @BeforeEach
+  void seedTargets() {
+    jdbc.update("INSERT INTO users (id, email, full_name, is_active, country_id) VALUES (?, 'my1@example.com', 'MY One', TRUE, ?)", MY_USER_1, MY);
+    jdbc.update("INSERT INTO users (id, email, full_name, is_active, country_id) VALUES (?, 'my2@example.com', 'MY Two', TRUE, ?)", MY_USER_2, MY);
+    jdbc.update("INSERT INTO users (id, email, full_name, is_active, country_id) VALUES (?, 'sg1@example.com', 'SG One', TRUE, ?)", SG_USER, SG);
+  }
+
+  @Test
+  void bulk_update_reports_updated_denied_and_not_found_per_id() throws Exception {
+    mockAuth("manager-token", "manager@example.com");
+
+    mvc.perform(patch("/api/v1/users/bulk")
+            .header("Authorization", "Bearer manager-token")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("""
+                {"ids":["%s","%s","%s","%s"],"isActive":false}
+                """.formatted(MY_USER_1, SG_USER, UNKNOWN, MY_USER_1)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data", hasSize(3))) // duplicate ids are reported once
+        .andExpect(jsonPath("$.data[0].id").value(MY_USER_1))
+        .andExpect(jsonPath("$.data[0].status").value("UPDATED"))
+        .andExpect(jsonPath("$.data[1].id").value(SG_USER))
+        .andExpect(jsonPath("$.data[1].status").value("DENIED"))
+        .andExpect(jsonPath("$.data[2].id").value(UNKNOWN))
+        .andExpect(jsonPath("$.data[2].status").value("NOT_FOUND"));
+
+    assertThat(isActive(MY_USER_1)).isFalse();
+    assertThat(isActive(SG_USER)).isTrue();
+  }
+
+  @Test
+  void bulk_update_without_changes_is_rejected() throws Exception {
+    mockAuth("creator-token", "creator@example.com");
+
+    mvc.perform(patch("/api/v1/users/bulk")
+            .header("Authorization", "Bearer creator-token")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"ids\":[\"" + MY_USER_1 + "\"]}"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error.code").value("ARGUMENT_INVALID"));
+  }
+
+  @Test
+  void bulk_update_over_500_ids_fails_validation() throws Exception {
+    mockAuth("creator-token", "creator@example.com");
+    String ids = IntStream.range(0, 501)
+        .mapToObj(i -> "\"01HZBATC" + String.format("%018d", i) + "\"")
+        .collect(Collectors.joining(","));
+
+    mvc.perform(patch("/api/v1/users/bulk")
+            .header("Authorization", "Bearer creator-token")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"ids\":[" + ids + "],\"isActive\":false}"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.success").value(false));
+  }
+
+  @Test
+  void bulk_delete_refuses_self_and_out_of_scope_targets() throws Exception {
+    mockAuth("manager-token", "manager@example.com");
+
+    mvc.perform(post("/api/v1/users/bulk-delete")
+            .header("Authorization", "Bearer manager-token")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("""
+                {"ids":["%s","%s","%s","%s"]}
+                """.formatted(MANAGER_ID, MY_USER_2, SG_USER, UNKNOWN)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data[*].status", contains("DENIED", "DELETED", "DENIED", "NOT_FOUND")));
+
+    assertThat(isDeleted(MANAGER_ID)).isFalse();
+    assertThat(isDeleted(MY_USER_2)).isTrue();
+    assertThat(isDeleted(SG_USER)).isFalse();
+
+    // Already deleted rows are reported as not found
+    mvc.perform(post("/api/v1/users/bulk-delete")
+            .header("Authorization", "Bearer manager-token")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"ids\":[\"" + MY_USER_2 + "\"]}"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data[0].status").value("NOT_FOUND"));
+  }
+
+  @Test
+  void bulk_delete_refuses_self_even_with_global_permission() throws Exception {
+    mockAuth("creator-token", "creator@example.com");
+
+    mvc.perform(post("/api/v1/users/bulk-delete")
+            .header("Authorization", "Bearer creator-token")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"ids\":[\"" + CREATOR_ID + "\",\"" + SG_USER + "\"]}"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data[*].status", contains("DENIED", "DELETED")));
+
+    assertThat(isDeleted(CREATOR_ID)).isFalse();
+  }
+
+  @Test
+  void bulk_delete_with_empty_ids_fails_validation() throws Exception {
+    mockAuth("creator-token", "creator@example.com");
+
+    mvc.perform(post("/api/v1/users/bulk-delete")
+            .header("Authorization", "Bearer creator-token")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"ids\":[]}"))
+        .andExpect(status().isBadRequest());
+  }
+
+  private boolean isActive(String id) {
+    return jdbc.queryForObject("SELECT is_active FROM users WHERE id = ?", Boolean.class, id);
+  }
+
+  private boolean isDeleted(String id) {
+    return jdbc.queryForObject("SELECT deleted_at IS NOT NULL FROM users WHERE id = ?", Boolean.class, id);
+  }
+}
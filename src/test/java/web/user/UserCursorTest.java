@@ -0,0 +1,35 @@
+package web.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import web.common.exception.AppException;
+
+class UserCursorTest {
+
+  @Test
+  void encodeDecode_roundTripsAtMicrosecondPrecision() {
+    UserCursor cursor = new UserCursor(Instant.parse("2025-09-12T03:04:05.123456Z"), "01ABCDEFGHJKMNPQRSTVWXYZ12");
+
+    String token = cursor.encode();
+
+    assertThat(token).doesNotContain("=", "+", "/");
+    assertThat(UserCursor.decode(token)).isEqualTo(cursor);
+  }
+
+  @Test
+  void preEpochTimestamps_roundTrip() {
+    UserCursor cursor = new UserCursor(Instant.parse("1969-12-31T23:59:59.000001Z"), "01A");
+
+    assertThat(UserCursor.decode(cursor.encode())).isEqualTo(cursor);
+  }
+
+  @Test
+  void malformedTokens_areArgumentErrors() {
+    assertThatThrownBy(() -> UserCursor.decode("not base64!")).isInstanceOf(AppException.class);
+    assertThatThrownBy(() -> UserCursor.decode("MTIz")).isInstanceOf(AppException.class); // "123", no separator
+    assertThatThrownBy(() -> UserCursor.decode("eDox")).isInstanceOf(AppException.class); // "x:1"
+  }
+}
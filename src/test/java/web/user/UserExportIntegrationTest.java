@@ -0,0 +1,112 @@
+package web.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.context.annotation.Import;
+
+import web.TestcontainersConfiguration;
+
+import org.springframework.test.context.jdbc.Sql;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(classes = web.WebApplication.class)
+@AutoConfigureMockMvc
+@Import(TestcontainersConfiguration.class)
+@Sql(scripts = {"classpath:sql/truncate_all.sql", "classpath:sql/test_seed.sql", "classpath:sql/test_seed_country_manager.sql"},
+    executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql/test_cleanup_country_manager.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class UserExportIntegrationTest {
+
+  private static final String MY = "01HZY0AM000000000000000000";
+  private static final String SG = "01HZY0AK000000000000000000";
+
+  @Autowired MockMvc mvc;
+  @Autowired ObjectMapper objectMapper;
+  @Autowired JdbcTemplate jdbc;
+  @MockBean FirebaseAuth firebaseAuth;
+
+  private void mockAuth(String token, String email) throws Exception {
+    FirebaseToken decoded = Mockito.mock(FirebaseToken.class);
+    Mockito.when(decoded.getEmail()).thenReturn(email);
+    Mockito.when(firebaseAuth.verifyIdToken(eq(token), eq(true))).thenReturn(decoded);
+  }
+
+  @BeforeEach
+  void seedUsers() {
+    jdbc.update("INSERT INTO users (id, email, full_name, is_active, country_id) VALUES ('01HZEXP0RT0000000000000MY1', 'my1@example.com', 'Tan, \"Ah\" Kow', TRUE, ?)", MY);
+    jdbc.update("INSERT INTO users (id, email, full_name, is_active, country_id) VALUES ('01HZEXP0RT0000000000000MY2', 'my2@example.com', 'MY Two', TRUE, ?)", MY);
+    jdbc.update("INSERT INTO users (id, email, full_name, is_active, country_id) VALUES ('01HZEXP0RT0000000000000SG1', 'sg1@example.com', 'SG One', TRUE, ?)", SG);
+  }
+
+  @Test
+  void export_contains_exactly_the_rows_of_the_listing() throws Exception {
+    mockAuth("manager-token", "manager@example.com");
+
+    String listed = mvc.perform(get("/api/v1/users").param("size", "200")
+            .header("Authorization", "Bearer manager-token"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+    List<String> expected = new ArrayList<>();
+    objectMapper.readTree(listed).at("/data").forEach(item -> expected.add(item.get("email").asText()));
+
+    List<String> exported = new ArrayList<>();
+    for (String line : export("manager-token", "ndjson").lines().toList()) {
+      exported.add(objectMapper.readTree(line).get("email").asText());
+    }
+
+    assertThat(expected).containsExactlyInAnyOrder("my1@example.com", "my2@example.com", "manager@example.com");
+    assertThat(exported).containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  void csv_export_applies_filters_and_quotes_fields() throws Exception {
+    mockAuth("creator-token", "creator@example.com");
+
+    String csv = export("creator-token", "csv", "name", "tan");
+
+    assertThat(csv).isEqualTo("id,name,email,phone,role,country,province\r\n"
+        + "01HZEXP0RT0000000000000MY1,\"Tan, \"\"Ah\"\" Kow\",my1@example.com,,,malaysia,\r\n");
+  }
+
+  @Test
+  void export_without_view_permission_is_empty() throws Exception {
+    jdbc.update("INSERT INTO users (id, email, full_name, is_active) VALUES ('01HZEXP0RT00000000000N0NE1', 'nobody@example.com', 'No Body', TRUE)");
+    mockAuth("nobody-token", "nobody@example.com");
+
+    assertThat(export("nobody-token", "ndjson")).isEmpty();
+  }
+
+  private String export(String token, String format, String... params) throws Exception {
+    var request = get("/api/v1/users/export").param("format", format).header("Authorization", "Bearer " + token);
+    for (int i = 0; i < params.length; i += 2) {
+      request.param(params[i], params[i + 1]);
+    }
+    MvcResult started = mvc.perform(request)
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    return mvc.perform(asyncDispatch(started))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Content-Disposition", containsString("users." + format)))
+        .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,127 @@
+package web.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Predicate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import web.common.security.AuthenticatedUser;
+import web.rbac.AuthorizationService;
+import web.user.dto.UserListItemResponse;
+import web.user.entity.QUserEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserExportServiceTest {
+
+  private static final String ACTOR = "01HZEXP0RT000000000000ACT1";
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  @Mock
+  private UserQueryRepository queries;
+
+  @Mock
+  private AuthorizationService authz;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private UserExportService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new UserExportService(queries, authz, MAPPER, transactionManager);
+    AuthenticatedUser actor = new AuthenticatedUser(ACTOR, "actor@example.com", null, null, List.of(), "Actor");
+    SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(actor, null, List.of()));
+    when(authz.userViewPredicate(ACTOR)).thenReturn(QUserEntity.userEntity.countryId.eq("VISIBLE"));
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void csvQuotesSeparatorsQuotesAndLineBreaks() throws Exception {
+    rows(
+        new UserListItemResponse("01A", "Tan, Ah Kow", "a@example.com", null, null, "malaysia", "Johor"),
+        new UserListItemResponse("01B", "The \"Boss\"", "b@example.com", "+65 1", "R1", null, null),
+        new UserListItemResponse("01C", "Two\nLines", "c@example.com", null, null, "x\r\ny", null));
+
+    String csv = export(UserFileFormat.CSV);
+
+    assertThat(csv).isEqualTo("id,name,email,phone,role,country,province\r\n"
+        + "01A,\"Tan, Ah Kow\",a@example.com,,,malaysia,Johor\r\n"
+        + "01B,\"The \"\"Boss\"\"\",b@example.com,+65 1,R1,,\r\n"
+        + "01C,\"Two\nLines\",c@example.com,,,\"x\r\ny\",\r\n");
+  }
+
+  @Test
+  void csvWithoutRowsIsOnlyTheHeader() throws Exception {
+    rows();
+
+    assertThat(export(UserFileFormat.CSV)).isEqualTo("id,name,email,phone,role,country,province\r\n");
+  }
+
+  @Test
+  void ndjsonWritesOneObjectPerLine() throws Exception {
+    rows(
+        new UserListItemResponse("01A", "Two\nLines", "a@example.com", null, null, "malaysia", null),
+        new UserListItemResponse("01B", "Bob", "b@example.com", "+65 1", "R1", null, null));
+
+    String ndjson = export(UserFileFormat.NDJSON);
+
+    assertThat(ndjson).endsWith("}\n");
+    List<String> lines = ndjson.lines().toList();
+    assertThat(lines).hasSize(2);
+    assertThat(MAPPER.readValue(lines.get(0), UserListItemResponse.class).name()).isEqualTo("Two\nLines");
+    assertThat(MAPPER.readTree(lines.get(1)).get("id").asText()).isEqualTo("01B");
+  }
+
+  @Test
+  void ndjsonWithoutRowsIsEmpty() throws Exception {
+    rows();
+
+    assertThat(export(UserFileFormat.NDJSON)).isEmpty();
+  }
+
+  @Test
+  void exportAppliesListingFiltersAndViewPredicate() throws Exception {
+    rows();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    service.export(UserFileFormat.NDJSON, "MY", null, "tan", null, null, null, null).writeTo(out);
+
+    QUserEntity u = QUserEntity.userEntity;
+    Predicate expected = new BooleanBuilder()
+        .and(new UserListFilter("MY", null, "tan", null, null, null, null).toPredicate(u))
+        .and(u.countryId.eq("VISIBLE"));
+    verify(queries).stream(eq(expected), anyInt());
+    verify(authz).userViewPredicate(ACTOR);
+  }
+
+  private void rows(UserListItemResponse... items) {
+    when(queries.stream(any(), anyInt())).thenReturn(Stream.of(items));
+  }
+
+  private String export(UserFileFormat format) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    service.export(format, null, null, null, null, null, null, null).writeTo(out);
+    return out.toString(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,63 @@
+package web.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import web.common.exception.AppException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserImportReaderTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  @Test
+  void csvMatchesHeadersAndHandlesQuotedFields() throws IOException {
+    String csv = "\uFEFFEmail,Full Name,phone,ignored,is_active\r\n"
+        + "a@example.com,\"Tan, \"\"Ah\"\" Kow\",+6512345678,x,no\r\n"
+        + "\r\n"
+        + "b@example.com,\"Multi\nLine\",,,\r\n"
+        + "c@example.com,Bad,,,maybe\r\n";
+
+    List<UserImportReader.Line> lines = read(UserFileFormat.CSV, csv);
+
+    assertThat(lines).hasSize(3);
+    assertThat(lines.get(0).number()).isEqualTo(2);
+    assertThat(lines.get(0).request().email()).isEqualTo("a@example.com");
+    assertThat(lines.get(0).request().fullName()).isEqualTo("Tan, \"Ah\" Kow");
+    assertThat(lines.get(0).request().phone()).isEqualTo("+6512345678");
+    assertThat(lines.get(0).request().isActive()).isFalse();
+    assertThat(lines.get(1).number()).isEqualTo(4);
+    assertThat(lines.get(1).request().fullName()).isEqualTo("Multi\nLine");
+    assertThat(lines.get(1).request().phone()).isNull();
+    assertThat(lines.get(2).number()).isEqualTo(6);
+    assertThat(lines.get(2).error()).isEqualTo("invalid_boolean");
+  }
+
+  @Test
+  void ndjsonSkipsBlankLinesAndFlagsMalformedOnes() throws IOException {
+    String ndjson = "{\"email\":\"a@example.com\",\"fullName\":\"A\"}\n\n{oops\n";
+
+    List<UserImportReader.Line> lines = read(UserFileFormat.NDJSON, ndjson);
+
+    assertThat(lines).extracting(UserImportReader.Line::number).containsExactly(1, 3);
+    assertThat(lines.get(0).request().fullName()).isEqualTo("A");
+    assertThat(lines.get(1).error()).isEqualTo("malformed_json");
+  }
+
+  @Test
+  void rejectsBodiesOverTheRowLimit() {
+    assertThatThrownBy(() -> UserImportReader.read(UserFileFormat.NDJSON,
+        new ByteArrayInputStream("{}\n{}\n{}\n".getBytes(StandardCharsets.UTF_8)), MAPPER, 2))
+        .isInstanceOf(AppException.class);
+  }
+
+  private static List<UserImportReader.Line> read(UserFileFormat format, String body) throws IOException {
+    return UserImportReader.read(format, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), MAPPER, 100);
+  }
+}
@@ -0,0 +1,134 @@
+package web.user;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.context.annotation.Import;
+
+import web.TestcontainersConfiguration;
+
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(classes = web.WebApplication.class)
+@AutoConfigureMockMvc
+@Import(TestcontainersConfiguration.class)
+@Sql(scripts = {"classpath:sql/truncate_all.sql", "classpath:sql/test_seed.sql", "classpath:sql/test_seed_country_manager.sql"},
+    executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql/test_cleanup_country_manager.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class UserListingIntegrationTest {
+
+  private static final String MY = "01HZY0AM000000000000000000";
+  private static final String MY_01 = "01HZY0MY000000000000000001";
+
+  @Autowired MockMvc mvc;
+  @Autowired ObjectMapper objectMapper;
+  @Autowired JdbcTemplate jdbc;
+  @MockBean FirebaseAuth firebaseAuth;
+
+  private void mockAuth(String token, String email) throws Exception {
+    FirebaseToken decoded = Mockito.mock(FirebaseToken.class);
+    Mockito.when(decoded.getEmail()).thenReturn(email);
+    Mockito.when(firebaseAuth.verifyIdToken(eq(token), eq(true))).thenReturn(decoded);
+  }
+
+  @BeforeEach
+  void seedUsers() {
+    // Reference columns hold either ULIDs or codes; created_at fixes the listing order
+    user("01HZQRY000000000000000000A", "by.id@example.com", "By Id", "+6011", MY, MY_01, "2030-01-04");
+    user("01HZQRY000000000000000000B", "by.code@example.com", "By Code", null, "SG", "SG-01", "2030-01-03");
+    user("01HZQRY000000000000000000C", "percent@example.com", "50% Club", null, "SG", null, "2030-01-02");
+    user("01HZQRY000000000000000000D", "plain@example.com", "500 Club", null, "SG", null, "2030-01-01");
+  }
+
+  @Test
+  void list_projects_columns_and_resolves_reference_names() throws Exception {
+    mockAuth("creator-token", "creator@example.com");
+
+    mvc.perform(get("/api/v1/users").param("size", "2").param("count", "exact")
+            .header("Authorization", "Bearer creator-token"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data", hasSize(2)))
+        .andExpect(jsonPath("$.data[0].id").value("01HZQRY000000000000000000A"))
+        .andExpect(jsonPath("$.data[0].name").value("By Id"))
+        .andExpect(jsonPath("$.data[0].email").value("by.id@example.com"))
+        .andExpect(jsonPath("$.data[0].phone").value("+6011"))
+        .andExpect(jsonPath("$.data[0].country").value("malaysia"))
+        .andExpect(jsonPath("$.data[0].province").value("Johor"))
+        .andExpect(jsonPath("$.data[1].id").value("01HZQRY000000000000000000B"))
+        .andExpect(jsonPath("$.data[1].country").value("singapore"))
+        .andExpect(jsonPath("$.data[1].province").value("Central Singapore"))
+        .andExpect(jsonPath("$.meta.hasNext").value(true))
+        .andExpect(jsonPath("$.meta.totalItems").value(6)); // 4 seeded + creator + manager
+  }
+
+  @Test
+  void name_filter_treats_like_wildcards_literally() throws Exception {
+    mockAuth("creator-token", "creator@example.com");
+
+    mvc.perform(get("/api/v1/users").param("name", "50%")
+            .header("Authorization", "Bearer creator-token"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data[*].email", contains("percent@example.com")));
+  }
+
+  @Test
+  void scoped_actor_lists_only_users_in_its_countries() throws Exception {
+    mockAuth("manager-token", "manager@example.com");
+
+    mvc.perform(get("/api/v1/users").header("Authorization", "Bearer manager-token"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data[*].email", containsInAnyOrder("by.id@example.com", "manager@example.com")));
+  }
+
+  @Test
+  void cursor_pages_walk_the_same_order_as_offset_pages() throws Exception {
+    mockAuth("creator-token", "creator@example.com");
+
+    List<String> walked = new ArrayList<>();
+    String cursor = "";
+    for (int i = 0; i < 10 && cursor != null; i++) {
+      String body = mvc.perform(get("/api/v1/users").param("after", cursor).param("size", "2")
+              .header("Authorization", "Bearer creator-token"))
+          .andExpect(status().isOk())
+          .andReturn().getResponse().getContentAsString();
+      JsonNode root = objectMapper.readTree(body);
+      root.at("/data").forEach(item -> walked.add(item.get("id").asText()));
+      cursor = root.at("/meta/nextCursor").isNull() ? null : root.at("/meta/nextCursor").asText();
+    }
+
+    String offset = mvc.perform(get("/api/v1/users").param("size", "100")
+            .header("Authorization", "Bearer creator-token"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+    List<String> expected = new ArrayList<>();
+    objectMapper.readTree(offset).at("/data").forEach(item -> expected.add(item.get("id").asText()));
+
+    assertThat(walked).hasSize(6).containsExactlyElementsOf(expected);
+  }
+
+  private void user(String id, String email, String fullName, String phone, String countryId, String provinceId,
+                    String createdOn) {
+    jdbc.update("INSERT INTO users (id, email, full_name, phone, is_active, country_id, province_id, created_at) "
+            + "VALUES (?, ?, ?, ?, TRUE, ?, ?, CAST(? AS date))",
+        id, email, fullName, phone, countryId, provinceId, createdOn);
+  }
+}
@@ -15,10 +15,13 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.context.annotation.Import;
 
 import web.TestcontainersConfiguration;
+import web.common.security.PrincipalResolver;
+import web.common.security.VerifiedToken;
 import web.user.dto.UserCreateRequest;
 
 import org.springframework.test.context.jdbc.Sql;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -36,6 +39,9 @@ class UserMutationIntegrationTest {
   @Autowired
   ObjectMapper objectMapper;
 
+  @Autowired
+  PrincipalResolver principals;
+
   @MockBean
   FirebaseAuth firebaseAuth;
 
@@ -133,4 +139,46 @@ class UserMutationIntegrationTest {
         .andExpect(status().isCreated())
         .andExpect(jsonPath("$.data.id", matchesPattern("^[0-9A-HJKMNP-TV-Z]{26}$")));
   }
+
+  @Test
+  void create_replaces_cached_unregistered_principal() throws Exception {
+    String token = "dummy-id-token";
+    mockAuth(token, "creator@example.com");
+    VerifiedToken newcomer = new VerifiedToken("uid-newcomer", "newcomer@example.com", null);
+
+    // Signed in before being provisioned: cached as unregistered
+    assertThat(principals.resolve(newcomer).userId()).isNull();
+
+    UserCreateRequest req = new UserCreateRequest("Newcomer@example.com", null, "Newcomer", null, null, null, null);
+    String resp = mvc.perform(post("/api/v1/users")
+            .header("Authorization", "Bearer " + token)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(req)))
+        .andExpect(status().isCreated())
+        .andReturn().getResponse().getContentAsString();
+    String id = objectMapper.readTree(resp).at("/data/id").asText();
+
+    assertThat(principals.resolve(newcomer).userId()).isEqualTo(id);
+  }
+
+  @Test
+  void import_replaces_cached_unregistered_principal() throws Exception {
+    String token = "dummy-id-token";
+    mockAuth(token, "creator@example.com");
+    VerifiedToken newcomer = new VerifiedToken("uid-imported", "imported@example.com", null);
+
+    // Signed in before being imported: cached as unregistered
+    assertThat(principals.resolve(newcomer).userId()).isNull();
+
+    String resp = mvc.perform(post("/api/v1/users/import")
+            .header("Authorization", "Bearer " + token)
+            .contentType("text/csv")
+            .content("email,name\r\nImported@example.com,Imported User\r\n"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data[0].status").value("CREATED"))
+        .andReturn().getResponse().getContentAsString();
+    String id = objectMapper.readTree(resp).at("/data/0/id").asText();
+
+    assertThat(principals.resolve(newcomer).userId()).isEqualTo(id);
+  }
 }
@@ -0,0 +1,120 @@
+package web.user;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.context.annotation.Import;
+
+import web.TestcontainersConfiguration;
+
+import org.springframework.test.context.jdbc.Sql;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(classes = web.WebApplication.class)
+@AutoConfigureMockMvc
+@Import(TestcontainersConfiguration.class)
+@Sql(scripts = {"classpath:sql/truncate_all.sql", "classpath:sql/test_seed.sql", "classpath:sql/test_seed_country_manager.sql"},
+    executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql/test_cleanup_country_manager.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class UserSearchIntegrationTest {
+
+  private static final String MY = "01HZY0AM000000000000000000";
+  private static final String SG = "01HZY0AK000000000000000000";
+
+  @Autowired MockMvc mvc;
+  @Autowired JdbcTemplate jdbc;
+  @MockBean FirebaseAuth firebaseAuth;
+
+  private void mockAuth(String token, String email) throws Exception {
+    FirebaseToken decoded = Mockito.mock(FirebaseToken.class);
+    Mockito.when(decoded.getEmail()).thenReturn(email);
+    Mockito.when(firebaseAuth.verifyIdToken(eq(token), eq(true))).thenReturn(decoded);
+  }
+
+  @BeforeEach
+  void seedUsers() {
+    user("01HZSRCH00000000000000000A", "alice@example.com", "Alice Tan", MY, false);
+    user("01HZSRCH00000000000000000B", "bob@example.com", "Bob Tanaka", SG, false);
+    user("01HZSRCH00000000000000000C", "dan@example.com", "Dan Tan", MY, true);
+    user("01HZSRCH00000000000000000D", "carol@example.com", "Carol Lim", MY, false);
+  }
+
+  @Test
+  void search_ranks_similar_names_and_skips_deleted_users() throws Exception {
+    mockAuth("creator-token", "creator@example.com");
+
+    mvc.perform(get("/api/v1/users/search").param("q", "Tan")
+            .header("Authorization", "Bearer creator-token"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data[*].email", contains("alice@example.com", "bob@example.com")))
+        .andExpect(jsonPath("$.meta.count").value(2));
+
+    mvc.perform(get("/api/v1/users/search").param("q", "tan").param("limit", "1")
+            .header("Authorization", "Bearer creator-token"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data[*].email", contains("alice@example.com")));
+  }
+
+  @Test
+  void search_matches_email_words() throws Exception {
+    mockAuth("creator-token", "creator@example.com");
+
+    mvc.perform(get("/api/v1/users/search").param("q", "carol")
+            .header("Authorization", "Bearer creator-token"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data[*].email", contains("carol@example.com")))
+        .andExpect(jsonPath("$.data[0].name").value("Carol Lim"));
+  }
+
+  @Test
+  void scoped_actor_only_finds_users_in_its_countries() throws Exception {
+    // Scope types are not constrained to upper case
+    jdbc.update("UPDATE user_scope SET scope_type = 'country' WHERE user_id = '01HZTESTCM0000000000000M01'");
+    mockAuth("manager-token", "manager@example.com");
+
+    mvc.perform(get("/api/v1/users/search").param("q", "tan")
+            .header("Authorization", "Bearer manager-token"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data[*].email", contains("alice@example.com")));
+  }
+
+  @Test
+  void search_without_view_permission_is_empty() throws Exception {
+    jdbc.update("INSERT INTO users (id, email, full_name, is_active) VALUES ('01HZSRCH0000000000000N0NE1', 'nobody@example.com', 'No Body', TRUE)");
+    mockAuth("nobody-token", "nobody@example.com");
+
+    mvc.perform(get("/api/v1/users/search").param("q", "tan")
+            .header("Authorization", "Bearer nobody-token"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data", hasSize(0)));
+  }
+
+  @Test
+  void search_rejects_short_terms_and_large_limits() throws Exception {
+    mockAuth("creator-token", "creator@example.com");
+
+    mvc.perform(get("/api/v1/users/search").param("q", "t")
+            .header("Authorization", "Bearer creator-token"))
+        .andExpect(status().isBadRequest());
+    mvc.perform(get("/api/v1/users/search").param("q", "tan").param("limit", "51")
+            .header("Authorization", "Bearer creator-token"))
+        .andExpect(status().isBadRequest());
+  }
+
+  private void user(String id, String email, String fullName, String countryId, boolean deleted) {
+    jdbc.update("INSERT INTO users (id, email, full_name, is_active, country_id, deleted_at) VALUES (?, ?, ?, TRUE, ?, "
+        + (deleted ? "now()" : "NULL") + ")", id, email, fullName, countryId);
+  }
+}
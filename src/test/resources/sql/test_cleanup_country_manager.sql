@@ -0,0 +1,3 @@
+-- Removes the reference rows added by test_seed_country_manager.sql
+DELETE FROM role_permissions WHERE id LIKE '01HZTESTCM%';
+DELETE FROM permissions WHERE id LIKE '01HZTESTCM%';
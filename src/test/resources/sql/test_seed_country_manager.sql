@@ -0,0 +1,22 @@
+-- COUNTRY_MANAGER with USER VIEW/UPDATE/DELETE in its countries, held by manager@example.com scoped to MY.
+-- Permission rows survive truncate_all.sql; pair with test_cleanup_country_manager.sql.
+INSERT INTO permissions (id, resource, action, scope, effect) VALUES
+  ('01HZTESTCM0000000000000P01', 'USER', 'VIEW', 'COUNTRY', 'ALLOW'),
+  ('01HZTESTCM0000000000000P02', 'USER', 'UPDATE', 'COUNTRY', 'ALLOW'),
+  ('01HZTESTCM0000000000000P03', 'USER', 'DELETE', 'COUNTRY', 'ALLOW')
+ON CONFLICT (id) DO NOTHING;
+
+INSERT INTO role_permissions (id, role_id, permission_id)
+SELECT '01HZTESTCM0000000000000R' || right(p.id, 2), '01HZRB00000000000000000003', p.id
+FROM permissions p
+WHERE p.id LIKE '01HZTESTCM0000000000000P%'
+ON CONFLICT (id) DO NOTHING;
+
+INSERT INTO users (id, email, full_name, is_active, country_id)
+VALUES ('01HZTESTCM0000000000000M01', 'manager@example.com', 'Country Manager', TRUE, '01HZY0AM000000000000000000');
+
+INSERT INTO user_roles (id, user_id, role_id)
+VALUES ('01HZTESTCM0000000000000UR1', '01HZTESTCM0000000000000M01', '01HZRB00000000000000000003');
+
+INSERT INTO user_scope (id, user_id, scope_type, scope_id)
+VALUES ('01HZTESTCM0000000000000US1', '01HZTESTCM0000000000000M01', 'COUNTRY', '01HZY0AM000000000000000000');